@@ -1,19 +1,32 @@
 package common.datetime;
 
 import java.io.Serializable;
-import java.util.Calendar;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
 import java.util.Date;
-import java.util.GregorianCalendar;
-import java.text.SimpleDateFormat;
 
 /**
- * A simple wrapper around a calendar for working with dates like 12/29/1977. Does not consider time.
+ * A simple value type for working with dates like 12/29/1977. Does not consider time.
+ *
+ * Represented as the number of days since 1970-01-01 in the default time zone, together with the milliseconds at which
+ * that day starts. Instances are immutable, so today() can hand out the same instance for the whole day.
  */
 public class SimpleDate implements Serializable {
 
-	private static final long serialVersionUID = 2285962420279644602L;
+	private static final long serialVersionUID = -2791452468934385911L;
 
-	private GregorianCalendar base;
+	private static final ZoneId ZONE = ZoneId.systemDefault();
+
+	private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.SHORT);
+
+	private static volatile Today today;
+
+	private final int epochDay;
+
+	private final long startOfDay;
 
 	/**
 	 * Create a new simple date.
@@ -22,29 +35,16 @@ public class SimpleDate implements Serializable {
 	 * @param year the year
 	 */
 	public SimpleDate(int month, int day, int year) {
-		init(new GregorianCalendar(year, month - 1, day));
+		this(LocalDate.of(year, month, day));
 	}
 
 	SimpleDate(long time) {
-		GregorianCalendar cal = new GregorianCalendar();
-		cal.setTimeInMillis(time);
-		init(cal);
-	}
-
-	private SimpleDate() {
-		init(new GregorianCalendar());
+		this(Instant.ofEpochMilli(time).atZone(ZONE).toLocalDate());
 	}
 
-	private void init(GregorianCalendar cal) {
-		this.base = trimToDays(cal);
-	}
-
-	private GregorianCalendar trimToDays(GregorianCalendar cal) {
-		cal.set(Calendar.HOUR_OF_DAY, 0);
-		cal.set(Calendar.MINUTE, 0);
-		cal.set(Calendar.SECOND, 0);
-		cal.set(Calendar.MILLISECOND, 0);
-		return cal;
+	private SimpleDate(LocalDate date) {
+		this.epochDay = (int) date.toEpochDay();
+		this.startOfDay = date.atStartOfDay(ZONE).toInstant().toEpochMilli();
 	}
 
 	/**
@@ -52,7 +52,7 @@ public class SimpleDate implements Serializable {
 	 * @return this simple date as a Date
 	 */
 	public Date asDate() {
-		return base.getTime();
+		return new Date(startOfDay);
 	}
 
 	/**
@@ -60,12 +60,12 @@ public class SimpleDate implements Serializable {
 	 * @return
 	 */
 	public long inMilliseconds() {
-		return asDate().getTime();
+		return startOfDay;
 	}
 
 	public int compareTo(Object date) {
 		SimpleDate other = (SimpleDate) date;
-		return asDate().compareTo(other.asDate());
+		return Integer.compare(epochDay, other.epochDay);
 	}
 
 	public boolean equals(Object day) {
@@ -73,18 +73,27 @@ public class SimpleDate implements Serializable {
 			return false;
 		}
 		SimpleDate other = (SimpleDate) day;
-		return (base.equals(other.base));
+		return epochDay == other.epochDay;
 	}
 
 	public int hashCode() {
-		return 29 * base.hashCode();
+		return 29 * epochDay;
 	}
 
 	/**
-	 * Returns todays date. A convenient static factory method.
+	 * Returns todays date. A convenient static factory method. Returns the same instance until midnight.
 	 */
 	public static SimpleDate today() {
-		return new SimpleDate();
+		return today(System.currentTimeMillis());
+	}
+
+	static SimpleDate today(long now) {
+		Today current = today;
+		if (current == null || !current.includes(now)) {
+			current = new Today(new SimpleDate(now));
+			today = current;
+		}
+		return current.date;
 	}
 
 	/**
@@ -104,10 +113,28 @@ public class SimpleDate implements Serializable {
 	public static SimpleDate valueOf(long time) {
 		return new SimpleDate(time);
 	}
-	
+
 	@Override
 	public String toString() {
-        return new SimpleDateFormat().format(base.getTime());
-    }
+		return FORMATTER.format(LocalDate.ofEpochDay(epochDay).atStartOfDay());
+	}
+
+	/**
+	 * The current date, with the milliseconds at which the next day starts.
+	 */
+	private static class Today {
+
+		private final SimpleDate date;
 
-}
\ No newline at end of file
+		private final long startOfNextDay;
+
+		Today(SimpleDate date) {
+			this.date = date;
+			this.startOfNextDay = LocalDate.ofEpochDay(date.epochDay + 1L).atStartOfDay(ZONE).toInstant().toEpochMilli();
+		}
+
+		boolean includes(long time) {
+			return time >= date.startOfDay && time < startOfNextDay;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package common.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * A data source that counts the SQL statements executed on its connections, so a test can check that a use case
+ * stays within its budget of statements, for instance that loading an account does not load its beneficiaries with a
+ * query of its own.
+ *
+ * Every execute call of a statement counts as one statement, including executing a batch: a batch costs a single
+ * round trip to the database.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+	private final AtomicLong count = new AtomicLong();
+
+	/**
+	 * Creates a data source counting the statements executed on the connections of the given data source.
+	 */
+	public StatementCountingDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	/**
+	 * Returns the number of statements executed since this data source was created or last reset.
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Resets the number of statements executed to zero.
+	 */
+	public void reset() {
+		count.set(0);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return countStatements(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return countStatements(super.getConnection(username, password));
+	}
+
+	private Connection countStatements(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+				new ConnectionHandler(connection));
+	}
+
+	private class ConnectionHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		ConnectionHandler(Connection target) {
+			this.target = target;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getName().equals("equals")) {
+				return proxy == args[0];
+			}
+			if (method.getName().equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			Object result = invokeTarget(target, method, args);
+			if (result instanceof CallableStatement) {
+				return countExecutions(result, CallableStatement.class);
+			}
+			if (result instanceof PreparedStatement) {
+				return countExecutions(result, PreparedStatement.class);
+			}
+			if (result instanceof Statement) {
+				return countExecutions(result, Statement.class);
+			}
+			return result;
+		}
+	}
+
+	private Object countExecutions(Object statement, Class<?> statementType) {
+		return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { statementType },
+				(proxy, method, args) -> {
+					if (method.getName().startsWith("execute")) {
+						count.incrementAndGet();
+					}
+					return invokeTarget(statement, method, args);
+				});
+	}
+
+	private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+}
@@ -3,6 +3,8 @@ package common.money;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
+import javax.persistence.Access;
+import javax.persistence.AccessType;
 import javax.persistence.Embeddable;
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -10,15 +12,25 @@ import java.math.RoundingMode;
 
 /**
  * A representation of money.
- * 
+ *
+ * Backed by a whole number of cents, so the arithmetic used when rewarding accounts (adding amounts, taking a
+ * percentage of an amount) works on a long and does not allocate intermediate BigDecimals. A BigDecimal is only
+ * created at the boundaries: when an amount is read from or written to the database, serialized to JSON, or combined
+ * with an arbitrary decimal.
+ *
  * A value object. Immutable.
  */
 @Embeddable
+@Access(AccessType.PROPERTY)
 public class MonetaryAmount implements Serializable {
 
-	private static final long serialVersionUID = -3734467432803577280L;
+	private static final long serialVersionUID = 7464128652460245539L;
 
-	private BigDecimal value;
+	private static final MonetaryAmount ZERO = ofCents(0);
+
+	private static final long NOT_PARSED = Long.MIN_VALUE;
+
+	private long cents;
 
 	/**
 	 * Create a new monetary amount from the specified value.
@@ -26,7 +38,7 @@ public class MonetaryAmount implements Serializable {
 	 */
 	@JsonCreator
 	public MonetaryAmount(BigDecimal value) {
-		initValue(value);
+		this.cents = toCents(value);
 	}
 
 	/**
@@ -34,15 +46,21 @@ public class MonetaryAmount implements Serializable {
 	 * @param value the monetary amount as a double
 	 */
 	public MonetaryAmount(double value) {
-		initValue(BigDecimal.valueOf(value));
+		this.cents = toCents(BigDecimal.valueOf(value));
 	}
 
-	@SuppressWarnings("unused")
 	private MonetaryAmount() {
 	}
 
-	private void initValue(BigDecimal value) {
-		this.value = value.setScale(2, RoundingMode.HALF_EVEN);
+	/**
+	 * Create a new monetary amount from a whole number of cents.
+	 * @param cents the amount in cents; for example, in $USD 1029 would be ten dollars and 29 cents
+	 * @return the monetary amount object
+	 */
+	public static MonetaryAmount ofCents(long cents) {
+		MonetaryAmount amount = new MonetaryAmount();
+		amount.cents = cents;
+		return amount;
 	}
 
 	/**
@@ -58,15 +76,19 @@ public class MonetaryAmount implements Serializable {
 			int index = string.indexOf('$');
 			string = string.substring(index + 1);
 		}
-		BigDecimal value = new BigDecimal(string);
-		return new MonetaryAmount(value);
+		long cents = parseCents(string);
+		if (cents != NOT_PARSED) {
+			return ofCents(cents);
+		}
+		// more than two decimals, an exponent or too many digits: let BigDecimal do the parsing and rounding
+		return new MonetaryAmount(new BigDecimal(string));
 	}
 
 	/**
 	 * Returns the zero (0.00) monetary amount.
 	 */
 	public static MonetaryAmount zero() {
-		return new MonetaryAmount(0);
+		return ZERO;
 	}
 
 	/**
@@ -75,7 +97,7 @@ public class MonetaryAmount implements Serializable {
 	 * @return the sum
 	 */
 	public MonetaryAmount add(MonetaryAmount amount) {
-		return new MonetaryAmount(value.add(amount.value));
+		return ofCents(Math.addExact(cents, amount.cents));
 	}
 
 	/**
@@ -84,7 +106,7 @@ public class MonetaryAmount implements Serializable {
 	 * @return the difference
 	 */
 	public MonetaryAmount subtract(MonetaryAmount amount) {
-		return new MonetaryAmount(value.subtract(amount.value));
+		return ofCents(Math.subtractExact(cents, amount.cents));
 	}
 
 	/**
@@ -93,7 +115,7 @@ public class MonetaryAmount implements Serializable {
 	 * @return the product
 	 */
 	public MonetaryAmount multiplyBy(BigDecimal amount) {
-		return new MonetaryAmount(value.multiply(amount));
+		return new MonetaryAmount(asBigDecimal().multiply(amount));
 	}
 
 	/**
@@ -102,7 +124,7 @@ public class MonetaryAmount implements Serializable {
 	 * @return the quotient
 	 */
 	public BigDecimal divide(MonetaryAmount amount) {
-		return value.divide(amount.value);
+		return asBigDecimal().divide(amount.asBigDecimal());
 	}
 
 	/**
@@ -111,16 +133,17 @@ public class MonetaryAmount implements Serializable {
 	 * @return the quotient
 	 */
 	public MonetaryAmount divideBy(BigDecimal amount) {
-		return new MonetaryAmount(value.divide(amount));
+		return new MonetaryAmount(asBigDecimal().divide(amount));
 	}
 
 	/**
-	 * Multiply this monetary amount by a percentage.
+	 * Multiply this monetary amount by a percentage. The result is rounded to whole cents using banker's rounding
+	 * (HALF_EVEN), exactly as multiplying the decimal values would.
 	 * @param percentage the percentage
 	 * @return the percentage amount
 	 */
 	public MonetaryAmount multiplyBy(Percentage percentage) {
-		return new MonetaryAmount(value.multiply(percentage.asBigDecimal()));
+		return ofCents(divideHalfEven(Math.multiplyExact(cents, percentage.asBasisPoints()), 10000));
 	}
 
 	/**
@@ -129,7 +152,7 @@ public class MonetaryAmount implements Serializable {
 	 * @return true or false
 	 */
 	public boolean greaterThan(MonetaryAmount amount) {
-		return value.compareTo(amount.value) > 0;
+		return cents > amount.cents;
 	}
 
 	/**
@@ -137,7 +160,15 @@ public class MonetaryAmount implements Serializable {
 	 * @return this amount as a double
 	 */
 	public double asDouble() {
-		return value.doubleValue();
+		return cents / 100d;
+	}
+
+	/**
+	 * Get this amount as a whole number of cents.
+	 * @return this amount in cents
+	 */
+	public long asCents() {
+		return cents;
 	}
 
 	/**
@@ -146,22 +177,96 @@ public class MonetaryAmount implements Serializable {
 	 */
 	@JsonValue
 	public BigDecimal asBigDecimal() {
-		return value;
+		return BigDecimal.valueOf(cents, 2);
+	}
+
+	/**
+	 * The decimal value mapped by JPA, which reads and writes the amount through this property.
+	 */
+	@SuppressWarnings("unused")
+	private BigDecimal getValue() {
+		return asBigDecimal();
+	}
+
+	@SuppressWarnings("unused")
+	private void setValue(BigDecimal value) {
+		this.cents = toCents(value);
+	}
+
+	private static long toCents(BigDecimal value) {
+		return value.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * Parses a plain decimal string with at most two decimals, such as "100", "-5.5" or ".29", directly into cents.
+	 * @return the amount in cents, or NOT_PARSED if the string is not in that form
+	 */
+	private static long parseCents(String string) {
+		int length = string.length();
+		int i = 0;
+		boolean negative = false;
+		if (string.charAt(0) == '-' || string.charAt(0) == '+') {
+			negative = string.charAt(0) == '-';
+			i++;
+		}
+		long units = 0;
+		int digits = 0;
+		for (; i < length && isDigit(string.charAt(i)); i++) {
+			if (++digits > 15) {
+				return NOT_PARSED;
+			}
+			units = units * 10 + (string.charAt(i) - '0');
+		}
+		long fraction = 0;
+		int fractionDigits = 0;
+		if (i < length && string.charAt(i) == '.') {
+			for (i++; i < length && isDigit(string.charAt(i)); i++) {
+				if (++fractionDigits > 2) {
+					return NOT_PARSED;
+				}
+				fraction = fraction * 10 + (string.charAt(i) - '0');
+			}
+		}
+		if (i != length || digits + fractionDigits == 0) {
+			return NOT_PARSED;
+		}
+		if (fractionDigits == 1) {
+			fraction *= 10;
+		}
+		long cents = units * 100 + fraction;
+		return negative ? -cents : cents;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Divides, rounding the quotient to the nearest whole number, and to the even neighbor when exactly halfway.
+	 */
+	static long divideHalfEven(long dividend, long divisor) {
+		long quotient = dividend / divisor;
+		long remainder = Math.abs(dividend % divisor);
+		long twice = remainder * 2;
+		if (twice > divisor || (twice == divisor && (quotient & 1) != 0)) {
+			quotient += dividend < 0 ? -1 : 1;
+		}
+		return quotient;
 	}
 
 	public boolean equals(Object o) {
 		if (!(o instanceof MonetaryAmount)) {
 			return false;
 		}
-		return value.equals(((MonetaryAmount) o).value);
+		return cents == ((MonetaryAmount) o).cents;
 	}
 
 	public int hashCode() {
-		return value.hashCode();
+		return Long.hashCode(cents);
 	}
 
 	public String toString() {
-		return "$" + value.toString();
+		return "$" + asBigDecimal().toString();
 	}
 
-}
\ No newline at end of file
+}
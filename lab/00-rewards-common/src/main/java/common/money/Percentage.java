@@ -3,22 +3,44 @@ package common.money;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
+import javax.persistence.Access;
+import javax.persistence.AccessType;
 import javax.persistence.Embeddable;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
 /**
- * A percentage. Represented as a decimal value with scale 2 between 0.00 and 1.00.
- * 
+ * A percentage. Represented as a whole number of basis points (hundredths of a percent) between 0 and 10000, with the
+ * precision of a decimal value with scale 2 between 0.00 and 1.00: every percentage is a whole percent.
+ *
+ * As there are only 101 such percentages, valueOf, add, zero and oneHundred return shared instances instead of
+ * creating new ones.
+ *
  * A value object. Immutable.
  */
 @Embeddable
+@Access(AccessType.PROPERTY)
 public class Percentage implements Serializable {
 
-	private static final long serialVersionUID = 8077279865855620752L;
+	private static final long serialVersionUID = -6226489519562318349L;
 
-	private BigDecimal value;
+	private static final int BASIS_POINTS_PER_PERCENT = 100;
+
+	private static final int MAX_BASIS_POINTS = 10000;
+
+	private static final Percentage[] PERCENTAGES = new Percentage[101];
+
+	private static final BigDecimal[] DECIMALS = new BigDecimal[101];
+
+	static {
+		for (int percent = 0; percent <= 100; percent++) {
+			PERCENTAGES[percent] = new Percentage(percent * BASIS_POINTS_PER_PERCENT);
+			DECIMALS[percent] = BigDecimal.valueOf(percent, 2);
+		}
+	}
+
+	private int basisPoints;
 
 	/**
 	 * Create a new percentage from the specified value. Value must be between 0 and 1. For example, value .45
@@ -29,7 +51,7 @@ public class Percentage implements Serializable {
 	 */
 	@JsonCreator
 	public Percentage(BigDecimal value) {
-		initValue(value);
+		this.basisPoints = toBasisPoints(value);
 	}
 
 	/**
@@ -40,19 +62,27 @@ public class Percentage implements Serializable {
 	 * @throws IllegalArgumentException if the value is not between 0 and 1
 	 */
 	public Percentage(double value) {
-		initValue(BigDecimal.valueOf(value));
+		this.basisPoints = toBasisPoints(BigDecimal.valueOf(value));
+	}
+
+	private Percentage(int basisPoints) {
+		this.basisPoints = basisPoints;
 	}
 
 	@SuppressWarnings("unused")
 	private Percentage() {
 	}
 
-	private void initValue(BigDecimal value) {
+	private static int toBasisPoints(BigDecimal value) {
 		value = value.setScale(2, RoundingMode.HALF_UP);
 		if (value.compareTo(BigDecimal.ZERO) == -1 || value.compareTo(BigDecimal.ONE) == 1) {
 			throw new IllegalArgumentException("Percentage value must be between 0 and 1; your value was " + value);
 		}
-		this.value = value;
+		return value.unscaledValue().intValue() * BASIS_POINTS_PER_PERCENT;
+	}
+
+	private static Percentage ofBasisPoints(int basisPoints) {
+		return PERCENTAGES[basisPoints / BASIS_POINTS_PER_PERCENT];
 	}
 
 	/**
@@ -68,26 +98,61 @@ public class Percentage implements Serializable {
 		if (percent) {
 			int index = string.lastIndexOf('%');
 			string = string.substring(0, index);
+			int wholePercent = parseWholePercent(string);
+			if (wholePercent >= 0) {
+				return PERCENTAGES[wholePercent];
+			}
 		}
 		BigDecimal value = new BigDecimal(string);
 		if (percent) {
 			value = value.divide(new BigDecimal(100));
 		}
-		return new Percentage(value);
+		return ofBasisPoints(toBasisPoints(value));
+	}
+
+	/**
+	 * Convert a decimal value between 0 and 1 (e.g. .05) to a Percentage object. Unlike the constructor, returns a
+	 * shared instance.
+	 * @param value the percentage value
+	 * @return the percentage object
+	 * @throws IllegalArgumentException if the value is not between 0 and 1
+	 */
+	public static Percentage valueOf(BigDecimal value) {
+		return ofBasisPoints(toBasisPoints(value));
+	}
+
+	/**
+	 * Parses a whole percent between 0 and 100 written with digits only, such as "5" or "100".
+	 * @return the percent, or -1 if the string is not in that form
+	 */
+	private static int parseWholePercent(String string) {
+		int length = string.length();
+		if (length == 0 || length > 3) {
+			return -1;
+		}
+		int percent = 0;
+		for (int i = 0; i < length; i++) {
+			char c = string.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			percent = percent * 10 + (c - '0');
+		}
+		return percent <= 100 ? percent : -1;
 	}
 
 	/**
 	 * Returns zero percent.
 	 */
 	public static Percentage zero() {
-		return new Percentage(0);
+		return PERCENTAGES[0];
 	}
 
 	/**
 	 * Returns one hundred percent.
 	 */
 	public static Percentage oneHundred() {
-		return new Percentage(1);
+		return PERCENTAGES[100];
 	}
 
 	/**
@@ -97,7 +162,12 @@ public class Percentage implements Serializable {
 	 * @throws IllegalArgumentException if the new percentage exceeds 1
 	 */
 	public Percentage add(Percentage percentage) throws IllegalArgumentException {
-		return new Percentage(value.add(percentage.value));
+		int sum = basisPoints + percentage.basisPoints;
+		if (sum > MAX_BASIS_POINTS) {
+			throw new IllegalArgumentException("Percentage value must be between 0 and 1; your value was "
+					+ BigDecimal.valueOf(sum / BASIS_POINTS_PER_PERCENT, 2));
+		}
+		return ofBasisPoints(sum);
 	}
 
 	/**
@@ -105,7 +175,15 @@ public class Percentage implements Serializable {
 	 * @return this percentage as a double
 	 */
 	public double asDouble() {
-		return value.doubleValue();
+		return basisPoints / (double) MAX_BASIS_POINTS;
+	}
+
+	/**
+	 * Return this percentage as a whole number of basis points; for example, 25% is 2500 basis points.
+	 * @return this percentage in basis points
+	 */
+	public int asBasisPoints() {
+		return basisPoints;
 	}
 
 	/**
@@ -115,21 +193,34 @@ public class Percentage implements Serializable {
 	 */
 	@JsonValue
 	public BigDecimal asBigDecimal() {
-		return value;
+		return DECIMALS[basisPoints / BASIS_POINTS_PER_PERCENT];
+	}
+
+	/**
+	 * The decimal value mapped by JPA, which reads and writes the percentage through this property.
+	 */
+	@SuppressWarnings("unused")
+	private BigDecimal getValue() {
+		return asBigDecimal();
+	}
+
+	@SuppressWarnings("unused")
+	private void setValue(BigDecimal value) {
+		this.basisPoints = toBasisPoints(value);
 	}
 
 	public boolean equals(Object o) {
 		if (!(o instanceof Percentage)) {
 			return false;
 		}
-		return value.equals(((Percentage) o).value);
+		return basisPoints == ((Percentage) o).basisPoints;
 	}
 
 	public int hashCode() {
-		return value.hashCode();
+		return basisPoints;
 	}
 
 	public String toString() {
-		return value.multiply(new BigDecimal("100")).setScale(0) + "%";
+		return basisPoints / BASIS_POINTS_PER_PERCENT + "%";
 	}
-}
\ No newline at end of file
+}
@@ -2,6 +2,10 @@ package common.datetime;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.text.SimpleDateFormat;
 
 import java.util.Calendar;
 import java.util.Date;
@@ -39,4 +43,32 @@ public class SimpleDateTests {
 		SimpleDate today2 = SimpleDate.valueOf(time);
 		assertEquals(today, today2);
 	}
+
+	@Test
+	public void testTodayIsSharedUntilMidnight() {
+		SimpleDate today = SimpleDate.today();
+		assertSame(today, SimpleDate.today());
+
+		long midnight = new SimpleDate(12, 29, 1977).inMilliseconds();
+		SimpleDate before = SimpleDate.today(midnight - 1);
+		assertSame(before, SimpleDate.today(midnight - 2));
+		SimpleDate after = SimpleDate.today(midnight);
+		assertNotEquals(before, after);
+		assertEquals(new SimpleDate(12, 29, 1977), after);
+		assertEquals(new SimpleDate(12, 28, 1977), before);
+	}
+
+	@Test
+	public void testMonthDayYear() {
+		SimpleDate date = new SimpleDate(12, 29, 1977);
+		assertEquals(new GregorianCalendar(1977, Calendar.DECEMBER, 29).getTime(), date.asDate());
+		assertEquals(date, SimpleDate.valueOf(date.inMilliseconds() + 23 * 60 * 60 * 1000));
+		assertEquals(-1, date.compareTo(new SimpleDate(12, 30, 1977)));
+	}
+
+	@Test
+	public void testToString() {
+		SimpleDate date = new SimpleDate(12, 29, 1977);
+		assertEquals(new SimpleDateFormat().format(date.asDate()), date.toString());
+	}
 }
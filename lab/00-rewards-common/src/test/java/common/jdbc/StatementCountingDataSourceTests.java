@@ -0,0 +1,55 @@
+package common.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+/**
+ * Unit tests for the statement counting data source, counting the statements run on an embedded database.
+ */
+public class StatementCountingDataSourceTests {
+
+	private EmbeddedDatabase database;
+
+	private StatementCountingDataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	public void setUp() {
+		database = new EmbeddedDatabaseBuilder().generateUniqueName(true).build();
+		dataSource = new StatementCountingDataSource(database);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table T_COUNTED (ID integer)");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		database.shutdown();
+	}
+
+	@Test
+	public void testCount() {
+		assertEquals(1, dataSource.getCount());
+
+		jdbcTemplate.update("insert into T_COUNTED values (?)", 1);
+		jdbcTemplate.queryForObject("select count(*) from T_COUNTED", Integer.class);
+		jdbcTemplate.queryForList("select ID from T_COUNTED where ID = ?", Integer.class, 1);
+		assertEquals(4, dataSource.getCount());
+	}
+
+	@Test
+	public void testBatchCountsOnce() {
+		dataSource.reset();
+		jdbcTemplate.batchUpdate("insert into T_COUNTED values (?)",
+				Arrays.asList(new Object[] { 1 }, new Object[] { 2 }, new Object[] { 3 }));
+		assertEquals(1, dataSource.getCount());
+	}
+}
@@ -0,0 +1,109 @@
+package common.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the monetary arithmetic of a reward distribution (a percentage of the dining amount, split over the
+ * beneficiaries and added to their savings) on MonetaryAmount against the same arithmetic on BigDecimal, the way
+ * MonetaryAmount used to do it. MonetaryAmountTests verifies both give the same results.
+ *
+ * Run the main method from the IDE, or any other way that puts the test classpath on the classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonetaryAmountBenchmark {
+
+	private static final int DININGS = 1024;
+
+	private String[] amountStrings = new String[DININGS];
+
+	private MonetaryAmount[] amounts = new MonetaryAmount[DININGS];
+
+	private BigDecimal[] decimals = new BigDecimal[DININGS];
+
+	private Percentage benefitPercentage = Percentage.valueOf("8%");
+
+	private Percentage allocationPercentage = Percentage.valueOf("25%");
+
+	private BigDecimal benefitDecimal = benefitPercentage.asBigDecimal();
+
+	private BigDecimal allocationDecimal = allocationPercentage.asBigDecimal();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(42);
+		for (int i = 0; i < DININGS; i++) {
+			BigDecimal value = BigDecimal.valueOf(random.nextInt(100000), 2);
+			amountStrings[i] = value.toPlainString();
+			amounts[i] = new MonetaryAmount(value);
+			decimals[i] = value;
+		}
+	}
+
+	@Benchmark
+	public MonetaryAmount distribute() {
+		MonetaryAmount savings = MonetaryAmount.zero();
+		for (MonetaryAmount amount : amounts) {
+			MonetaryAmount contribution = amount.multiplyBy(benefitPercentage);
+			for (int beneficiary = 0; beneficiary < 4; beneficiary++) {
+				savings = savings.add(contribution.multiplyBy(allocationPercentage));
+			}
+		}
+		return savings;
+	}
+
+	@Benchmark
+	public BigDecimal distributeBigDecimal() {
+		BigDecimal savings = BigDecimal.ZERO.setScale(2);
+		for (BigDecimal amount : decimals) {
+			BigDecimal contribution = amount.multiply(benefitDecimal).setScale(2, RoundingMode.HALF_EVEN);
+			for (int beneficiary = 0; beneficiary < 4; beneficiary++) {
+				savings = savings.add(contribution.multiply(allocationDecimal).setScale(2, RoundingMode.HALF_EVEN));
+			}
+		}
+		return savings;
+	}
+
+	@Benchmark
+	public void parse(Blackhole blackhole) {
+		for (String amount : amountStrings) {
+			blackhole.consume(MonetaryAmount.valueOf(amount));
+		}
+	}
+
+	@Benchmark
+	public void parseBigDecimal(Blackhole blackhole) {
+		for (String amount : amountStrings) {
+			blackhole.consume(new BigDecimal(amount).setScale(2, RoundingMode.HALF_EVEN));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+			.include(MonetaryAmountBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+}
@@ -2,8 +2,11 @@ package common.money;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
 
 /**
  * Unit tests that make sure the MonetaryAmount class works in isolation.
@@ -58,4 +61,49 @@ public class MonetaryAmountTests {
 		MonetaryAmount amt = MonetaryAmount.valueOf(".1");
 		assertEquals(new BigDecimal(".10"), amt.asBigDecimal());
 	}
+
+	@Test
+	public void testSmallestAmounts() {
+		assertEquals(MonetaryAmount.valueOf("0.01"), MonetaryAmount.valueOf("$.01"));
+		assertEquals(MonetaryAmount.valueOf("0.10"), MonetaryAmount.valueOf("0.1"));
+		assertEquals("$-5.50", MonetaryAmount.valueOf("-5.5").toString());
+	}
+
+	@Test
+	public void testRoundsHalfToEven() {
+		// 0.125 and 0.135 are exactly halfway between two cents
+		assertEquals(MonetaryAmount.valueOf("0.12"), MonetaryAmount.valueOf("0.50").multiplyBy(Percentage.valueOf("25%")));
+		assertEquals(MonetaryAmount.valueOf("0.14"), MonetaryAmount.valueOf("0.27").multiplyBy(Percentage.valueOf("50%")));
+		assertEquals(MonetaryAmount.valueOf("-0.12"), MonetaryAmount.valueOf("-0.50").multiplyBy(Percentage.valueOf("25%")));
+		assertEquals(MonetaryAmount.valueOf("0.12"), MonetaryAmount.valueOf("0.125"));
+		assertEquals(MonetaryAmount.valueOf("0.14"), MonetaryAmount.valueOf("0.135"));
+	}
+
+	@Test
+	public void testOverflowFails() {
+		MonetaryAmount max = MonetaryAmount.ofCents(Long.MAX_VALUE);
+		assertThrows(ArithmeticException.class, () -> max.add(MonetaryAmount.valueOf("0.01")));
+		assertThrows(ArithmeticException.class, () -> max.multiplyBy(Percentage.valueOf("50%")));
+	}
+
+	@Test
+	public void testSameResultsAsDecimalArithmetic() {
+		Random random = new Random(20221018);
+		for (int i = 0; i < 100000; i++) {
+			BigDecimal first = BigDecimal.valueOf(random.nextInt(2000000000) - 1000000000, 3);
+			BigDecimal second = BigDecimal.valueOf(random.nextInt(200000000), 2);
+			BigDecimal percentage = BigDecimal.valueOf(random.nextInt(101), 2);
+			BigDecimal expectedFirst = first.setScale(2, RoundingMode.HALF_EVEN);
+
+			MonetaryAmount amount = MonetaryAmount.valueOf(first.toPlainString());
+			assertEquals(expectedFirst, amount.asBigDecimal());
+			assertEquals(expectedFirst, new MonetaryAmount(first).asBigDecimal());
+			assertEquals(second, MonetaryAmount.valueOf("$" + second.toPlainString()).asBigDecimal());
+			assertEquals(expectedFirst.add(second),
+					amount.add(MonetaryAmount.valueOf(second.toPlainString())).asBigDecimal());
+			assertEquals(expectedFirst.multiply(percentage).setScale(2, RoundingMode.HALF_EVEN),
+					amount.multiplyBy(new Percentage(percentage)).asBigDecimal());
+			assertEquals(expectedFirst.doubleValue(), amount.asDouble());
+		}
+	}
 }
@@ -2,6 +2,10 @@ package common.money;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
 
 /**
  * Unit tests that make sure the Percentage class works in isolation.
@@ -38,4 +42,30 @@ public class PercentageTests {
 		Percentage p = new Percentage(.255555);
 		assertEquals("26%", p.toString());
 	}
+
+	@Test
+	public void testBasisPoints() {
+		assertEquals(2500, Percentage.valueOf("25%").asBasisPoints());
+		assertEquals(2600, Percentage.valueOf("25.5%").asBasisPoints());
+		assertEquals(10000, Percentage.oneHundred().asBasisPoints());
+		assertEquals(new BigDecimal("0.25"), new Percentage(.25).asBigDecimal());
+		assertEquals(.25, Percentage.valueOf("25%").asDouble());
+	}
+
+	@Test
+	public void testCommonPercentagesAreShared() {
+		assertSame(Percentage.valueOf("25%"), Percentage.valueOf("0.25"));
+		assertSame(Percentage.oneHundred(), Percentage.valueOf("50%").add(Percentage.valueOf("50%")));
+		assertSame(Percentage.zero(), Percentage.valueOf("0%"));
+		assertSame(Percentage.valueOf("8%"), Percentage.valueOf(new BigDecimal("0.080")));
+		assertEquals(Percentage.valueOf("25%"), new Percentage(.25));
+		assertEquals(Percentage.valueOf("25%").hashCode(), new Percentage(.25).hashCode());
+	}
+
+	@Test
+	public void testOutOfRange() {
+		assertThrows(IllegalArgumentException.class, () -> Percentage.valueOf("101%"));
+		assertThrows(IllegalArgumentException.class, () -> Percentage.valueOf("-1%"));
+		assertThrows(IllegalArgumentException.class, () -> Percentage.valueOf("60%").add(Percentage.valueOf("50%")));
+	}
 }
@@ -28,6 +28,23 @@ public interface AccountManager {
 	 */
 	public List<Account> getAllAccounts();
 
+	/**
+	 * Get a page of accounts, with their beneficiaries, in ascending order of
+	 * id. To get the next page pass the id of the last account of the page
+	 * before, so every page costs the same however far into the accounts it
+	 * starts. The accounts are not kept by the account manager: changes made
+	 * to them are not saved, and reading all accounts page by page does not
+	 * use more memory than a single page.
+	 * 
+	 * @param after
+	 *            the id after which the page starts, or null for the first
+	 *            page
+	 * @param limit
+	 *            the maximum number of accounts in the page
+	 * @return the accounts, an empty list after the last page
+	 */
+	public List<Account> getAccounts(Long after, int limit);
+
 	/**
 	 * Find an account by its number.
 	 * 
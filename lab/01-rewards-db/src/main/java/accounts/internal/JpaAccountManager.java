@@ -1,14 +1,19 @@
 package accounts.internal;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import common.money.Percentage;
@@ -20,6 +25,12 @@ import rewards.internal.account.Account;
 @Repository
 public class JpaAccountManager extends AbstractAccountManager {
 
+	/**
+	 * The number of accounts fetched with their beneficiaries by a single
+	 * query, keeping the "IN" list of ids to a size any database accepts.
+	 */
+	private static final int ID_BATCH_SIZE = 500;
+
 	private EntityManager entityManager;
 
 	/**
@@ -45,13 +56,58 @@ public class JpaAccountManager extends AbstractAccountManager {
 
 		// Use of "JOIN FETCH" produces duplicate accounts, and DISTINCT does
 		// not address this. So we have to filter it manually.
-		List<Account> result = new ArrayList<Account>();
+		return withoutDuplicates(l);
+	}
 
-		for (Account a : l) {
-			if (!result.contains(a))
-				result.add(a);
+	/**
+	 * Finds the ids of the page first, so the limit applies to accounts
+	 * rather than to the rows of the join with their beneficiaries. Then
+	 * fetches those accounts with their beneficiaries, a batch of ids at a
+	 * time, and detaches them from the persistence context.
+	 * <p>
+	 * Runs in a transaction, and so a persistence context, of its own, so
+	 * detaching the page does not throw away changes the caller has not
+	 * flushed yet to the same accounts.
+	 */
+	@Override
+	@Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+	public List<Account> getAccounts(Long after, int limit) {
+		TypedQuery<Long> idQuery = after == null
+				? entityManager.createQuery("select a.entityId from Account a order by a.entityId", Long.class)
+				: entityManager.createQuery(
+						"select a.entityId from Account a where a.entityId > :after order by a.entityId", Long.class)
+						.setParameter("after", after);
+		List<Long> ids = idQuery.setMaxResults(limit).getResultList();
+
+		List<Account> accounts = new ArrayList<Account>(ids.size());
+		for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+			List<Long> batch = ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()));
+			accounts.addAll(withoutDuplicates(entityManager
+					.createQuery("select a from Account a LEFT JOIN FETCH a.beneficiaries where a.entityId in :ids"
+							+ " order by a.entityId", Account.class)
+					.setParameter("ids", batch)
+					.getResultList()));
+		}
+		for (Account account : accounts) {
+			// cascades to the beneficiaries, which are already loaded
+			entityManager.detach(account);
 		}
+		return accounts;
+	}
 
+	/**
+	 * Removes the duplicates a "JOIN FETCH" produces, keeping the order. The
+	 * persistence context returns the same instance for every row of an
+	 * account, so duplicates are found by identity, in linear time, rather
+	 * than with Account.equals, which compares all beneficiaries.
+	 */
+	private List<Account> withoutDuplicates(List<Account> accounts) {
+		Set<Account> seen = Collections.newSetFromMap(new IdentityHashMap<Account, Boolean>(accounts.size()));
+		List<Account> result = new ArrayList<Account>(accounts.size());
+		for (Account a : accounts) {
+			if (seen.add(a))
+				result.add(a);
+		}
 		return result;
 	}
 
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.orm.ObjectRetrievalFailureException;
@@ -63,6 +64,17 @@ public class StubAccountManager extends AbstractAccountManager {
 		return new ArrayList<Account>(accountsById.values());
 	}
 
+	@Override
+	public List<Account> getAccounts(Long after, int limit) {
+		List<Account> accounts = new ArrayList<Account>();
+		for (Account account : new TreeMap<Long, Account>(accountsById).values()) {
+			if ((after == null || account.getEntityId() > after) && accounts.size() < limit) {
+				accounts.add(account);
+			}
+		}
+		return accounts;
+	}
+
 	@Override
 	public Account getAccount(Long id) {
 		return accountsById.get(id);
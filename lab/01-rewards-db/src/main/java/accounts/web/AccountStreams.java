@@ -0,0 +1,95 @@
+package accounts.web;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import accounts.AccountManager;
+import rewards.internal.account.Account;
+
+/**
+ * Streams all accounts as JSON for the account controllers of the REST labs.
+ * Accounts are read a page at a time, with the keyset pages of
+ * {@link AccountManager#getAccounts(Long, int)}, and written as soon as they
+ * are read, so the first account is sent right away and the memory used does
+ * not depend on the number of accounts.
+ * <p>
+ * Requires Spring MVC and Jackson, which the web labs bring in.
+ */
+public class AccountStreams {
+
+	/**
+	 * The media type of newline delimited JSON.
+	 */
+	public static final String NDJSON_VALUE = "application/x-ndjson";
+
+	private static final int PAGE_SIZE = 100;
+
+	private final AccountManager accountManager;
+
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Creates a new AccountStreams.
+	 * 
+	 * @param accountManager
+	 *            the account manager the accounts are read from
+	 * @param objectMapper
+	 *            the object mapper the accounts are written with, normally
+	 *            the one Spring MVC uses for its responses
+	 */
+	public AccountStreams(AccountManager accountManager, ObjectMapper objectMapper) {
+		this.accountManager = accountManager;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Returns a response streaming all accounts as newline delimited JSON, one
+	 * account per line.
+	 */
+	public ResponseEntity<StreamingResponseBody> ndjson() {
+		StreamingResponseBody body = out -> writeAccounts(
+				accountWriter().withRootValueSeparator("\n").writeValues(out));
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+	}
+
+	/**
+	 * Returns a response streaming all accounts as a JSON array, the same as
+	 * the account summary.
+	 */
+	public ResponseEntity<StreamingResponseBody> jsonArray() {
+		StreamingResponseBody body = out -> writeAccounts(accountWriter().writeValuesAsArray(out));
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+	}
+
+	/**
+	 * Writes all accounts, flushing after every page so the client receives
+	 * them while the next page is read.
+	 */
+	private void writeAccounts(SequenceWriter writer) throws IOException {
+		try (SequenceWriter accounts = writer) {
+			List<Account> page = accountManager.getAccounts(null, PAGE_SIZE);
+			while (!page.isEmpty()) {
+				accounts.writeAll(page);
+				accounts.flush();
+				page = accountManager.getAccounts(page.get(page.size() - 1).getEntityId(), PAGE_SIZE);
+			}
+		}
+	}
+
+	/**
+	 * Returns a writer that leaves the response stream open for Spring MVC to
+	 * complete.
+	 */
+	private ObjectWriter accountWriter() {
+		return objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+}
@@ -27,6 +27,11 @@ import org.springframework.transaction.PlatformTransactionManager;
  * <p>
  * To simulate Spring Boot we load <code>application.properties</code> manually,
  * if it exists, and mimic Boot's <code>spring.jpa.show-sql</code> property.
+ * <p>
+ * Setting <code>rewards.jpa.second-level-cache</code> to true enables the
+ * Hibernate second-level and query caches, with the regions configured in
+ * <code>rewards/ehcache.xml</code>, and the statistics that report their hits
+ * and misses. Otherwise both caches are switched off explicitly.
  */
 @Configuration
 @PropertySource(value = "application.properties", ignoreResourceNotFound = true)
@@ -37,6 +42,9 @@ public class DbConfig {
 	@Value("${spring.jpa.show-sql:true}")  // Default to true if not set elsewhere
 	private String showSql;
 
+	@Value("${rewards.jpa.second-level-cache:false}")
+	private boolean secondLevelCache;
+
 	/**
 	 * Creates an in-memory "rewards" database populated with test data for fast
 	 * testing
@@ -80,6 +88,13 @@ public class DbConfig {
 		} else {
 			props.setProperty("hibernate.show_sql", String.valueOf(showSql));
 			props.setProperty("hibernate.format_sql", "true");
+			if (secondLevelCache) {
+				props.putAll(secondLevelCacheProperties());
+			} else {
+				// A JCache region factory on the classpath turns the cache on by default
+				props.setProperty("hibernate.cache.use_second_level_cache", "false");
+				props.setProperty("hibernate.cache.use_query_cache", "false");
+			}
 		}
 
 		LocalContainerEntityManagerFactoryBean emfb = new LocalContainerEntityManagerFactoryBean();
@@ -91,6 +106,21 @@ public class DbConfig {
 		return emfb;
 	}
 
+	/**
+	 * The Hibernate properties enabling the second-level and query caches.
+	 */
+	public static Properties secondLevelCacheProperties() {
+		Properties props = new Properties();
+		props.setProperty("hibernate.cache.use_second_level_cache", "true");
+		props.setProperty("hibernate.cache.use_query_cache", "true");
+		props.setProperty("hibernate.cache.region.factory_class", "jcache");
+		props.setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+		props.setProperty("hibernate.javax.cache.uri", "rewards/ehcache.xml");
+		props.setProperty("hibernate.generate_statistics", "true");
+		props.setProperty("hibernate.session.events.log", "false");
+		return props;
+	}
+
 	@Bean
 	@Profile("!jpa-elink") // Default is JPA using Hibernate
 	JpaVendorAdapter hibernateVendorAdapter() {
@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -15,6 +16,9 @@ import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import rewards.AccountContribution;
 import rewards.AccountContribution.Distribution;
 
@@ -32,6 +36,8 @@ import common.money.Percentage;
  */
 @Entity
 @Table(name = "T_ACCOUNT")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Account {
 
 	@Id
@@ -46,6 +52,7 @@ public class Account {
 	private String name;
 
 	@OneToMany(cascade = CascadeType.ALL)
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 	@JoinColumn(name = "ACCOUNT_ID")
 	private Set<Beneficiary> beneficiaries = new HashSet<Beneficiary>();
 
@@ -194,21 +201,11 @@ public class Account {
 	 * allocation adds up to 100%.
 	 */
 	public boolean isValid() {
-		Percentage totalPercentage = Percentage.zero();
+		int totalBasisPoints = 0;
 		for (Beneficiary b : beneficiaries) {
-			try {
-				totalPercentage = totalPercentage.add(b
-						.getAllocationPercentage());
-			} catch (IllegalArgumentException e) {
-				// total would have been over 100% - return invalid
-				return false;
-			}
-		}
-		if (totalPercentage.equals(Percentage.oneHundred())) {
-			return true;
-		} else {
-			return false;
+			totalBasisPoints += b.getAllocationPercentage().asBasisPoints();
 		}
+		return totalBasisPoints == Percentage.oneHundred().asBasisPoints();
 	}
 
 	public void setValid(boolean valid) {
@@ -1,6 +1,7 @@
 package rewards.internal.account;
 
 import javax.persistence.AttributeOverride;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
@@ -9,6 +10,9 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import common.money.MonetaryAmount;
 import common.money.Percentage;
 
@@ -19,6 +23,8 @@ import common.money.Percentage;
  */
 @Entity
 @Table(name = "T_ACCOUNT_BENEFICIARY")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Beneficiary {
 
 	@Id
@@ -1,8 +1,12 @@
 package rewards.internal.account;
 
+import java.util.List;
+
 import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 
+import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,7 +15,14 @@ import org.slf4j.LoggerFactory;
  */
 public class JpaAccountRepository implements AccountRepository {
 
-	public static final String ACCOUNT_BY_CC_QUERY = "select ACCOUNT_ID from T_ACCOUNT_CREDIT_CARD where NUMBER = :ccn";
+	/**
+	 * Selects the account with a credit card, joined with its beneficiaries. The credit cards are not mapped, so this
+	 * is a native query rather than a JPQL fetch join.
+	 */
+	public static final String ACCOUNT_BY_CC_QUERY = "select {a.*}, {b.*} from T_ACCOUNT a"
+			+ " join T_ACCOUNT_CREDIT_CARD c on c.ACCOUNT_ID = a.ID"
+			+ " left outer join T_ACCOUNT_BENEFICIARY b on b.ACCOUNT_ID = a.ID"
+			+ " where c.NUMBER = :ccn";
 
 	public static final String INFO = "JPA";
 
@@ -34,18 +45,19 @@ public class JpaAccountRepository implements AccountRepository {
 	}
 
 	public Account findByCreditCard(String creditCardNumber) {
-		// Find id account of account with this credit-card using a direct
-		// SQL query on the unmapped T_ACCOUNT_CREDIT_CARD table.
-		Integer accountId = (Integer) entityManager
+		// Load the account and its beneficiaries with a single statement, as
+		// the beneficiaries are needed anyway - this also avoids the Hibernate
+		// lazy loading error. Each row holds the account and one beneficiary.
+		List<?> rows = entityManager
 				.createNativeQuery(ACCOUNT_BY_CC_QUERY)
-				.setParameter("ccn", creditCardNumber).getSingleResult();
-
-		Account account = (Account) entityManager.find(Account.class, accountId.longValue());
-
-		// Force beneficiaries to load too - avoid Hibernate lazy loading error
-		account.getBeneficiaries().size();
-
-		return account;
+				.unwrap(NativeQuery.class)
+				.addEntity("a", Account.class)
+				.addJoin("b", "a.beneficiaries")
+				.setParameter("ccn", creditCardNumber).getResultList();
+		if (rows.isEmpty()) {
+			throw new NoResultException("No account with credit card " + creditCardNumber);
+		}
+		return (Account) ((Object[]) rows.get(0))[0];
 	}
 
 }
\ No newline at end of file
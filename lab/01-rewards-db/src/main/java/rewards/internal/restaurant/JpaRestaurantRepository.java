@@ -8,6 +8,8 @@ import javax.persistence.PersistenceContext;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 
+import org.hibernate.annotations.QueryHints;
+
 /**
  * Loads restaurants from a data source using JPA.
  */
@@ -41,6 +43,7 @@ public class JpaRestaurantRepository implements RestaurantRepository {
 		return entityManager //
 				.createQuery(RESTAURANT_BY_MERCHANT_QUERY, Restaurant.class) //
 				.setParameter("merchantNumber", merchantNumber) //
+				.setHint(QueryHints.CACHEABLE, true) // if the query cache is enabled
 				.getSingleResult();
 	}
 
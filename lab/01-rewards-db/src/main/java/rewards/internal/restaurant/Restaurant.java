@@ -3,6 +3,7 @@ package rewards.internal.restaurant;
 import javax.persistence.Access;
 import javax.persistence.AccessType;
 import javax.persistence.AttributeOverride;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
@@ -10,6 +11,9 @@ import javax.persistence.Id;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import rewards.Dining;
 import rewards.internal.account.Account;
 
@@ -21,9 +25,14 @@ import common.money.Percentage;
  * 
  * Restaurants calculate how much benefit may be awarded to an account for
  * dining based on an availability policy and a benefit percentage.
+ * 
+ * Restaurants change a few times a day at most, so when the second-level
+ * cache is enabled they are cached without locking the cache on updates.
  */
 @Entity
 @Table(name = "T_RESTAURANT")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 public class Restaurant {
 
 	@Id
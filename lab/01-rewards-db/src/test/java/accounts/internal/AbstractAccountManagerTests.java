@@ -13,12 +13,14 @@ import org.springframework.transaction.annotation.Transactional;
 import rewards.internal.account.Account;
 import rewards.internal.account.Beneficiary;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Integration test for an account manager implementation.
@@ -67,6 +69,25 @@ public abstract class AbstractAccountManagerTests {
 		assertEquals(getNumAccountsExpected(), accounts.size(), "Wrong number of accounts");
 	}
 
+	@Test
+	@Transactional
+	public void testGetAccountsByPage() {
+		List<Long> ids = new ArrayList<Long>();
+		List<Account> page = accountManager.getAccounts(null, 2);
+		while (!page.isEmpty()) {
+			assertTrue(page.size() <= 2, "Page too large");
+			for (Account account : page) {
+				assertTrue(ids.isEmpty() || account.getEntityId() > ids.get(ids.size() - 1), "Wrong order");
+				ids.add(account.getEntityId());
+				if (account.getEntityId() == 0L) {
+					assertEquals(2, account.getBeneficiaries().size(), "wrong beneficiary collection size");
+				}
+			}
+			page = accountManager.getAccounts(ids.get(ids.size() - 1), 2);
+		}
+		assertEquals(getNumAccountsExpected(), ids.size(), "Wrong number of accounts");
+	}
+
 	@Test
 	@Transactional
 	public void getAccount() {
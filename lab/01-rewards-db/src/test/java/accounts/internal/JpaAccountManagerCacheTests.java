@@ -0,0 +1,107 @@
+package accounts.internal;
+
+import accounts.AccountManager;
+import config.AppConfig;
+import config.DbConfig;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import rewards.internal.account.Account;
+import rewards.internal.restaurant.RestaurantRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the second-level cache of the JPA-based account
+ * manager and restaurant repository. Each call of the account manager is a
+ * transaction of its own, as in an application, so changes are committed and
+ * each test undoes its changes through the account manager.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { AppConfig.class, DbConfig.class, JpaAccountManagerCacheTests.TransactionConfig.class })
+@TestPropertySource(properties = "rewards.jpa.second-level-cache=true")
+public class JpaAccountManagerCacheTests {
+
+	@Autowired
+	private AccountManager accountManager;
+
+	@Autowired
+	private RestaurantRepository restaurantRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	public void setUp() {
+		entityManagerFactory.getCache().evictAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	public void getAccountFromCache() {
+		accountManager.getAccount(0L);
+		long statements = statistics.getPrepareStatementCount();
+		Account account = accountManager.getAccount(0L);
+
+		assertEquals(2, account.getBeneficiaries().size());
+		assertEquals(statements, statistics.getPrepareStatementCount(), "account should be loaded from the cache");
+		assertTrue(statistics.getDomainDataRegionStatistics("rewards.internal.account.Account").getHitCount() > 0);
+		assertTrue(statistics.getDomainDataRegionStatistics("rewards.internal.account.Account.beneficiaries")
+				.getHitCount() > 0);
+	}
+
+	@Test
+	public void updateInvalidatesCachedAccount() {
+		Account account = accountManager.getAccount(0L);
+		String name = account.getName();
+
+		account.setName("Keith Donald");
+		accountManager.update(account);
+		assertEquals("Keith Donald", accountManager.getAccount(0L).getName());
+
+		account.setName(name);
+		accountManager.update(account);
+		assertEquals(name, accountManager.getAccount(0L).getName());
+	}
+
+	@Test
+	public void beneficiaryChangesInvalidateCachedBeneficiaries() {
+		accountManager.getAccount(0L);
+
+		accountManager.addBeneficiary(0L, "Xavier");
+		Account account = accountManager.getAccount(0L);
+		assertEquals(3, account.getBeneficiaries().size());
+		assertNotNull(account.getBeneficiary("Xavier"));
+
+		accountManager.removeBeneficiary(0L, "Xavier", null);
+		assertEquals(2, accountManager.getAccount(0L).getBeneficiaries().size());
+	}
+
+	@Test
+	public void findRestaurantFromQueryCache() {
+		restaurantRepository.findByMerchantNumber("1234567890");
+		long statements = statistics.getPrepareStatementCount();
+		restaurantRepository.findByMerchantNumber("1234567890");
+
+		assertEquals(statements, statistics.getPrepareStatementCount(), "restaurant should be loaded from the cache");
+		assertEquals(1, statistics.getQueryCacheHitCount());
+	}
+
+	@Configuration
+	@EnableTransactionManagement
+	static class TransactionConfig {
+	}
+}
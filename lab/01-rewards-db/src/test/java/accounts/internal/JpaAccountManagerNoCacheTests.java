@@ -0,0 +1,35 @@
+package accounts.internal;
+
+import config.AppConfig;
+import config.DbConfig;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the second-level and query caches stay off unless
+ * <code>rewards.jpa.second-level-cache</code> is set, even though a JCache
+ * region factory is on the classpath.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { AppConfig.class, DbConfig.class })
+public class JpaAccountManagerNoCacheTests {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	public void cachesAreOffByDefault() {
+		SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+
+		assertFalse(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled());
+		assertFalse(sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled());
+	}
+}
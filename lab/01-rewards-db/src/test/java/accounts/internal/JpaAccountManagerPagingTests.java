@@ -0,0 +1,54 @@
+package accounts.internal;
+
+import accounts.AccountManager;
+import config.AppConfig;
+import config.DbConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rewards.internal.account.Account;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test verifying that reading a page of accounts, which detaches
+ * them, does not affect the accounts of the caller's transaction.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { AppConfig.class, DbConfig.class, JpaAccountManagerCacheTests.TransactionConfig.class })
+public class JpaAccountManagerPagingTests {
+
+	@Autowired
+	private AccountManager accountManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Test
+	public void getAccountsKeepsUnflushedChanges() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			Account account = accountManager.getAccount(0L);
+			account.setName("Keith Donald");
+
+			List<Account> page = accountManager.getAccounts(null, 10);
+
+			assertFalse(page.isEmpty());
+			assertTrue(entityManager.contains(account), "account detached from the caller's persistence context");
+			entityManager.flush();
+			entityManager.clear();
+			assertEquals("Keith Donald", accountManager.getAccount(0L).getName());
+			status.setRollbackOnly();
+		});
+	}
+}
@@ -0,0 +1,74 @@
+package rewards.internal.account;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import utils.DataManagementSetup;
+
+import common.jdbc.StatementCountingDataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the JPA based account repository loads an account and its
+ * beneficiaries with a single statement, counting the statements run on the
+ * test data source.
+ */
+public class JpaAccountRepositoryStatementTests {
+
+	private StatementCountingDataSource dataSource;
+
+	private JpaAccountRepository accountRepository;
+
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionStatus transactionStatus;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		DataManagementSetup dataManagementSetup = new DataManagementSetup() {
+			@Override
+			protected DataSource createTestDataSource() {
+				dataSource = new StatementCountingDataSource(super.createTestDataSource());
+				return dataSource;
+			}
+		};
+
+		accountRepository = new JpaAccountRepository();
+		EntityManager entityManager = dataManagementSetup.createEntityManager();
+		accountRepository.setEntityManager(entityManager);
+
+		transactionManager = dataManagementSetup.getTransactionManager();
+		transactionStatus = transactionManager.getTransaction(new DefaultTransactionDefinition());
+	}
+
+	@Test
+	public void findByCreditCardInOneStatement() {
+		dataSource.reset();
+		Account account = accountRepository.findByCreditCard("1234123412341234");
+
+		assertTrue(Hibernate.isInitialized(account.getBeneficiaries()), "beneficiaries should be loaded");
+		assertEquals(2, account.getBeneficiaries().size(), "wrong beneficiary collection size");
+		assertEquals(1, dataSource.getCount(), "wrong number of statements");
+	}
+
+	@Test
+	public void findByUnknownCreditCard() {
+		assertThrows(RuntimeException.class, () -> accountRepository.findByCreditCard("0000000000000000"));
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		if (transactionManager != null)
+			transactionManager.rollback(transactionStatus);
+	}
+}
@@ -76,6 +76,9 @@ public class DataManagementSetup {
 		// issuing proper SQL)
 		properties.setProperty("hibenate.show_sql", "true");
 		properties.setProperty("hibernate.format_sql", "true");
+		// keep the second-level and query caches off, as DbConfig does by default
+		properties.setProperty("hibernate.cache.use_second_level_cache", "false");
+		properties.setProperty("hibernate.cache.use_query_cache", "false");
 		return properties;
 	}
 
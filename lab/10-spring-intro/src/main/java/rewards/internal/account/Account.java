@@ -77,15 +77,11 @@ public class Account extends Entity {
 	 * Validation check that returns true only if the total beneficiary allocation adds up to 100%.
 	 */
 	public boolean isValid() {
-		Percentage totalPercentage = Percentage.zero();
+		int totalBasisPoints = 0;
 		for (Beneficiary b : beneficiaries) {
-			totalPercentage = totalPercentage.add(b.getAllocationPercentage());
-		}
-		if (totalPercentage.equals(Percentage.oneHundred())) {
-			return true;
-		} else {
-			return false;
+			totalBasisPoints += b.getAllocationPercentage().asBasisPoints();
 		}
+		return totalBasisPoints == Percentage.oneHundred().asBasisPoints();
 	}
 
 	/**
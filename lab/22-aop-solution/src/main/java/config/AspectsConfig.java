@@ -1,20 +1,45 @@
 package config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import rewards.internal.monitor.MonitorFactory;
+import rewards.internal.monitor.hdr.HdrMonitorFactory;
 import rewards.internal.monitor.jamon.JamonMonitorFactory;
+import rewards.internal.monitor.micrometer.MicrometerMonitorFactory;
 
 @Configuration
 @ComponentScan(basePackages="rewards.internal.aspects")
 @EnableAspectJAutoProxy
 public class AspectsConfig {
 
+	/**
+	 * The monitor factory: "jamon", "hdr" for nanosecond call times with percentiles, or "micrometer" to publish the
+	 * call times with the application's meter registry. When not set, Micrometer is used if there is a meter registry,
+	 * and JAMon otherwise.
+	 */
+	@Value("${rewards.monitor:}")
+	String monitor;
+
 	@Bean
-	public MonitorFactory monitorFactory(){
+	public MonitorFactory monitorFactory(ObjectProvider<MeterRegistry> meterRegistry){
+		if ("hdr".equals(monitor)) {
+			return new HdrMonitorFactory();
+		}
+		if ("micrometer".equals(monitor)) {
+			return new MicrometerMonitorFactory(meterRegistry.getObject());
+		}
+		if (monitor.isEmpty()) {
+			MeterRegistry registry = meterRegistry.getIfAvailable();
+			if (registry != null) {
+				return new MicrometerMonitorFactory(registry);
+			}
+		}
 		return new JamonMonitorFactory();
 	}
 	
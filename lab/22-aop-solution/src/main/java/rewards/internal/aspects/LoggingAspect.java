@@ -1,17 +1,25 @@
 package rewards.internal.aspects;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import rewards.internal.monitor.Monitor;
+import rewards.internal.monitor.CallTimeRecorder;
 import rewards.internal.monitor.MonitorFactory;
 
 @Aspect
@@ -23,38 +31,112 @@ public class LoggingAspect {
 	private Logger logger = LoggerFactory.getLogger(getClass());
 	private MonitorFactory monitorFactory;
 
+	/**
+	 * The monitored calls, by advised method, or by name for a signature that is not a method's. Keyed by method rather
+	 * than by signature, as Spring creates a new signature for every call.
+	 */
+	private final ConcurrentMap<Object, MonitoredCall> monitoredCalls = new ConcurrentHashMap<Object, MonitoredCall>();
+
+	private int sampleRate = 1;
+
+	private long logIntervalMillis = TimeUnit.MINUTES.toMillis(1);
+
 	@Autowired
 	public LoggingAspect(MonitorFactory monitorFactory) {
 		super();
 		this.monitorFactory = monitorFactory;
 	}
 
+	/**
+	 * Sets how many repository updates there are for each update that is monitored: with 100, one in a hundred
+	 * updates, picked at random, is timed and logged. Defaults to 1, monitoring every update.
+	 */
+	@Value("${rewards.monitor.sample-rate:1}")
+	public void setSampleRate(int sampleRate) {
+		if (sampleRate < 1) {
+			throw new IllegalArgumentException("Expected a sample rate of 1 or more; got " + sampleRate);
+		}
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Sets how often the statistics of a monitored method are logged at INFO: on its first call, then at most once per
+	 * interval. Every monitored call is logged at DEBUG. Defaults to one minute.
+	 */
+	@Value("${rewards.monitor.log-interval-millis:60000}")
+	public void setLogIntervalMillis(long logIntervalMillis) {
+		if (logIntervalMillis < 0) {
+			throw new IllegalArgumentException("Expected a log interval of 0 or more; got " + logIntervalMillis);
+		}
+		this.logIntervalMillis = logIntervalMillis;
+	}
+
 	@Before("execution(public * rewards.internal.*.*Repository.find*(..))")
 	public void implLogging(JoinPoint joinPoint) {
-        logger.info(BEFORE + " advice implementation - " + joinPoint.getTarget().getClass() + //
-                    "; Executing before " + joinPoint.getSignature().getName() + //
-                    "() method");
-
+		if (logger.isInfoEnabled()) {
+			logger.info("{} advice implementation - {}; Executing before {}() method", BEFORE,
+					joinPoint.getTarget().getClass(), joinPoint.getSignature().getName());
+		}
 	}
 
 	@Around("execution(public * rewards.internal.*.*Repository.update*(..))")
 	public Object monitor(ProceedingJoinPoint repositoryMethod) throws Throwable {
-		String name = createJoinPointTraceName(repositoryMethod);
-		Monitor monitor = monitorFactory.start(name);
+		if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+			return repositoryMethod.proceed();
+		}
+		MonitoredCall monitoredCall = getMonitoredCall(repositoryMethod.getSignature());
+		long startTime = System.nanoTime();
 		try {
 			return repositoryMethod.proceed();
 		} finally {
-			monitor.stop();
-            logger.info(AROUND + " advice implementation - " + monitor);
+			monitoredCall.recorder.record(System.nanoTime() - startTime);
+			// Formatting the statistics reads them all, so they are only logged at INFO now and then
+			if (logger.isDebugEnabled()) {
+				logger.debug("{} advice implementation - {}", AROUND, monitoredCall.recorder);
+			} else if (logger.isInfoEnabled() && monitoredCall.isLogDue(logIntervalMillis)) {
+				logger.info("{} advice implementation - {}", AROUND, monitoredCall.recorder);
+			}
+		}
+	}
 
+	private MonitoredCall getMonitoredCall(Signature signature) {
+		Object key = signature instanceof MethodSignature ? ((MethodSignature) signature).getMethod()
+				: createJoinPointTraceName(signature);
+		MonitoredCall monitoredCall = monitoredCalls.get(key);
+		if (monitoredCall == null) {
+			monitoredCall = monitoredCalls.computeIfAbsent(key,
+					k -> new MonitoredCall(monitorFactory.getRecorder(createJoinPointTraceName(signature))));
 		}
+		return monitoredCall;
 	}
 
-	private String createJoinPointTraceName(JoinPoint joinPoint) {
-		Signature signature = joinPoint.getSignature();
+	private String createJoinPointTraceName(Signature signature) {
 		StringBuilder sb = new StringBuilder();
 		sb.append(signature.getDeclaringType().getSimpleName());
 		sb.append('.').append(signature.getName());
 		return sb.toString();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * The call time recorder of an advised method, and when its statistics are logged next.
+	 */
+	private static class MonitoredCall {
+
+		final CallTimeRecorder recorder;
+
+		private final AtomicLong nextLogTime = new AtomicLong();
+
+		MonitoredCall(CallTimeRecorder recorder) {
+			this.recorder = recorder;
+		}
+
+		/**
+		 * Returns whether the statistics are to be logged now; true for only one of the calls ending at the same time.
+		 */
+		boolean isLogDue(long logIntervalMillis) {
+			long next = nextLogTime.get();
+			long now = System.currentTimeMillis();
+			return now >= next && nextLogTime.compareAndSet(next, now + logIntervalMillis);
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package rewards.internal.monitor;
+
+/**
+ * Records the call times of a single name. Resolved once per name with {@link MonitorFactory#getRecorder(String)},
+ * then used for every call without looking the name up again.
+ */
+public interface CallTimeRecorder {
+
+	String getName();
+
+	/**
+	 * Records a call.
+	 * @param callTime the duration of the call in nanoseconds
+	 */
+	void record(long callTime);
+}
@@ -3,4 +3,9 @@ package rewards.internal.monitor;
 public interface MonitorFactory {
 
 	Monitor start(String name);
+
+	/**
+	 * Returns the recorder of the call times of the given name.
+	 */
+	CallTimeRecorder getRecorder(String name);
 }
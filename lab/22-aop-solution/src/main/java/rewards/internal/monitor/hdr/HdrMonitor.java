@@ -0,0 +1,49 @@
+package rewards.internal.monitor.hdr;
+
+import rewards.internal.monitor.Monitor;
+
+/**
+ * Times a single call, and records its duration in the statistics of its name when stopped.
+ */
+public class HdrMonitor implements Monitor {
+
+	private final HdrMonitorStatistics statistics;
+
+	private long startTime;
+
+	private long callTime = -1;
+
+	HdrMonitor(HdrMonitorStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	public Monitor start() {
+		startTime = System.nanoTime();
+		callTime = -1;
+		return this;
+	}
+
+	public Monitor stop() {
+		callTime = System.nanoTime() - startTime;
+		statistics.record(callTime);
+		return this;
+	}
+
+	/**
+	 * Returns the duration of the call in nanoseconds, or -1 while the call is not stopped.
+	 */
+	public long getCallTime() {
+		return callTime;
+	}
+
+	/**
+	 * Returns the statistics of all calls with the name of this call.
+	 */
+	public HdrMonitorStatistics getStatistics() {
+		return statistics;
+	}
+
+	public String toString() {
+		return statistics.getName() + ": Last=" + callTime + "ns";
+	}
+}
@@ -0,0 +1,210 @@
+package rewards.internal.monitor.hdr;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import rewards.internal.monitor.CallTimeRecorder;
+import rewards.internal.monitor.MonitorStatistics;
+
+/**
+ * The statistics of all calls with the same name, with call times in nanoseconds.
+ *
+ * Calls are recorded into one of several HdrHistogram recorders, picked by thread, so threads recording at the same
+ * time rarely touch the same memory and never wait for each other. Reading the statistics merges what the recorders
+ * recorded since the last read into a histogram of all calls, which gives the percentiles with three significant
+ * digits. The statistics are read from that histogram while holding its lock; only {@link #getHistogram()} copies it.
+ *
+ * Recording a call reads no clock and writes no volatile field besides those of its recorder: each recorder remembers
+ * the time of the last call it recorded in a plain field. The last access time is derived when the statistics are
+ * read instead, as the time of the first merge that found a recorder had recorded calls, so it is only as precise as
+ * statistics are read often.
+ */
+public class HdrMonitorStatistics implements MonitorStatistics, CallTimeRecorder {
+
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final String name;
+
+	private final Stripe[] stripes;
+
+	private final int mask;
+
+	private final LongAdder totalCallTime = new LongAdder();
+
+	private final Histogram histogram = new Histogram(SIGNIFICANT_DIGITS);
+
+	/**
+	 * The call time of one of the recorders that recorded calls in the last merge that found any. Guarded by the lock
+	 * on the histogram.
+	 */
+	private long lastCallTime;
+
+	/**
+	 * When a merge last found calls, in milliseconds since 1970. Guarded by the lock on the histogram.
+	 */
+	private long lastAccessTime;
+
+	/**
+	 * Creates the statistics of a name.
+	 * @param name the name of the calls
+	 * @param stripes the number of recorders, a power of two
+	 */
+	HdrMonitorStatistics(String name, int stripes) {
+		if (Integer.bitCount(stripes) != 1) {
+			throw new IllegalArgumentException("Expected a power of two stripes; got " + stripes);
+		}
+		this.name = name;
+		this.stripes = new Stripe[stripes];
+		for (int i = 0; i < stripes; i++) {
+			this.stripes[i] = new Stripe();
+		}
+		this.mask = stripes - 1;
+	}
+
+	public void record(long callTime) {
+		Stripe stripe = stripes[(int) Thread.currentThread().getId() & mask];
+		// written before recording, so a merge that takes the recorded call sees it too
+		stripe.lastCallTime = callTime;
+		stripe.recorder.recordValue(callTime);
+		totalCallTime.add(callTime);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns a copy of the histogram of all call times, which can be merged with the histograms of other names or
+	 * other processes.
+	 */
+	public Histogram getHistogram() {
+		synchronized (histogram) {
+			merge();
+			return histogram.copy();
+		}
+	}
+
+	/**
+	 * Adds what the recorders recorded since the last merge to the histogram of all calls. Each recorder swaps its
+	 * interval histogram for the one it handed out the last time, so merging allocates nothing once every recorder has
+	 * two. Also notes the last call time and access time when any recorder recorded calls. Must be called holding the
+	 * lock on the histogram.
+	 */
+	private void merge() {
+		boolean called = false;
+		for (Stripe stripe : stripes) {
+			stripe.interval = stripe.recorder.getIntervalHistogram(stripe.interval);
+			if (stripe.interval.getTotalCount() > 0) {
+				histogram.add(stripe.interval);
+				lastCallTime = stripe.lastCallTime;
+				called = true;
+			}
+		}
+		if (called) {
+			lastAccessTime = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * Returns the time of a call recorded since the statistics were last read; when several threads recorded calls
+	 * since then, that of any one of them.
+	 */
+	public long getLastCallTime() {
+		synchronized (histogram) {
+			merge();
+			return lastCallTime;
+		}
+	}
+
+	/**
+	 * Returns when the statistics were first read after the last call, in milliseconds since 1970, or 0 before the
+	 * first call. That is when the last call was recorded, up to the time between reads.
+	 */
+	public long getLastAccessTime() {
+		synchronized (histogram) {
+			merge();
+			return lastAccessTime;
+		}
+	}
+
+	public long getCallCount() {
+		synchronized (histogram) {
+			merge();
+			return histogram.getTotalCount();
+		}
+	}
+
+	public long getAverageCallTime() {
+		synchronized (histogram) {
+			merge();
+			return (long) histogram.getMean();
+		}
+	}
+
+	public long getTotalCallTime() {
+		return totalCallTime.sum();
+	}
+
+	public long getMinimumCallTime() {
+		synchronized (histogram) {
+			merge();
+			return histogram.getMinValue();
+		}
+	}
+
+	public long getMaximumCallTime() {
+		synchronized (histogram) {
+			merge();
+			return histogram.getMaxValue();
+		}
+	}
+
+	/**
+	 * Returns the call time that the given percentage of the calls did not exceed.
+	 * @param percentile the percentile, for instance 99.9
+	 */
+	public long getPercentileCallTime(double percentile) {
+		synchronized (histogram) {
+			merge();
+			return histogram.getValueAtPercentile(percentile);
+		}
+	}
+
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(name).append(": ");
+		synchronized (histogram) {
+			merge();
+			sb.append("Last=").append(lastCallTime).append(", ");
+			sb.append("Calls=").append(histogram.getTotalCount()).append(", ");
+			sb.append("Avg=").append((long) histogram.getMean()).append(", ");
+			sb.append("Total=").append(getTotalCallTime()).append(", ");
+			sb.append("Min=").append(histogram.getMinValue()).append(", ");
+			sb.append("P50=").append(histogram.getValueAtPercentile(50)).append(", ");
+			sb.append("P99=").append(histogram.getValueAtPercentile(99)).append(", ");
+			sb.append("P999=").append(histogram.getValueAtPercentile(99.9)).append(", ");
+			sb.append("Max=").append(histogram.getMaxValue()).append(" (ns)");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * The recorder of the calls of some of the threads.
+	 */
+	private static class Stripe {
+
+		private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+
+		/**
+		 * The interval histogram last taken from the recorder, handed back to it on the next merge.
+		 */
+		private Histogram interval;
+
+		/**
+		 * The time of the last call recorded; a plain field, read by merges after taking the recorded calls.
+		 */
+		private long lastCallTime;
+	}
+}
@@ -1,9 +1,12 @@
 package rewards.internal.monitor.jamon;
 
+import java.util.concurrent.TimeUnit;
+
+import rewards.internal.monitor.CallTimeRecorder;
 import rewards.internal.monitor.Monitor;
 import rewards.internal.monitor.MonitorStatistics;
 
-public class JamonMonitor implements Monitor, MonitorStatistics {
+public class JamonMonitor implements Monitor, MonitorStatistics, CallTimeRecorder {
 
 	private com.jamonapi.Monitor monitor;
 
@@ -21,6 +24,13 @@ public class JamonMonitor implements Monitor, MonitorStatistics {
 		return this;
 	}
 
+	/**
+	 * Adds a call to the monitor, in whole milliseconds like a started and stopped monitor.
+	 */
+	public void record(long callTime) {
+		monitor.add(TimeUnit.NANOSECONDS.toMillis(callTime));
+	}
+
 	public String getName() {
 		return monitor.getLabel();
 	}
@@ -2,6 +2,7 @@ package rewards.internal.monitor.jamon;
 
 import java.util.Date;
 
+import rewards.internal.monitor.CallTimeRecorder;
 import rewards.internal.monitor.GlobalMonitorStatistics;
 import rewards.internal.monitor.Monitor;
 import rewards.internal.monitor.MonitorFactory;
@@ -16,6 +17,10 @@ public class JamonMonitorFactory implements MonitorFactory, GlobalMonitorStatist
 		return new JamonMonitor(monitorFactory.start(name));
 	}
 
+	public CallTimeRecorder getRecorder(String name) {
+		return new JamonMonitor(monitorFactory.getMonitor(name, "ms."));
+	}
+
 	public long getCallsCount() {
 		return (long) getMonitors().getHits();
 	}
@@ -0,0 +1,41 @@
+package rewards.internal.monitor.micrometer;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Timer;
+import rewards.internal.monitor.CallTimeRecorder;
+
+/**
+ * Records the call times of a single name into its Micrometer timer.
+ */
+public class MicrometerCallTimeRecorder implements CallTimeRecorder {
+
+	private final String name;
+
+	private final Timer timer;
+
+	MicrometerCallTimeRecorder(String name, Timer timer) {
+		this.name = name;
+		this.timer = timer;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void record(long callTime) {
+		timer.record(callTime, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns the timer the call times are recorded into.
+	 */
+	public Timer getTimer() {
+		return timer;
+	}
+
+	public String toString() {
+		return name + ": Hits=" + timer.count() + ", Avg=" + (long) timer.mean(TimeUnit.NANOSECONDS) + "ns, Max="
+				+ (long) timer.max(TimeUnit.NANOSECONDS) + "ns";
+	}
+}
@@ -0,0 +1,31 @@
+package rewards.internal.monitor.micrometer;
+
+import rewards.internal.monitor.Monitor;
+
+/**
+ * Times a single call, and records its duration with the timer of its name when stopped.
+ */
+public class MicrometerMonitor implements Monitor {
+
+	private final MicrometerCallTimeRecorder recorder;
+
+	private long startTime;
+
+	MicrometerMonitor(MicrometerCallTimeRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	public Monitor start() {
+		startTime = System.nanoTime();
+		return this;
+	}
+
+	public Monitor stop() {
+		recorder.record(System.nanoTime() - startTime);
+		return this;
+	}
+
+	public String toString() {
+		return recorder.toString();
+	}
+}
@@ -0,0 +1,53 @@
+package rewards.internal.monitor.micrometer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import rewards.internal.monitor.Monitor;
+import rewards.internal.monitor.MonitorFactory;
+
+/**
+ * A monitor factory that records call times with Micrometer timers, so they are published by whatever registry the
+ * application uses, for instance at /actuator/prometheus.
+ *
+ * All names share the {@value #TIMER_NAME} timer, each name being its "method" tag. The timer of a name is registered
+ * once, the first time the name is asked for; a recorder keeps it, so recording a call does not look up the registry.
+ * The timers publish a histogram of their call times, from which percentiles can be computed across instances.
+ */
+public class MicrometerMonitorFactory implements MonitorFactory {
+
+	/**
+	 * The name of the timers.
+	 */
+	public static final String TIMER_NAME = "rewards.repository.calls";
+
+	private final MeterRegistry meterRegistry;
+
+	private final ConcurrentMap<String, MicrometerCallTimeRecorder> recorders = new ConcurrentHashMap<String, MicrometerCallTimeRecorder>();
+
+	public MicrometerMonitorFactory(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	public Monitor start(String name) {
+		return new MicrometerMonitor(getRecorder(name)).start();
+	}
+
+	public MicrometerCallTimeRecorder getRecorder(String name) {
+		MicrometerCallTimeRecorder existing = recorders.get(name);
+		if (existing != null) {
+			return existing;
+		}
+		return recorders.computeIfAbsent(name, key -> new MicrometerCallTimeRecorder(key, register(key)));
+	}
+
+	private Timer register(String name) {
+		return Timer.builder(TIMER_NAME)
+			.description("Call times of the rewards repositories")
+			.tag("method", name)
+			.publishPercentileHistogram()
+			.register(meterRegistry);
+	}
+}
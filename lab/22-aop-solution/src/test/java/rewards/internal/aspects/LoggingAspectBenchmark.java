@@ -0,0 +1,109 @@
+package rewards.internal.aspects;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import rewards.internal.StubAccountRepository;
+import rewards.internal.account.Account;
+import rewards.internal.account.AccountRepository;
+import rewards.internal.monitor.MonitorFactory;
+import rewards.internal.monitor.hdr.HdrMonitorFactory;
+import rewards.internal.monitor.jamon.JamonMonitorFactory;
+import rewards.internal.monitor.micrometer.MicrometerMonitorFactory;
+
+/**
+ * Measures the overhead of the logging aspect: the throughput of an in-memory account repository, unadvised and
+ * advised with each monitor factory, monitoring every update or one in a hundred. Logging is configured as it is for the
+ * application, so the cost of logging the statistics now and then is measured too.
+ *
+ * Run the main method from the IDE, or any other way that puts the test classpath on the classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Unadvised {
+
+		AccountRepository repository;
+
+		Account account;
+
+		@Setup
+		public void setUp() {
+			repository = new StubAccountRepository();
+			account = repository.findByCreditCard("1234123412341234");
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Advised {
+
+		@Param({ "jamon", "hdr", "micrometer" })
+		String monitor;
+
+		@Param({ "1", "100" })
+		int sampleRate;
+
+		AccountRepository repository;
+
+		Account account;
+
+		@Setup
+		public void setUp() {
+			LoggingAspect aspect = new LoggingAspect(createMonitorFactory());
+			aspect.setSampleRate(sampleRate);
+			AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new StubAccountRepository());
+			proxyFactory.addAspect(aspect);
+			repository = proxyFactory.getProxy();
+			account = repository.findByCreditCard("1234123412341234");
+		}
+
+		private MonitorFactory createMonitorFactory() {
+			if ("hdr".equals(monitor)) {
+				return new HdrMonitorFactory();
+			}
+			if ("micrometer".equals(monitor)) {
+				return new MicrometerMonitorFactory(new SimpleMeterRegistry());
+			}
+			return new JamonMonitorFactory();
+		}
+	}
+
+	@Benchmark
+	public Account unadvised(Unadvised state) {
+		state.repository.updateBeneficiaries(state.account);
+		return state.account;
+	}
+
+	@Benchmark
+	public Account advised(Advised state) {
+		state.repository.updateBeneficiaries(state.account);
+		return state.account;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+			.include(LoggingAspectBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+}
@@ -0,0 +1,83 @@
+package rewards.internal.aspects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import rewards.internal.StubAccountRepository;
+import rewards.internal.account.Account;
+import rewards.internal.account.AccountRepository;
+import rewards.internal.monitor.hdr.HdrMonitorFactory;
+import rewards.internal.monitor.jamon.JamonMonitorFactory;
+
+/**
+ * Tests the monitoring of the logging aspect, applied to a stub repository with a Spring AOP proxy.
+ */
+public class LoggingAspectMonitorTests {
+
+	@Test
+	public void testMonitorRecordsEveryCall() {
+		HdrMonitorFactory monitorFactory = new HdrMonitorFactory();
+		AccountRepository repository = advise(new LoggingAspect(monitorFactory));
+		Account account = repository.findByCreditCard("1234123412341234");
+		for (int i = 0; i < 10; i++) {
+			repository.updateBeneficiaries(account);
+		}
+		assertEquals(10, monitorFactory.callCount("AccountRepository.updateBeneficiaries"));
+		assertEquals(1, monitorFactory.getStatistics().size());
+	}
+
+	@Test
+	public void testMonitorSamplesCalls() {
+		HdrMonitorFactory monitorFactory = new HdrMonitorFactory();
+		LoggingAspect aspect = new LoggingAspect(monitorFactory);
+		aspect.setSampleRate(10);
+		AccountRepository repository = advise(aspect);
+		Account account = repository.findByCreditCard("1234123412341234");
+		for (int i = 0; i < 10000; i++) {
+			repository.updateBeneficiaries(account);
+		}
+		// one in ten calls is recorded, give or take
+		assertEquals(1000, monitorFactory.callCount("AccountRepository.updateBeneficiaries"), 200);
+	}
+
+	@Test
+	public void testMonitorLogsStatisticsAtInfoOncePerInterval() {
+		Logger logger = (Logger) LoggerFactory.getLogger(LoggingAspect.class);
+		ListAppender<ILoggingEvent> appender = new ListAppender<ILoggingEvent>();
+		appender.start();
+		logger.addAppender(appender);
+		try {
+			AccountRepository repository = advise(new LoggingAspect(new HdrMonitorFactory()));
+			Account account = repository.findByCreditCard("1234123412341234");
+			for (int i = 0; i < 10; i++) {
+				repository.updateBeneficiaries(account);
+			}
+		} finally {
+			logger.detachAppender(appender);
+		}
+		long logged = appender.list.stream()
+			.filter(event -> event.getLevel() == Level.INFO && event.getFormattedMessage().startsWith(LoggingAspect.AROUND))
+			.count();
+		assertEquals(1, logged);
+	}
+
+	@Test
+	public void testInvalidSampleRate() {
+		LoggingAspect aspect = new LoggingAspect(new JamonMonitorFactory());
+		assertThrows(IllegalArgumentException.class, () -> aspect.setSampleRate(0));
+	}
+
+	private AccountRepository advise(LoggingAspect aspect) {
+		AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new StubAccountRepository());
+		proxyFactory.addAspect(aspect);
+		return proxyFactory.getProxy();
+	}
+}
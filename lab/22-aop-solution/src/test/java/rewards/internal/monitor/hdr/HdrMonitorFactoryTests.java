@@ -0,0 +1,137 @@
+package rewards.internal.monitor.hdr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import rewards.internal.monitor.Monitor;
+
+/**
+ * Unit tests for the HdrHistogram monitor factory.
+ */
+public class HdrMonitorFactoryTests {
+
+	private HdrMonitorFactory monitorFactory = new HdrMonitorFactory(4);
+
+	@Test
+	public void testMonitor() {
+		Monitor monitor = monitorFactory.start("AccountRepository.updateBeneficiaries");
+		monitor.stop();
+
+		long callTime = ((HdrMonitor) monitor).getCallTime();
+		assertTrue(callTime >= 0);
+		assertEquals(1, monitorFactory.callCount("AccountRepository.updateBeneficiaries"));
+		assertEquals(callTime, monitorFactory.lastCallTime("AccountRepository.updateBeneficiaries"));
+		assertEquals(callTime, monitorFactory.totalCallTime("AccountRepository.updateBeneficiaries"));
+		assertNotNull(monitorFactory.getLastAccessTime());
+		assertTrue(monitor.toString().startsWith("AccountRepository.updateBeneficiaries: Last="));
+	}
+
+	@Test
+	public void testPercentiles() {
+		HdrMonitorStatistics statistics = monitorFactory.getStatistics("slow");
+		for (long i = 1; i <= 1000; i++) {
+			statistics.record(i * 1000);
+		}
+
+		assertEquals(1000, monitorFactory.callCount("slow"));
+		assertEquals(1000, monitorFactory.minimumCallTime("slow"));
+		assertEquals(500500, monitorFactory.averageCallTime("slow"), 500);
+		assertEquals(500500000, monitorFactory.totalCallTime("slow"));
+		assertEquals(500000, monitorFactory.percentileCallTime("slow", 50), 500);
+		assertEquals(990000, monitorFactory.percentileCallTime("slow", 99), 1000);
+		assertEquals(999000, monitorFactory.percentileCallTime("slow", 99.9), 1000);
+		assertEquals(1000000, monitorFactory.maximumCallTime("slow"), 1000);
+		assertTrue(statistics.toString().contains("P999="));
+	}
+
+	@Test
+	public void testHistogramsAccumulate() {
+		HdrMonitorStatistics statistics = monitorFactory.getStatistics("name");
+		statistics.record(10);
+		assertEquals(1, statistics.getCallCount());
+		statistics.record(20);
+		assertEquals(2, statistics.getCallCount());
+		assertEquals(2, statistics.getHistogram().getTotalCount());
+		// the recorders now hand back recycled interval histograms
+		statistics.record(30);
+		assertEquals(3, statistics.getCallCount());
+		assertEquals(3, statistics.getCallCount());
+		assertEquals(30, statistics.getMaximumCallTime());
+		assertEquals(10, statistics.getMinimumCallTime());
+	}
+
+	@Test
+	public void testLastCallNotedWhenRead() throws Exception {
+		HdrMonitorStatistics statistics = monitorFactory.getStatistics("name");
+		statistics.record(10);
+		statistics.record(20);
+		long beforeRead = System.currentTimeMillis();
+
+		assertEquals(20, statistics.getLastCallTime());
+		long lastAccessTime = statistics.getLastAccessTime();
+		assertTrue(lastAccessTime >= beforeRead && lastAccessTime <= System.currentTimeMillis());
+
+		// reading again without calls keeps both
+		Thread.sleep(5);
+		assertEquals(20, statistics.getLastCallTime());
+		assertEquals(lastAccessTime, statistics.getLastAccessTime());
+	}
+
+	@Test
+	public void testNames() {
+		monitorFactory.start("a").stop();
+		monitorFactory.start("b").stop();
+		monitorFactory.start("b").stop();
+
+		assertEquals(2, monitorFactory.getStatistics().size());
+		assertEquals(3, monitorFactory.getCallsCount());
+		assertEquals(0, monitorFactory.callCount("c"));
+	}
+
+	@Test
+	public void testNoCalls() {
+		assertNull(monitorFactory.getLastAccessTime());
+		assertEquals(0, monitorFactory.getCallsCount());
+	}
+
+	@Test
+	public void testConcurrentRecording() throws Exception {
+		int threads = 8;
+		int calls = 10000;
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> recorders = new ArrayList<Thread>();
+		for (int i = 0; i < threads; i++) {
+			Thread recorder = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int call = 0; call < calls; call++) {
+					monitorFactory.getStatistics("concurrent").record(call + 1);
+					if (call % 1000 == 0) {
+						// reading while recording must not lose calls
+						monitorFactory.callCount("concurrent");
+					}
+				}
+			});
+			recorder.start();
+			recorders.add(recorder);
+		}
+		start.countDown();
+		for (Thread recorder : recorders) {
+			recorder.join();
+		}
+
+		assertEquals(threads * calls, monitorFactory.callCount("concurrent"));
+		assertEquals((long) threads * calls * (calls + 1) / 2, monitorFactory.totalCallTime("concurrent"));
+	}
+}
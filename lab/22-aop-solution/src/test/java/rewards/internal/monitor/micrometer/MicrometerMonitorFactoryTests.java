@@ -0,0 +1,84 @@
+package rewards.internal.monitor.micrometer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import config.AspectsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import rewards.internal.monitor.MonitorFactory;
+import rewards.internal.monitor.jamon.JamonMonitorFactory;
+
+/**
+ * Unit tests for the Micrometer monitor factory.
+ */
+public class MicrometerMonitorFactoryTests {
+
+	@Test
+	public void testRecorder() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		MicrometerMonitorFactory monitorFactory = new MicrometerMonitorFactory(registry);
+
+		MicrometerCallTimeRecorder recorder = monitorFactory.getRecorder("AccountRepository.updateBeneficiaries");
+		assertSame(recorder, monitorFactory.getRecorder("AccountRepository.updateBeneficiaries"));
+		recorder.record(TimeUnit.MILLISECONDS.toNanos(2));
+		monitorFactory.start("AccountRepository.updateBeneficiaries").stop();
+
+		Timer timer = registry.get(MicrometerMonitorFactory.TIMER_NAME)
+			.tag("method", "AccountRepository.updateBeneficiaries")
+			.timer();
+		assertSame(timer, recorder.getTimer());
+		assertEquals(2, timer.count());
+		assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 2);
+	}
+
+	@Test
+	public void testPrometheusHistogram() {
+		PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+		MicrometerMonitorFactory monitorFactory = new MicrometerMonitorFactory(registry);
+		monitorFactory.getRecorder("AccountRepository.updateBeneficiaries").record(TimeUnit.MILLISECONDS.toNanos(2));
+
+		String scrape = registry.scrape();
+		assertTrue(scrape.contains(
+				"rewards_repository_calls_seconds_bucket{method=\"AccountRepository.updateBeneficiaries\","));
+		assertTrue(scrape.contains(
+				"rewards_repository_calls_seconds_count{method=\"AccountRepository.updateBeneficiaries\",} 1.0"));
+	}
+
+	@Test
+	public void testConfiguredWithMeterRegistry() {
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				MeterRegistryConfig.class)) {
+			assertTrue(context.getBean(MonitorFactory.class) instanceof MicrometerMonitorFactory);
+		}
+	}
+
+	@Test
+	public void testConfiguredWithoutMeterRegistry() {
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(AspectsConfig.class)) {
+			assertTrue(context.getBean(MonitorFactory.class) instanceof JamonMonitorFactory);
+		}
+	}
+
+	@Configuration
+	@Import(AspectsConfig.class)
+	static class MeterRegistryConfig {
+
+		@Bean
+		public MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+}
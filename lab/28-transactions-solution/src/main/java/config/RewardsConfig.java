@@ -1,19 +1,36 @@
 package config;
 
+import java.nio.file.Paths;
+
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import rewards.AsyncRewardNetwork;
 import rewards.RewardNetwork;
+import rewards.internal.AsyncRewardNetworkImpl;
+import rewards.internal.IdempotentRewardNetwork;
 import rewards.internal.RewardNetworkImpl;
+import rewards.internal.StripedLockRewardNetwork;
 import rewards.internal.account.AccountRepository;
 import rewards.internal.account.JdbcAccountRepository;
+import rewards.internal.restaurant.CachingRestaurantRepository;
 import rewards.internal.restaurant.JdbcRestaurantRepository;
 import rewards.internal.restaurant.RestaurantRepository;
+import rewards.internal.reward.AggregatingRewardRepository;
+import rewards.internal.reward.ConfirmationNumberAllocator;
 import rewards.internal.reward.JdbcRewardRepository;
+import rewards.internal.reward.JdbcRewardStatistics;
+import rewards.internal.reward.JournalingRewardRepository;
+import rewards.internal.reward.PooledConfirmationNumberAllocator;
 import rewards.internal.reward.RewardRepository;
 
 
@@ -23,19 +40,111 @@ public class RewardsConfig {
 
 	@Autowired
 	DataSource dataSource;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	/**
+	 * Whether beneficiary savings are updated by adding the distributed amounts to the stored savings.
+	 */
+	@Value("${rewards.incremental-savings:false}")
+	boolean incrementalSavings;
+
+	/**
+	 * The directory of the journal rewards are written behind from; no journal when empty.
+	 */
+	@Value("${rewards.journal.directory:}")
+	String journalDirectory;
+
+	/**
+	 * Whether confirmed rewards are added to the reward statistics, in the transaction that stores them. Rewards at the
+	 * same merchant then commit one at a time; see {@link JdbcRewardStatistics}.
+	 */
+	@Value("${rewards.statistics.enabled:false}")
+	boolean statisticsEnabled;
+
+	/**
+	 * The number of confirmation numbers reserved at a time; must equal the increment of the confirmation number
+	 * sequence, see rewards/confirmation-number-schema.sql.
+	 */
+	@Value("${rewards.confirmation-number.block-size:100}")
+	int confirmationNumberBlockSize;
+
+	/**
+	 * The maximum number of dinings the asynchronous reward network rewards at the same time.
+	 */
+	@Value("${rewards.async.max-concurrency:8}")
+	int asyncMaxConcurrency;
+
+	/**
+	 * The maximum number of dinings waiting for the asynchronous reward network.
+	 */
+	@Value("${rewards.async.queue-capacity:1000}")
+	int asyncQueueCapacity;
+
+	/**
+	 * What happens to a dining when the asynchronous reward network's queue is full.
+	 */
+	@Value("${rewards.async.overflow-policy:BLOCK}")
+	AsyncRewardNetworkImpl.OverflowPolicy asyncOverflowPolicy;
+
+	/**
+	 * Whether the asynchronous reward network rewards dinings on virtual threads, which requires Java 21.
+	 */
+	@Value("${rewards.async.virtual-threads:false}")
+	boolean asyncVirtualThreads;
 		
+	/**
+	 * The reward network; the one injected by type, as the decorators below are reward networks too.
+	 */
 	@Bean
+	@Primary
 	public RewardNetwork rewardNetwork(){
-		return new RewardNetworkImpl(
+		RewardNetworkImpl rewardNetwork = new RewardNetworkImpl(
 			accountRepository(), 
 			restaurantRepository(), 
 			rewardRepository());
+		rewardNetwork.setTransactionOperations(new TransactionTemplate(transactionManager));
+		return rewardNetwork;
+	}
+	
+	/**
+	 * Rewards a dining only once, however often a card network retries it.
+	 */
+	@Bean
+	public RewardNetwork idempotentRewardNetwork(){
+		return new IdempotentRewardNetwork(rewardNetwork(), dataSource);
+	}
+	
+	/**
+	 * Rewards dinings of the same account one at a time, so they do not overwrite each other's savings.
+	 */
+	@Bean
+	public RewardNetwork stripedLockRewardNetwork(){
+		return new StripedLockRewardNetwork(rewardNetwork(), accountRepository(), 64);
+	}
+	
+	/**
+	 * Rewards dinings in the background, with the striped lock reward network. Only created when
+	 * rewards.async.enabled is set, as it starts threads of its own.
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "rewards.async.enabled", havingValue = "true")
+	public AsyncRewardNetwork asyncRewardNetwork(){
+		AsyncRewardNetworkImpl asyncRewardNetwork = new AsyncRewardNetworkImpl(
+			stripedLockRewardNetwork(),
+			asyncMaxConcurrency,
+			asyncQueueCapacity);
+		asyncRewardNetwork.setOverflowPolicy(asyncOverflowPolicy);
+		asyncRewardNetwork.setVirtualThreads(asyncVirtualThreads);
+		return asyncRewardNetwork;
 	}
 	
 	@Bean
 	public AccountRepository accountRepository(){
 		JdbcAccountRepository repository = new JdbcAccountRepository();
 		repository.setDataSource(dataSource);
+		repository.setIncrementalSavings(incrementalSavings);
 		return repository;
 	}
 	
@@ -43,14 +152,43 @@ public class RewardsConfig {
 	public RestaurantRepository restaurantRepository(){
 		JdbcRestaurantRepository repository = new JdbcRestaurantRepository();
 		repository.setDataSource(dataSource);
-		return repository;
+		return new CachingRestaurantRepository(repository);
 	}
 	
 	@Bean
 	public RewardRepository rewardRepository(){
+		if (!journalDirectory.isEmpty()) {
+			if (statisticsEnabled) {
+				throw new IllegalStateException("The reward statistics cannot be kept in the transaction of rewards "
+						+ "written behind; disable rewards.statistics.enabled or rewards.journal.directory");
+			}
+			JournalingRewardRepository repository = new JournalingRewardRepository(dataSource, Paths.get(journalDirectory));
+			repository.setConfirmationNumberAllocator(confirmationNumberAllocator());
+			return repository;
+		}
 		JdbcRewardRepository repository = new JdbcRewardRepository();
 		repository.setDataSource(dataSource);
+		repository.setConfirmationNumberAllocator(confirmationNumberAllocator());
+		if (statisticsEnabled) {
+			return new AggregatingRewardRepository(repository, rewardStatistics());
+		}
 		return repository;
 	}
+
+	@Bean
+	public ConfirmationNumberAllocator confirmationNumberAllocator(){
+		return new PooledConfirmationNumberAllocator(dataSource, confirmationNumberBlockSize);
+	}
+
+	/**
+	 * The reward statistics; only up to date when rewards.statistics.enabled is set, or after a rebuild.
+	 */
+	@Bean
+	public JdbcRewardStatistics rewardStatistics(){
+		JdbcRewardStatistics statistics = new JdbcRewardStatistics();
+		statistics.setDataSource(dataSource);
+		statistics.setTransactionOperations(new TransactionTemplate(transactionManager));
+		return statistics;
+	}
 	
 }
@@ -0,0 +1,23 @@
+package rewards;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Rewards a member account for dining at a restaurant, without making the caller wait for the reward.
+ *
+ * The asynchronous counterpart of {@link RewardNetwork}: a caller such as a card network gateway hands over the
+ * dining and gets its thread back right away, while the account is rewarded in the background.
+ */
+public interface AsyncRewardNetwork {
+
+	/**
+	 * Reward an account for dining, in the background.
+	 *
+	 * The dining must be eligible for reward the same way as for {@link RewardNetwork#rewardAccountFor(Dining)}.
+	 *
+	 * @param dining a charge made to a credit card for dining at a restaurant
+	 * @return a future completed with the confirmation of the reward, or completed exceptionally with the reason the
+	 * dining could not be rewarded
+	 */
+	public CompletableFuture<RewardConfirmation> rewardAccountFor(Dining dining);
+}
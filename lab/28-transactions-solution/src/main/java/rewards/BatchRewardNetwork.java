@@ -0,0 +1,35 @@
+package rewards;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Rewards member accounts for many dinings at once, for example when settling a nightly file of dining transactions.
+ *
+ * Dinings are processed in chunks. The accounts and restaurants a chunk refers to are loaded in bulk, and the
+ * resulting beneficiary savings and reward records are written in batches, so the cost of a reward is no longer a
+ * handful of database round-trips per dining. Each chunk runs in its own transaction.
+ *
+ * A dining that cannot be rewarded (an unknown credit card or merchant, an invalid account) is reported as a failed
+ * {@link RewardResult} and does not affect the other dinings of its chunk. When a chunk cannot be written, all its
+ * dinings are reported as failed and the chunk is rolled back.
+ */
+public interface BatchRewardNetwork extends RewardNetwork {
+
+	/**
+	 * Reward accounts for a list of dinings.
+	 * @param dinings the dinings to reward
+	 * @return the result of each dining, in the order the dinings were given
+	 */
+	public List<RewardResult> rewardAccountsFor(List<Dining> dinings);
+
+	/**
+	 * Reward accounts for a stream of dinings. Only one chunk of dinings is held in memory at a time, so the stream
+	 * may be arbitrarily large.
+	 * @param dinings the dinings to reward
+	 * @param results called with the result of each dining, in the order the dinings were streamed, as soon as the
+	 * chunk of the dining has been processed
+	 */
+	public void rewardAccountsFor(Stream<Dining> dinings, Consumer<RewardResult> results);
+}
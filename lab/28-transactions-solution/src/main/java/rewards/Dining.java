@@ -1,5 +1,7 @@
 package rewards;
 
+import java.util.Objects;
+
 import common.datetime.SimpleDate;
 import common.money.MonetaryAmount;
 
@@ -13,6 +15,11 @@ import common.money.MonetaryAmount;
  */
 public class Dining {
 
+	/**
+	 * The longest key a dining may have, the width of the column it is stored in.
+	 */
+	public static final int MAX_KEY_LENGTH = 64;
+
 	private MonetaryAmount amount;
 
 	private String creditCardNumber;
@@ -21,6 +28,8 @@ public class Dining {
 
 	private SimpleDate date;
 
+	private String key;
+
 	/**
 	 * Creates a new dining, reflecting an amount that was charged to a card by a merchant on the date specified.
 	 * @param amount the total amount of the dining bill
@@ -29,10 +38,28 @@ public class Dining {
 	 * @param date the date of the dining event
 	 */
 	public Dining(MonetaryAmount amount, String creditCardNumber, String merchantNumber, SimpleDate date) {
+		this(amount, creditCardNumber, merchantNumber, date, null);
+	}
+
+	/**
+	 * Creates a new dining with a key that identifies it, such as the transaction id the card network assigned to the
+	 * charge. A dining with a key is rewarded at most once, however often it is submitted.
+	 * @param amount the total amount of the dining bill
+	 * @param creditCardNumber the number of the credit card used to pay for the dining bill
+	 * @param merchantNumber the merchant number of the restaurant where the dining occurred
+	 * @param date the date of the dining event
+	 * @param key the key of the dining, at most {@value #MAX_KEY_LENGTH} characters, or null if it has none
+	 */
+	public Dining(MonetaryAmount amount, String creditCardNumber, String merchantNumber, SimpleDate date, String key) {
+		if (key != null && key.length() > MAX_KEY_LENGTH) {
+			throw new IllegalArgumentException("The key of a dining must be at most " + MAX_KEY_LENGTH
+					+ " characters; your key was " + key.length() + " characters long");
+		}
 		this.amount = amount;
 		this.creditCardNumber = creditCardNumber;
 		this.merchantNumber = merchantNumber;
 		this.date = date;
+		this.key = key;
 	}
 
 	/**
@@ -94,6 +121,22 @@ public class Dining {
 		return date;
 	}
 
+	/**
+	 * Returns the key that identifies this dining, or null if it has none.
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Returns a copy of this dining with the given key.
+	 * @param key the key of the dining
+	 * @return the dining with the key
+	 */
+	public Dining withKey(String key) {
+		return new Dining(amount, creditCardNumber, merchantNumber, date, key);
+	}
+
 	public boolean equals(Object o) {
 		if (!(o instanceof Dining)) {
 			return false;
@@ -101,11 +144,12 @@ public class Dining {
 		Dining other = (Dining) o;
 		// value objects are equal if their attributes are equal
 		return amount.equals(other.amount) && creditCardNumber.equals(other.creditCardNumber)
-				&& merchantNumber.equals(other.merchantNumber) && date.equals(other.date);
+				&& merchantNumber.equals(other.merchantNumber) && date.equals(other.date) && Objects.equals(key, other.key);
 	}
 
 	public int hashCode() {
-		return amount.hashCode() + creditCardNumber.hashCode() + merchantNumber.hashCode() + date.hashCode();
+		return amount.hashCode() + creditCardNumber.hashCode() + merchantNumber.hashCode() + date.hashCode()
+				+ Objects.hashCode(key);
 	}
 
 	public String toString() {
@@ -0,0 +1,75 @@
+package rewards;
+
+/**
+ * The outcome of rewarding a single dining as part of a batch. Either carries the confirmation of the reward, or the
+ * exception that prevented the dining from being rewarded.
+ *
+ * A value object. Immutable.
+ */
+public class RewardResult {
+
+	private Dining dining;
+
+	private RewardConfirmation confirmation;
+
+	private RuntimeException failure;
+
+	private RewardResult(Dining dining, RewardConfirmation confirmation, RuntimeException failure) {
+		this.dining = dining;
+		this.confirmation = confirmation;
+		this.failure = failure;
+	}
+
+	/**
+	 * Creates the result of a dining that was rewarded successfully.
+	 * @param dining the dining that was rewarded
+	 * @param confirmation the confirmation of the reward
+	 * @return the successful result
+	 */
+	public static RewardResult success(Dining dining, RewardConfirmation confirmation) {
+		return new RewardResult(dining, confirmation, null);
+	}
+
+	/**
+	 * Creates the result of a dining that could not be rewarded.
+	 * @param dining the dining that was not rewarded
+	 * @param failure the reason the dining was not rewarded
+	 * @return the failed result
+	 */
+	public static RewardResult failure(Dining dining, RuntimeException failure) {
+		return new RewardResult(dining, null, failure);
+	}
+
+	/**
+	 * Returns the dining this is the result for.
+	 */
+	public Dining getDining() {
+		return dining;
+	}
+
+	/**
+	 * Returns true if the dining was rewarded, false if it failed.
+	 */
+	public boolean isSuccess() {
+		return failure == null;
+	}
+
+	/**
+	 * Returns the confirmation of the reward, or null if the dining was not rewarded.
+	 */
+	public RewardConfirmation getConfirmation() {
+		return confirmation;
+	}
+
+	/**
+	 * Returns the reason the dining was not rewarded, or null if it was rewarded.
+	 */
+	public RuntimeException getFailure() {
+		return failure;
+	}
+
+	public String toString() {
+		return isSuccess() ? "Rewarded " + dining + " (" + confirmation + ")" : "Failed to reward " + dining + ": "
+				+ failure;
+	}
+}
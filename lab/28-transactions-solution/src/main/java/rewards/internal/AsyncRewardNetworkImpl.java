@@ -0,0 +1,322 @@
+package rewards.internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import rewards.AsyncRewardNetwork;
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+
+/**
+ * Rewards dinings in the background by handing them to a (synchronous) reward network on other threads.
+ *
+ * At most max concurrency dinings are rewarded at the same time, and at most queue capacity more wait for their turn.
+ * When both are taken, the overflow policy decides what happens to another dining: it is rejected, rewarded on the
+ * caller's thread, or the caller waits for room. The last two slow down callers to the pace the database keeps up
+ * with. Dinings are rewarded by a pool of max concurrency threads, or, on Java 21 or later, by a virtual thread each.
+ *
+ * Each reward runs in the transaction the decorated reward network starts on the thread rewarding it, typically a
+ * {@link RewardNetworkImpl} with transactional methods. It cannot join a transaction of the caller, which is bound to
+ * the caller's thread. A dining handed over within a transaction is therefore only rewarded once that transaction
+ * commits, and never if it rolls back. Do not wait for its future within that transaction. The dining is queued when
+ * the transaction completes, while the caller's transactional resources are still bound to its thread, so it is
+ * neither waited for nor rewarded on the caller's thread then: unless the overflow policy rejects it, a dining that
+ * finds the queue full is queued beyond its capacity.
+ *
+ * Dinings of the same account may be rewarded at the same time, so the decorated reward network should not lose
+ * concurrent savings updates, as a {@link StripedLockRewardNetwork} does not.
+ */
+public class AsyncRewardNetworkImpl implements AsyncRewardNetwork {
+
+	/**
+	 * What happens to a dining handed over while the maximum number of dinings are being rewarded and the queue is
+	 * full.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * The dining's future completes exceptionally with a RejectedExecutionException.
+		 */
+		REJECT,
+
+		/**
+		 * The dining is rewarded on the caller's thread. A dining handed over within a transaction is queued beyond
+		 * the capacity instead.
+		 */
+		CALLER_RUNS,
+
+		/**
+		 * The caller waits until there is room in the queue. A dining handed over within a transaction is queued
+		 * beyond the capacity instead.
+		 */
+		BLOCK
+	}
+
+	private static final Logger logger = LoggerFactory.getLogger(AsyncRewardNetworkImpl.class);
+
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+	private RewardNetwork rewardNetwork;
+
+	private int maxConcurrency;
+
+	private int queueCapacity;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	private boolean virtualThreads;
+
+	private ExecutorService executor;
+
+	/**
+	 * Permits for the dinings being rewarded or waiting in the queue.
+	 */
+	private Semaphore admissions;
+
+	/**
+	 * Permits for the dinings being rewarded, limiting virtual threads; a thread pool limits itself.
+	 */
+	private Semaphore running;
+
+	private final LongAdder rejected = new LongAdder();
+
+	private final LongAdder callerRuns = new LongAdder();
+
+	/**
+	 * The dinings queued beyond the capacity and not rewarded yet.
+	 */
+	private final AtomicInteger overCapacity = new AtomicInteger();
+
+	/**
+	 * Creates a new asynchronous reward network.
+	 * @param rewardNetwork the reward network that rewards the dinings, starting its own transactions
+	 * @param maxConcurrency the maximum number of dinings rewarded at the same time, typically no more than the
+	 * database connections available
+	 * @param queueCapacity the maximum number of dinings waiting to be rewarded
+	 */
+	public AsyncRewardNetworkImpl(RewardNetwork rewardNetwork, int maxConcurrency, int queueCapacity) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("The maximum concurrency must be positive; your value was "
+					+ maxConcurrency);
+		}
+		if (queueCapacity < 0) {
+			throw new IllegalArgumentException("The queue capacity cannot be negative; your value was "
+					+ queueCapacity);
+		}
+		this.rewardNetwork = rewardNetwork;
+		this.maxConcurrency = maxConcurrency;
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Sets what happens to a dining handed over when the queue is full. Defaults to {@link OverflowPolicy#BLOCK}.
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Sets whether every dining is rewarded on a virtual thread of its own rather than by a thread pool. Requires
+	 * Java 21 or later. Defaults to false.
+	 */
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	/**
+	 * Starts the threads rewarding the dinings.
+	 */
+	@PostConstruct
+	public void start() {
+		admissions = new Semaphore(maxConcurrency + queueCapacity);
+		if (virtualThreads) {
+			executor = newVirtualThreadPerTaskExecutor();
+			running = new Semaphore(maxConcurrency);
+		} else {
+			AtomicInteger threadNumber = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+				Thread thread = new Thread(runnable, "reward-network-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Stops accepting dinings, and waits for the dinings handed over before to be rewarded.
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		if (executor != null) {
+			executor.shutdown();
+			if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				logger.warn("Dinings were still being rewarded after {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+			}
+		}
+	}
+
+	public CompletableFuture<RewardConfirmation> rewardAccountFor(Dining dining) {
+		if (executor == null) {
+			throw new IllegalStateException("The reward network has not been started");
+		}
+		CompletableFuture<RewardConfirmation> future = new CompletableFuture<RewardConfirmation>();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					if (status == STATUS_COMMITTED) {
+						submit(dining, future, true);
+					} else {
+						future.cancel(false);
+					}
+				}
+			});
+		} else {
+			submit(dining, future, false);
+		}
+		return future;
+	}
+
+	/**
+	 * Queues a dining, applying the overflow policy when the queue is full.
+	 * @param afterCompletion whether the dining is queued as its transaction completes, when the caller must neither
+	 * wait nor run it
+	 */
+	private void submit(Dining dining, CompletableFuture<RewardConfirmation> future, boolean afterCompletion) {
+		boolean admitted = admissions.tryAcquire();
+		if (!admitted) {
+			if (overflowPolicy == OverflowPolicy.REJECT) {
+				rejected.increment();
+				future.completeExceptionally(new RejectedExecutionException("Unable to reward " + dining + ": "
+						+ maxConcurrency + " dinings are being rewarded and " + queueCapacity + " are waiting"));
+				return;
+			}
+			if (afterCompletion) {
+				overCapacity.incrementAndGet();
+			} else if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+				callerRuns.increment();
+				reward(dining, future);
+				return;
+			} else {
+				try {
+					admissions.acquire();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					future.completeExceptionally(e);
+					return;
+				}
+				admitted = true;
+			}
+		}
+		boolean release = admitted;
+		try {
+			executor.execute(() -> {
+				try {
+					rewardWithinLimit(dining, future);
+				} finally {
+					leave(release);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// stopped
+			leave(release);
+			future.completeExceptionally(e);
+		}
+	}
+
+	private void leave(boolean admitted) {
+		if (admitted) {
+			admissions.release();
+		} else {
+			overCapacity.decrementAndGet();
+		}
+	}
+
+	private void rewardWithinLimit(Dining dining, CompletableFuture<RewardConfirmation> future) {
+		if (running == null) {
+			reward(dining, future);
+			return;
+		}
+		try {
+			running.acquire();
+		} catch (InterruptedException e) {
+			future.completeExceptionally(e);
+			return;
+		}
+		try {
+			reward(dining, future);
+		} finally {
+			running.release();
+		}
+	}
+
+	private void reward(Dining dining, CompletableFuture<RewardConfirmation> future) {
+		if (future.isDone()) {
+			// cancelled while waiting
+			return;
+		}
+		try {
+			future.complete(rewardNetwork.rewardAccountFor(dining));
+		} catch (Throwable e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Returns the number of dinings being rewarded or waiting to be rewarded, including those queued beyond the
+	 * capacity.
+	 */
+	public int getPendingCount() {
+		return admissions == null ? 0
+				: maxConcurrency + queueCapacity - admissions.availablePermits() + overCapacity.get();
+	}
+
+	/**
+	 * Returns the number of dinings queued beyond the capacity, as the queue was full when their transaction
+	 * committed, and not rewarded yet.
+	 */
+	public int getOverCapacityCount() {
+		return overCapacity.get();
+	}
+
+	/**
+	 * Returns the number of dinings rejected because the queue was full.
+	 */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Returns the number of dinings rewarded on the caller's thread because the queue was full.
+	 */
+	public long getCallerRunsCount() {
+		return callerRuns.sum();
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			// looked up reflectively, so this class still runs on the Java versions before virtual threads
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Virtual threads require Java 21 or later; this is Java "
+					+ Runtime.version().feature());
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Unable to create a virtual thread executor", e);
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package rewards.internal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import rewards.AccountContribution;
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+
+import common.money.MonetaryAmount;
+
+/**
+ * A reward network that rewards a dining only once, however often it is submitted, as card networks retry a dining
+ * when they do not hear back in time. A replayed dining returns the confirmation of the reward made the first time.
+ *
+ * Dinings are identified by their key, or when they have none by their credit card number, merchant number, amount and
+ * date; the key is stored with the reward, in a column with a unique index. The confirmations of recently rewarded
+ * dinings are kept in memory, in a cache bounded by number of entries and time to live, so a replay within the window
+ * is answered without going to the database. The cache is split into stripes by key, each a least recently used map
+ * of its own share of the entries behind its own lock, so concurrent dinings rarely wait for each other. A new dining
+ * costs no lookup at all: it is rewarded right away, and only when the unique index rejects its reward is the original
+ * looked up. That confirmation carries the account number and amount of the original contribution, but not its
+ * distributions.
+ *
+ * The decorated reward network must start its own transaction and store the reward with its key, as the
+ * {@link rewards.internal.reward.JdbcRewardRepository} does. This network refuses to be called within a transaction:
+ * the decorated network would join it, and the rejected duplicate would mark the caller's transaction rollback-only. A
+ * confirmation is therefore only cached once the decorated network returned, after its transaction has committed, so
+ * a rolled back reward is never replayed.
+ */
+public class IdempotentRewardNetwork implements RewardNetwork {
+
+	private static final Logger logger = LoggerFactory.getLogger(IdempotentRewardNetwork.class);
+
+	private static final int STRIPES = 64;
+
+	private static final String SELECT_REWARD_SQL = "select CONFIRMATION_NUMBER, ACCOUNT_NUMBER, REWARD_AMOUNT from T_REWARD where DINING_KEY = ?";
+
+	private RewardNetwork rewardNetwork;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private volatile int maxEntriesPerStripe = stripeShareOf(10000);
+
+	private long timeToLiveMillis = TimeUnit.HOURS.toMillis(24);
+
+	private final Stripe[] stripes = new Stripe[STRIPES];
+
+	/**
+	 * Creates a new idempotent reward network.
+	 * @param rewardNetwork the transactional reward network that rewards the dinings
+	 * @param dataSource the data source holding T_REWARD, to look up replayed dinings in
+	 */
+	public IdempotentRewardNetwork(RewardNetwork rewardNetwork, DataSource dataSource) {
+		this.rewardNetwork = rewardNetwork;
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new Stripe();
+		}
+	}
+
+	/**
+	 * Sets the number of confirmations kept in memory, rounded up to a multiple of the number of stripes. Each stripe
+	 * holds an equal share, and evicts its least recently used confirmation first. Defaults to 10000.
+	 */
+	public void setMaxEntries(int maxEntries) {
+		if (maxEntries < 0) {
+			throw new IllegalArgumentException("The maximum number of entries must not be negative; your value was "
+					+ maxEntries);
+		}
+		this.maxEntriesPerStripe = stripeShareOf(maxEntries);
+	}
+
+	/**
+	 * Sets how long a confirmation is kept in memory. Defaults to 24 hours.
+	 */
+	public void setTimeToLiveMillis(long timeToLiveMillis) {
+		this.timeToLiveMillis = timeToLiveMillis;
+	}
+
+	public RewardConfirmation rewardAccountFor(Dining dining) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			throw new IllegalStateException("The idempotent reward network must not be called within a transaction, as "
+					+ "a replayed dining would roll it back; reward " + dining + " outside of it");
+		}
+		String key = keyOf(dining);
+		RewardConfirmation cached = getCached(key);
+		if (cached != null) {
+			logger.debug("Replaying the reward of {}", dining);
+			return cached;
+		}
+		RewardConfirmation confirmation;
+		try {
+			confirmation = rewardNetwork.rewardAccountFor(dining.getKey() == null ? dining.withKey(key) : dining);
+		} catch (DuplicateKeyException e) {
+			confirmation = findConfirmation(key);
+			if (confirmation == null) {
+				throw e;
+			}
+			logger.debug("Replaying the stored reward of {}", dining);
+		}
+		cache(key, confirmation);
+		return confirmation;
+	}
+
+	/**
+	 * Returns the key of a dining: its own, or one made of its credit card number, merchant number, amount and date.
+	 */
+	static String keyOf(Dining dining) {
+		if (dining.getKey() != null) {
+			return dining.getKey();
+		}
+		return dining.getCreditCardNumber() + ":" + dining.getMerchantNumber() + ":" + dining.getAmount().asCents()
+				+ ":" + dining.getDate().inMilliseconds();
+	}
+
+	private RewardConfirmation getCached(String key) {
+		Stripe stripe = stripeFor(key);
+		synchronized (stripe) {
+			CachedConfirmation cached = stripe.get(key);
+			if (cached == null) {
+				return null;
+			}
+			if (System.currentTimeMillis() - cached.cachedAt > timeToLiveMillis) {
+				stripe.remove(key);
+				return null;
+			}
+			return cached.confirmation;
+		}
+	}
+
+	private void cache(String key, RewardConfirmation confirmation) {
+		CachedConfirmation cached = new CachedConfirmation(confirmation, System.currentTimeMillis());
+		Stripe stripe = stripeFor(key);
+		synchronized (stripe) {
+			stripe.put(key, cached);
+		}
+	}
+
+	private Stripe stripeFor(String key) {
+		int hash = key.hashCode();
+		// spread the high bits, as only the low bits select the stripe
+		hash ^= hash >>> 16;
+		return stripes[hash & (STRIPES - 1)];
+	}
+
+	private static int stripeShareOf(int maxEntries) {
+		return (maxEntries + STRIPES - 1) / STRIPES;
+	}
+
+	private RewardConfirmation findConfirmation(String key) {
+		List<RewardConfirmation> found = jdbcTemplate.query(SELECT_REWARD_SQL, (rs, rowNum) -> new RewardConfirmation(
+				rs.getString("CONFIRMATION_NUMBER"), new AccountContribution(rs.getString("ACCOUNT_NUMBER"),
+						new MonetaryAmount(rs.getBigDecimal("REWARD_AMOUNT")),
+						Collections.<AccountContribution.Distribution> emptySet())), key);
+		return found.isEmpty() ? null : found.get(0);
+	}
+
+	/**
+	 * The confirmations of the keys of one stripe, least recently used first.
+	 */
+	private class Stripe extends LinkedHashMap<String, CachedConfirmation> {
+
+		Stripe() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedConfirmation> eldest) {
+			return size() > maxEntriesPerStripe;
+		}
+	}
+
+	private static class CachedConfirmation {
+
+		final RewardConfirmation confirmation;
+
+		final long cachedAt;
+
+		CachedConfirmation(RewardConfirmation confirmation, long cachedAt) {
+			this.confirmation = confirmation;
+			this.cachedAt = cachedAt;
+		}
+	}
+}
@@ -1,11 +1,26 @@
 package rewards.internal;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import rewards.AccountContribution;
+import rewards.BatchRewardNetwork;
 import rewards.Dining;
 import rewards.RewardConfirmation;
-import rewards.RewardNetwork;
+import rewards.RewardResult;
 import rewards.internal.account.Account;
 import rewards.internal.account.AccountRepository;
 import rewards.internal.restaurant.Restaurant;
@@ -16,13 +31,13 @@ import common.money.MonetaryAmount;
 
 /**
  * Rewards an Account for Dining at a Restaurant.
- * 
+ *
  * The sole Reward Network implementation. This object is an application-layer service responsible for coordinating with
  * the domain-layer to carry out the process of rewarding benefits to accounts for dining.
- * 
+ *
  * Said in other words, this class implements the "reward account for dining" use case.
  */
-public class RewardNetworkImpl implements RewardNetwork {
+public class RewardNetworkImpl implements BatchRewardNetwork {
 
 	private AccountRepository accountRepository;
 
@@ -30,6 +45,10 @@ public class RewardNetworkImpl implements RewardNetwork {
 
 	private RewardRepository rewardRepository;
 
+	private TransactionOperations transactionOperations;
+
+	private int chunkSize = 500;
+
 	/**
 	 * Creates a new reward network.
 	 * @param accountRepository the repository for loading accounts to reward
@@ -43,13 +62,125 @@ public class RewardNetworkImpl implements RewardNetwork {
 		this.rewardRepository = rewardRepository;
 	}
 
+	/**
+	 * Sets the transaction boundary each chunk of a batch is processed in. Required to reward a batch; a batch is
+	 * refused rather than rewarded without a transaction. Tests without a database may pass
+	 * {@link TransactionOperations#withoutTransaction()}.
+	 * @param transactionOperations typically a TransactionTemplate
+	 */
+	public void setTransactionOperations(TransactionOperations transactionOperations) {
+		this.transactionOperations = transactionOperations;
+	}
+
+	/**
+	 * Sets the number of dinings processed, and committed, together when rewarding a batch. Defaults to 500.
+	 * @param chunkSize the number of dinings per chunk
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be positive; your value was " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+	}
+
 	@Transactional
 	public RewardConfirmation rewardAccountFor(Dining dining) {
 		Account account = accountRepository.findByCreditCard(dining.getCreditCardNumber());
 		Restaurant restaurant = restaurantRepository.findByMerchantNumber(dining.getMerchantNumber());
 		MonetaryAmount amount = restaurant.calculateBenefitFor(account, dining);
 		AccountContribution contribution = account.makeContribution(amount);
-		accountRepository.updateBeneficiaries(account);
+		contribution = accountRepository.updateBeneficiaries(Collections.singletonList(account),
+				Collections.singletonList(contribution)).get(0);
 		return rewardRepository.confirmReward(contribution, dining);
 	}
-}
\ No newline at end of file
+
+	public List<RewardResult> rewardAccountsFor(List<Dining> dinings) {
+		List<RewardResult> results = new ArrayList<RewardResult>(dinings.size());
+		rewardAccountsFor(dinings.stream(), results::add);
+		return results;
+	}
+
+	public void rewardAccountsFor(Stream<Dining> dinings, Consumer<RewardResult> results) {
+		if (transactionOperations == null) {
+			throw new IllegalStateException("No transaction boundary to reward a batch in; set the transaction operations");
+		}
+		List<Dining> chunk = new ArrayList<Dining>(chunkSize);
+		Iterator<Dining> it = dinings.iterator();
+		while (it.hasNext()) {
+			chunk.add(it.next());
+			if (chunk.size() == chunkSize) {
+				rewardChunk(chunk).forEach(results);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			rewardChunk(chunk).forEach(results);
+		}
+	}
+
+	/**
+	 * Rewards a chunk of dinings in a single transaction. If the chunk cannot be written the transaction is rolled
+	 * back and every dining of the chunk is reported as failed.
+	 * @param chunk the dinings to reward
+	 * @return the result of each dining
+	 */
+	private List<RewardResult> rewardChunk(List<Dining> chunk) {
+		try {
+			return transactionOperations.execute(status -> rewardAccountsInChunk(chunk));
+		} catch (RuntimeException e) {
+			List<RewardResult> results = new ArrayList<RewardResult>(chunk.size());
+			for (Dining dining : chunk) {
+				results.add(RewardResult.failure(dining, e));
+			}
+			return results;
+		}
+	}
+
+	private List<RewardResult> rewardAccountsInChunk(List<Dining> chunk) {
+		Set<String> creditCardNumbers = new HashSet<String>();
+		Set<String> merchantNumbers = new HashSet<String>();
+		for (Dining dining : chunk) {
+			creditCardNumbers.add(dining.getCreditCardNumber());
+			merchantNumbers.add(dining.getMerchantNumber());
+		}
+		Map<String, Account> accounts = accountRepository.findByCreditCards(creditCardNumbers);
+		Map<String, Restaurant> restaurants = restaurantRepository.findByMerchantNumbers(merchantNumbers);
+
+		RewardResult[] results = new RewardResult[chunk.size()];
+		Set<Account> rewardedAccounts = new LinkedHashSet<Account>();
+		List<Integer> rewarded = new ArrayList<Integer>(chunk.size());
+		List<AccountContribution> contributions = new ArrayList<AccountContribution>(chunk.size());
+		List<Dining> rewardedDinings = new ArrayList<Dining>(chunk.size());
+		for (int i = 0; i < results.length; i++) {
+			Dining dining = chunk.get(i);
+			try {
+				// dinings of the same account share the account object, so their contributions accumulate
+				Account account = accounts.get(dining.getCreditCardNumber());
+				if (account == null) {
+					throw new EmptyResultDataAccessException("No account for credit card '"
+							+ dining.getCreditCardNumber() + "'", 1);
+				}
+				Restaurant restaurant = restaurants.get(dining.getMerchantNumber());
+				if (restaurant == null) {
+					throw new EmptyResultDataAccessException("No restaurant for merchant '"
+							+ dining.getMerchantNumber() + "'", 1);
+				}
+				MonetaryAmount amount = restaurant.calculateBenefitFor(account, dining);
+				contributions.add(account.makeContribution(amount));
+				rewardedDinings.add(dining);
+				rewardedAccounts.add(account);
+				rewarded.add(i);
+			} catch (RuntimeException e) {
+				results[i] = RewardResult.failure(dining, e);
+			}
+		}
+
+		contributions = accountRepository.updateBeneficiaries(rewardedAccounts, contributions);
+		List<RewardConfirmation> confirmations = rewardRepository.confirmRewards(contributions, rewardedDinings);
+		for (int i = 0; i < rewarded.size(); i++) {
+			int index = rewarded.get(i);
+			results[index] = RewardResult.success(chunk.get(index), confirmations.get(i));
+		}
+		return Arrays.asList(results);
+	}
+}
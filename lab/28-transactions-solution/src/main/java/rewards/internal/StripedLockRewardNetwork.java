@@ -0,0 +1,144 @@
+package rewards.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+import rewards.internal.account.AccountRepository;
+
+/**
+ * A reward network that rewards dinings of the same account one at a time, while dinings of different accounts are
+ * rewarded in parallel.
+ *
+ * Rewarding reads the savings of the account's beneficiaries and writes back the new totals, so two dinings of the
+ * same account rewarded at the same time could each overwrite the savings the other added. This network holds a lock
+ * for the dining's account around the whole transaction of the reward network it decorates. Accounts are mapped onto
+ * a fixed set of locks by account number, so two accounts occasionally share a lock, but the number of locks does not
+ * grow with the number of accounts. Locking by account number rather than credit card also serializes dinings made
+ * with different credit cards of the same account.
+ *
+ * The account number of a credit card is looked up before the lock is taken, and remembered for the next dining made
+ * with the card. The remembered numbers are split into stripes by credit card number, each a least recently used map
+ * of its own share of the entries behind its own lock, so they are bounded however many credit cards dine.
+ *
+ * The decorated reward network must start its own transaction, and this network must not be called within a
+ * transaction: the lock is released when the decorated network returns, which must be after the commit.
+ */
+public class StripedLockRewardNetwork implements RewardNetwork {
+
+	private RewardNetwork rewardNetwork;
+
+	private AccountRepository accountRepository;
+
+	private Lock[] locks;
+
+	private static final int CREDIT_CARD_STRIPES = 64;
+
+	private volatile int maxCreditCardsPerStripe = stripeShareOf(10000);
+
+	private final CreditCardStripe[] creditCardStripes = new CreditCardStripe[CREDIT_CARD_STRIPES];
+
+	/**
+	 * Creates a new striped lock reward network.
+	 * @param rewardNetwork the transactional reward network that rewards the dinings
+	 * @param accountRepository the repository used to find the account of a credit card
+	 * @param stripes the number of locks, rounded up to a power of two; more locks mean fewer accounts sharing one
+	 */
+	public StripedLockRewardNetwork(RewardNetwork rewardNetwork, AccountRepository accountRepository, int stripes) {
+		if (stripes < 1) {
+			throw new IllegalArgumentException("The number of stripes must be positive; your value was " + stripes);
+		}
+		this.rewardNetwork = rewardNetwork;
+		this.accountRepository = accountRepository;
+		int powerOfTwo = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+		this.locks = new Lock[powerOfTwo];
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new ReentrantLock();
+		}
+		for (int i = 0; i < creditCardStripes.length; i++) {
+			creditCardStripes[i] = new CreditCardStripe();
+		}
+	}
+
+	/**
+	 * Sets the number of credit cards whose account number is remembered, rounded up to a multiple of the number of
+	 * stripes. Each stripe holds an equal share, and forgets its least recently used credit card first. Defaults to
+	 * 10000.
+	 */
+	public void setMaxCreditCards(int maxCreditCards) {
+		if (maxCreditCards < 0) {
+			throw new IllegalArgumentException("The maximum number of credit cards must not be negative; your value was "
+					+ maxCreditCards);
+		}
+		this.maxCreditCardsPerStripe = stripeShareOf(maxCreditCards);
+	}
+
+	public RewardConfirmation rewardAccountFor(Dining dining) {
+		Lock lock = lockFor(accountNumberOf(dining.getCreditCardNumber()));
+		lock.lock();
+		try {
+			return rewardNetwork.rewardAccountFor(dining);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of locks accounts are mapped onto.
+	 */
+	public int getStripes() {
+		return locks.length;
+	}
+
+	/**
+	 * Returns the number of the account a credit card belongs to. Looked up only when the credit card is not
+	 * remembered, as credit cards do not move between accounts.
+	 */
+	private String accountNumberOf(String creditCardNumber) {
+		CreditCardStripe stripe = creditCardStripes[spread(creditCardNumber) & (CREDIT_CARD_STRIPES - 1)];
+		String accountNumber;
+		synchronized (stripe) {
+			accountNumber = stripe.get(creditCardNumber);
+		}
+		if (accountNumber == null) {
+			accountNumber = accountRepository.findByCreditCard(creditCardNumber).getNumber();
+			synchronized (stripe) {
+				stripe.put(creditCardNumber, accountNumber);
+			}
+		}
+		return accountNumber;
+	}
+
+	private Lock lockFor(String accountNumber) {
+		return locks[spread(accountNumber) & (locks.length - 1)];
+	}
+
+	private static int spread(String number) {
+		int hash = number.hashCode();
+		// spread the high bits, as only the low bits select the stripe
+		return hash ^ (hash >>> 16);
+	}
+
+	private static int stripeShareOf(int maxCreditCards) {
+		return (maxCreditCards + CREDIT_CARD_STRIPES - 1) / CREDIT_CARD_STRIPES;
+	}
+
+	/**
+	 * The account numbers of the credit cards of one stripe, least recently used first.
+	 */
+	private class CreditCardStripe extends LinkedHashMap<String, String> {
+
+		CreditCardStripe() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > maxCreditCardsPerStripe;
+		}
+	}
+}
@@ -1,5 +1,11 @@
 package rewards.internal.account;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import rewards.AccountContribution;
+
 /**
  * Loads account aggregates. Called by the reward network to find and reconstitute Account entities from an external
  * form such as a set of RDMS rows.
@@ -15,6 +21,14 @@ public interface AccountRepository {
 	 */
 	public Account findByCreditCard(String creditCardNumber);
 
+	/**
+	 * Load the accounts of several credit cards at once. Credit cards of the same account map to the same account
+	 * object.
+	 * @param creditCardNumbers the credit card numbers
+	 * @return the accounts keyed by credit card number; credit cards without an account are not contained
+	 */
+	public Map<String, Account> findByCreditCards(Collection<String> creditCardNumbers);
+
 	/**
 	 * Updates the 'savings' of each account beneficiary. The new savings balance contains the amount distributed for a
 	 * contribution made during a reward transaction.
@@ -26,4 +40,23 @@ public interface AccountRepository {
 	 */
 	public void updateBeneficiaries(Account account);
 
+	/**
+	 * Updates the 'savings' of each beneficiary of several accounts at once.
+	 * @param accounts the accounts whose beneficiary savings have changed
+	 * @see #updateBeneficiaries(Account)
+	 */
+	public void updateBeneficiaries(Collection<Account> accounts);
+
+	/**
+	 * Updates the 'savings' of each beneficiary of the accounts that received contributions, and returns the
+	 * contributions with the total savings of each distribution as stored. These can differ from the totals computed
+	 * in memory when the repository adds the distributed amounts to the stored savings rather than overwriting them.
+	 * @param accounts the accounts whose beneficiary savings have changed
+	 * @param contributions the contributions made to the accounts
+	 * @return the contributions, in the same order, with the stored total savings
+	 * @see #updateBeneficiaries(Account)
+	 */
+	public List<AccountContribution> updateBeneficiaries(Collection<Account> accounts,
+			List<AccountContribution> contributions);
+
 }
\ No newline at end of file
@@ -16,6 +16,8 @@ public class Beneficiary extends Entity {
 
 	private MonetaryAmount savings = MonetaryAmount.valueOf("0.00");
 
+	private MonetaryAmount unsavedCredit = MonetaryAmount.zero();
+
 	@SuppressWarnings("unused")
 	private Beneficiary() {
 	}
@@ -70,7 +72,46 @@ public class Beneficiary extends Entity {
 	 * @param amount the amount to credit
 	 */
 	public void credit(MonetaryAmount amount) {
-		savings = savings.add(amount);
+		MonetaryAmount newSavings = savings.add(amount);
+		if (!newSavings.equals(savings)) {
+			savings = newSavings;
+			unsavedCredit = unsavedCredit.add(amount);
+		}
+	}
+
+	/**
+	 * Returns true if this beneficiary's savings have been credited since they were last saved. Should only be called
+	 * by the repository responsible for storing this beneficiary.
+	 */
+	boolean isSavingsChanged() {
+		return !unsavedCredit.equals(MonetaryAmount.zero());
+	}
+
+	/**
+	 * Returns the total amount credited to this beneficiary since its savings were last saved. Should only be called by
+	 * the repository responsible for storing this beneficiary.
+	 */
+	MonetaryAmount getUnsavedCredit() {
+		return unsavedCredit;
+	}
+
+	/**
+	 * Marks the current savings as saved. Should only be called by the repository responsible for storing this
+	 * beneficiary.
+	 */
+	void savingsSaved() {
+		unsavedCredit = MonetaryAmount.zero();
+	}
+
+	/**
+	 * Marks the savings as saved, replacing them with the savings as stored. These differ from the savings in memory
+	 * when the repository added the credited amount to the stored savings, and another transaction credited this
+	 * beneficiary in the meantime. Should only be called by the repository responsible for storing this beneficiary.
+	 * @param storedSavings the savings as stored
+	 */
+	void savingsSaved(MonetaryAmount storedSavings) {
+		savings = storedSavings;
+		unsavedCredit = MonetaryAmount.zero();
 	}
 
 	public String toString() {
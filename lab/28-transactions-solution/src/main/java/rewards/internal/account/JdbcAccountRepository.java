@@ -2,6 +2,14 @@ package rewards.internal.account;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
@@ -9,6 +17,10 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import rewards.AccountContribution;
+import rewards.AccountContribution.Distribution;
 
 import common.money.MonetaryAmount;
 import common.money.Percentage;
@@ -17,9 +29,34 @@ import common.money.Percentage;
  * Loads accounts from a data source using the JDBC API.
  */
 public class JdbcAccountRepository implements AccountRepository {
+
+	/**
+	 * Selects the account columns, then the beneficiary columns, of the accounts of the given credit cards. Reads
+	 * T_ACCOUNT_CREDIT_CARD through its index on NUMBER, which also holds ACCOUNT_ID, then joins the account and its
+	 * beneficiaries by primary and foreign key. The extractors read the columns by the indexes below.
+	 */
+	private static final String SELECT_BY_CREDIT_CARD = "select a.ID, a.NUMBER, a.NAME, c.NUMBER, b.NAME, b.ALLOCATION_PERCENTAGE, b.SAVINGS from T_ACCOUNT_CREDIT_CARD c join T_ACCOUNT a on a.ID = c.ACCOUNT_ID join T_ACCOUNT_BENEFICIARY b on b.ACCOUNT_ID = a.ID";
+
+	private static final int ACCOUNT_ID = 1;
+
+	private static final int ACCOUNT_NUMBER = 2;
+
+	private static final int ACCOUNT_NAME = 3;
+
+	private static final int CREDIT_CARD_NUMBER = 4;
+
+	private static final int BENEFICIARY_NAME = 5;
+
+	private static final int BENEFICIARY_ALLOCATION_PERCENTAGE = 6;
+
+	private static final int BENEFICIARY_SAVINGS = 7;
 	
 	private JdbcTemplate jdbcTemplate;
 
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	private boolean incrementalSavings;
+
 	/**
 	 * Extracts an Account object from rows returned from a join of T_ACCOUNT and T_ACCOUNT_BENEFICIARY.
 	 */
@@ -27,18 +64,133 @@ public class JdbcAccountRepository implements AccountRepository {
 
 	public void setDataSource(DataSource dataSource) {
 		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+	}
+
+	/**
+	 * Sets whether beneficiary savings are updated by adding the credited amounts to the stored savings
+	 * (<code>SAVINGS = SAVINGS + ?</code>) instead of overwriting them with the savings computed in memory. Defaults
+	 * to false.
+	 * <p>
+	 * Adding cannot lose another transaction's update of the same beneficiary, so accounts no longer need to be locked
+	 * from the moment they are read until the commit: concurrent rewards of the same account only wait for each other's
+	 * row locks. The total savings of the returned contributions are then corrected with a read of the stored savings.
+	 * @param incrementalSavings true to add to the stored savings
+	 */
+	public void setIncrementalSavings(boolean incrementalSavings) {
+		this.incrementalSavings = incrementalSavings;
 	}
 	
 	public Account findByCreditCard(String creditCardNumber) {
-		String sql = "select a.ID as ID, a.NUMBER as ACCOUNT_NUMBER, a.NAME as ACCOUNT_NAME, c.NUMBER as CREDIT_CARD_NUMBER, b.NAME as BENEFICIARY_NAME, b.ALLOCATION_PERCENTAGE as BENEFICIARY_ALLOCATION_PERCENTAGE, b.SAVINGS as BENEFICIARY_SAVINGS from T_ACCOUNT a, T_ACCOUNT_BENEFICIARY b, T_ACCOUNT_CREDIT_CARD c where ID = b.ACCOUNT_ID and ID = c.ACCOUNT_ID and c.NUMBER = ?";
+		String sql = SELECT_BY_CREDIT_CARD + " where c.NUMBER = ?";
 		return jdbcTemplate.query(sql, accountExtractor, creditCardNumber);
 	}
 
+	public Map<String, Account> findByCreditCards(Collection<String> creditCardNumbers) {
+		if (creditCardNumbers.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		String sql = SELECT_BY_CREDIT_CARD + " where c.NUMBER in (:creditCardNumbers)";
+		return namedParameterJdbcTemplate.query(sql, Collections.singletonMap("creditCardNumbers", creditCardNumbers),
+				this::mapAccountsByCreditCard);
+	}
+
 	public void updateBeneficiaries(Account account) {
-		String sql = "update T_ACCOUNT_BENEFICIARY SET SAVINGS = ? where ACCOUNT_ID = ? and NAME = ?";
-		for (Beneficiary b : account.getBeneficiaries()) {
-			jdbcTemplate.update(sql, b.getSavings().asBigDecimal(), account.getEntityId(), b.getName());
+		updateBeneficiaries(Collections.singletonList(account));
+	}
+
+	/**
+	 * Updates the savings of the beneficiaries of all accounts with a single JDBC batch. Beneficiaries whose savings
+	 * did not change, for example because the reward had no benefit, are not written at all.
+	 */
+	public void updateBeneficiaries(Collection<Account> accounts) {
+		String sql = incrementalSavings
+				? "update T_ACCOUNT_BENEFICIARY SET SAVINGS = SAVINGS + ? where ACCOUNT_ID = ? and NAME = ?"
+				: "update T_ACCOUNT_BENEFICIARY SET SAVINGS = ? where ACCOUNT_ID = ? and NAME = ?";
+		List<Beneficiary> changed = new ArrayList<Beneficiary>();
+		List<Object[]> batchArgs = new ArrayList<Object[]>();
+		for (Account account : accounts) {
+			for (Beneficiary b : account.getBeneficiaries()) {
+				if (b.isSavingsChanged()) {
+					MonetaryAmount savings = incrementalSavings ? b.getUnsavedCredit() : b.getSavings();
+					changed.add(b);
+					batchArgs.add(new Object[] { savings.asBigDecimal(), account.getEntityId(), b.getName() });
+				}
+			}
+		}
+		if (batchArgs.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(sql, batchArgs);
+		for (Beneficiary b : changed) {
+			b.savingsSaved();
+		}
+	}
+
+	public List<AccountContribution> updateBeneficiaries(Collection<Account> accounts,
+			List<AccountContribution> contributions) {
+		if (!incrementalSavings) {
+			updateBeneficiaries(accounts);
+			return contributions;
+		}
+		Map<Long, Account> changedAccounts = new HashMap<Long, Account>();
+		for (Account account : accounts) {
+			for (Beneficiary b : account.getBeneficiaries()) {
+				if (b.isSavingsChanged()) {
+					changedAccounts.put(account.getEntityId(), account);
+				}
+			}
+		}
+		updateBeneficiaries(accounts);
+		if (changedAccounts.isEmpty()) {
+			return contributions;
+		}
+		// this transaction holds the row locks of the updated beneficiaries, so the read sees its own increments on top
+		// of those committed before them by other transactions
+		Map<String, Map<String, MonetaryAmount>> offsets = restoreStoredSavings(changedAccounts);
+		if (offsets.isEmpty()) {
+			return contributions;
+		}
+		List<AccountContribution> stored = new ArrayList<AccountContribution>(contributions.size());
+		for (AccountContribution contribution : contributions) {
+			stored.add(addToTotalSavings(contribution, offsets.get(contribution.getAccountNumber())));
+		}
+		return stored;
+	}
+
+	/**
+	 * Reads the stored savings of the beneficiaries of the accounts and replaces the savings in memory with them.
+	 * @param accountsById the accounts to read the savings of
+	 * @return per account number and beneficiary name, the difference between the stored savings and those that were
+	 * in memory; only beneficiaries that differ are contained
+	 */
+	private Map<String, Map<String, MonetaryAmount>> restoreStoredSavings(Map<Long, Account> accountsById) {
+		String sql = "select ACCOUNT_ID, NAME, SAVINGS from T_ACCOUNT_BENEFICIARY where ACCOUNT_ID in (:accountIds)";
+		Map<String, Map<String, MonetaryAmount>> offsets = new HashMap<String, Map<String, MonetaryAmount>>();
+		namedParameterJdbcTemplate.query(sql, Collections.singletonMap("accountIds", accountsById.keySet()), rs -> {
+			Account account = accountsById.get(rs.getLong(1));
+			Beneficiary b = account.getBeneficiary(rs.getString(2));
+			MonetaryAmount storedSavings = new MonetaryAmount(rs.getBigDecimal(3));
+			if (!storedSavings.equals(b.getSavings())) {
+				offsets.computeIfAbsent(account.getNumber(), number -> new HashMap<String, MonetaryAmount>())
+						.put(b.getName(), storedSavings.subtract(b.getSavings()));
+			}
+			b.savingsSaved(storedSavings);
+		});
+		return offsets;
+	}
+
+	private AccountContribution addToTotalSavings(AccountContribution contribution, Map<String, MonetaryAmount> offsets) {
+		if (offsets == null) {
+			return contribution;
+		}
+		Set<Distribution> distributions = new HashSet<Distribution>(contribution.getDistributions().size());
+		for (Distribution d : contribution.getDistributions()) {
+			MonetaryAmount offset = offsets.get(d.getBeneficiary());
+			MonetaryAmount totalSavings = offset != null ? d.getTotalSavings().add(offset) : d.getTotalSavings();
+			distributions.add(new Distribution(d.getBeneficiary(), d.getAmount(), d.getPercentage(), totalSavings));
 		}
+		return new AccountContribution(contribution.getAccountNumber(), contribution.getAmount(), distributions);
 	}
 
 	/**
@@ -53,11 +205,11 @@ public class JdbcAccountRepository implements AccountRepository {
 		Account account = null;
 		while (rs.next()) {
 			if (account == null) {
-				String number = rs.getString("ACCOUNT_NUMBER");
-				String name = rs.getString("ACCOUNT_NAME");
+				String number = rs.getString(ACCOUNT_NUMBER);
+				String name = rs.getString(ACCOUNT_NAME);
 				account = new Account(number, name);
 				// set internal entity identifier (primary key)
-				account.setEntityId(rs.getLong("ID"));
+				account.setEntityId(rs.getLong(ACCOUNT_ID));
 			}
 			account.restoreBeneficiary(mapBeneficiary(rs));
 		}
@@ -69,16 +221,49 @@ public class JdbcAccountRepository implements AccountRepository {
 	}
 
 	/**
-	 * Maps the beneficiary columns in a single row to an AllocatedBeneficiary object.
+	 * Map the rows returned from the join of T_ACCOUNT, T_ACCOUNT_BENEFICIARY and T_ACCOUNT_CREDIT_CARD for several
+	 * credit cards to fully-reconstituted Account aggregates. Each account is created once, even when several of its
+	 * credit cards were requested, in which case its beneficiary rows are repeated for every credit card.
+	 * 
+	 * @param rs the set of rows returned from the query
+	 * @return the mapped Account aggregates keyed by credit card number
+	 * @throws SQLException an exception occurred extracting data from the result set
+	 */
+	private Map<String, Account> mapAccountsByCreditCard(ResultSet rs) throws SQLException {
+		Map<Long, Account> accountsById = new HashMap<Long, Account>();
+		// the credit card whose rows are used to restore the beneficiaries of each account
+		Map<Long, String> beneficiaryCreditCards = new HashMap<Long, String>();
+		Map<String, Account> accountsByCreditCard = new HashMap<String, Account>();
+		while (rs.next()) {
+			Long id = rs.getLong(ACCOUNT_ID);
+			Account account = accountsById.get(id);
+			if (account == null) {
+				account = new Account(rs.getString(ACCOUNT_NUMBER), rs.getString(ACCOUNT_NAME));
+				account.setEntityId(id);
+				accountsById.put(id, account);
+			}
+			String creditCardNumber = rs.getString(CREDIT_CARD_NUMBER);
+			accountsByCreditCard.put(creditCardNumber, account);
+			String beneficiaryCreditCard = beneficiaryCreditCards.putIfAbsent(id, creditCardNumber);
+			if (beneficiaryCreditCard == null || beneficiaryCreditCard.equals(creditCardNumber)) {
+				account.restoreBeneficiary(mapBeneficiary(rs));
+			}
+		}
+		return accountsByCreditCard;
+	}
+
+	/**
+	 * Maps the beneficiary columns in a single row to an AllocatedBeneficiary object. Reads the decimal columns as
+	 * decimals, rather than parsing their string form.
 	 * 
 	 * @param rs the result set with its cursor positioned at the current row
 	 * @return an allocated beneficiary
 	 * @throws SQLException an exception occurred extracting data from the result set
 	 */
 	private Beneficiary mapBeneficiary(ResultSet rs) throws SQLException {
-		String name = rs.getString("BENEFICIARY_NAME");
-		MonetaryAmount savings = MonetaryAmount.valueOf(rs.getString("BENEFICIARY_SAVINGS"));
-		Percentage allocationPercentage = Percentage.valueOf(rs.getString("BENEFICIARY_ALLOCATION_PERCENTAGE"));
+		String name = rs.getString(BENEFICIARY_NAME);
+		MonetaryAmount savings = new MonetaryAmount(rs.getBigDecimal(BENEFICIARY_SAVINGS));
+		Percentage allocationPercentage = Percentage.valueOf(rs.getBigDecimal(BENEFICIARY_ALLOCATION_PERCENTAGE));
 		return new Beneficiary(name, allocationPercentage, savings);
 	}
 
@@ -0,0 +1,22 @@
+package rewards.internal.dining;
+
+/**
+ * The layouts of a dining file, one dining per line. Lines end with a line feed, optionally preceded by a carriage
+ * return. Amounts are in dollars with up to two decimals; dates are in the dining's local calendar.
+ */
+public enum DiningFileFormat {
+
+	/**
+	 * Comma separated amount, credit card number, merchant number and yyyy-MM-dd date, for example
+	 * <code>100.00,1234123412341234,1234567890,2024-05-17</code>. A line starting with a letter, such as a header, is
+	 * skipped.
+	 */
+	CSV,
+
+	/**
+	 * Fixed width fields without separators: a {@value DiningLineParser#AMOUNT_WIDTH} character amount padded with
+	 * spaces, a {@value DiningLineParser#CARD_WIDTH} digit credit card number, a
+	 * {@value DiningLineParser#MERCHANT_WIDTH} digit merchant number and a yyyyMMdd date.
+	 */
+	FIXED_WIDTH
+}
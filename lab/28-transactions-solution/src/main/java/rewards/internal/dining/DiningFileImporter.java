@@ -0,0 +1,398 @@
+package rewards.internal.dining;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rewards.BatchRewardNetwork;
+import rewards.Dining;
+import rewards.RewardNetwork;
+import rewards.RewardResult;
+
+/**
+ * Imports a file of dinings into the reward network, for example the nightly settlement file of a card processor.
+ *
+ * The file is split into chunks of {@link #setChunkSize(int) chunk size} bytes, which are imported in parallel by a
+ * pool of threads. A chunk imports the lines that start within it: each chunk is memory-mapped, together with the
+ * byte before it and room for the line that runs past its end, and parsed in place by a {@link DiningLineParser}, so
+ * the file is never copied onto the heap or decoded to Strings. When the network is a {@link BatchRewardNetwork}, the
+ * dinings of a chunk are streamed to it and rewarded in bulk; otherwise each dining is rewarded on its own.
+ *
+ * Progress is recorded in a checkpoint file next to the dining file: for each chunk, the position of the line after
+ * the last dining the network has rewarded, written each time the network has committed a batch (or a single
+ * dining), before the next one is read. When an import stops half way, for instance because the process is killed,
+ * importing the same file again skips the chunks already imported and resumes the others where they stopped; the
+ * checkpoint is deleted once the whole file is imported. Only the dinings of a batch that was committed when the
+ * import stopped, before its position was recorded, are rewarded again.
+ *
+ * Dinings of different chunks are rewarded at the same time, so the network must be safe for concurrent dinings of the
+ * same account, as one that updates savings incrementally or with striped locks is; otherwise, import with a single
+ * thread.
+ *
+ * Lines that are not a valid dining are logged and skipped. Dinings the network cannot reward are reported to the
+ * {@link #setResultListener(Consumer) result listener}, as are the dinings it rewards.
+ */
+public class DiningFileImporter {
+
+	private static final Logger logger = LoggerFactory.getLogger(DiningFileImporter.class);
+
+	/**
+	 * The longest line a dining file may hold, including its line terminator.
+	 */
+	static final int MAX_LINE_LENGTH = 1024;
+
+	private static final int MAX_CHUNK_SIZE = Integer.MAX_VALUE - MAX_LINE_LENGTH - 1;
+
+	private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+	private final RewardNetwork rewardNetwork;
+
+	private DiningFileFormat format = DiningFileFormat.CSV;
+
+	private int chunkSize = 64 * 1024 * 1024;
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	private Consumer<RewardResult> resultListener = result -> {
+	};
+
+	/**
+	 * Creates a new dining file importer.
+	 * @param rewardNetwork the network the dinings are rewarded by
+	 */
+	public DiningFileImporter(RewardNetwork rewardNetwork) {
+		this.rewardNetwork = rewardNetwork;
+	}
+
+	/**
+	 * Sets the layout of the dining files. Defaults to {@link DiningFileFormat#CSV}.
+	 */
+	public void setFormat(DiningFileFormat format) {
+		this.format = format;
+	}
+
+	/**
+	 * Sets the size in bytes of the chunks a file is split into, which is also the unit of work of a thread. Defaults
+	 * to 64 MB.
+	 * @param chunkSize the chunk size in bytes, no larger than 2 GB less the longest line
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+			throw new IllegalArgumentException("The chunk size must be between 1 and " + MAX_CHUNK_SIZE
+					+ "; your value was " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Sets the number of chunks imported at the same time. Defaults to the number of processors.
+	 * @param threads the number of threads
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("The number of threads must be positive; your value was " + threads);
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Sets the listener called with the result of each dining. The listener is called by the importing threads, and
+	 * must be thread-safe.
+	 */
+	public void setResultListener(Consumer<RewardResult> resultListener) {
+		this.resultListener = resultListener;
+	}
+
+	/**
+	 * Imports a dining file, resuming a previous import of the same file that stopped half way.
+	 * @param file the dining file
+	 * @return the summary of this import
+	 * @throws IOException if the file cannot be read, or holds a line longer than {@value #MAX_LINE_LENGTH} bytes
+	 */
+	public DiningImportSummary importFile(Path file) throws IOException, InterruptedException {
+		Path checkpointFile = file.resolveSibling(file.getFileName() + CHECKPOINT_SUFFIX);
+		Counts counts = new Counts();
+		int chunkCount;
+		int resumedChunks;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+			try (ImportCheckpoint checkpoint = ImportCheckpoint.open(checkpointFile, size, chunkSize, chunkCount)) {
+				resumedChunks = checkpoint.getCompletedCount();
+				if (resumedChunks > 0) {
+					logger.info("Resuming the import of {} after {} of {} chunks", file, resumedChunks, chunkCount);
+				}
+				importChunks(file, channel, checkpoint, counts);
+			}
+		}
+		Files.deleteIfExists(checkpointFile);
+		DiningImportSummary summary = new DiningImportSummary(counts.dinings.sum(), counts.rewarded.sum(),
+				counts.failed.sum(), counts.malformed.sum(), chunkCount, resumedChunks);
+		logger.info("Imported {}: {}", file, summary);
+		return summary;
+	}
+
+	private void importChunks(Path file, FileChannel channel, ImportCheckpoint checkpoint, Counts counts)
+			throws IOException, InterruptedException {
+		long size = channel.size();
+		AtomicInteger threadNumber = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+				runnable -> new Thread(runnable, "dining-import-" + threadNumber.incrementAndGet()));
+		try {
+			List<Future<?>> chunks = new ArrayList<Future<?>>();
+			for (int i = 0; i * (long) chunkSize < size; i++) {
+				if (!checkpoint.isCompleted(i)) {
+					int chunk = i;
+					chunks.add(executor.submit(() -> {
+						importChunk(file, channel, checkpoint, chunk, counts);
+						checkpoint.markCompleted(chunk);
+						return null;
+					}));
+				}
+			}
+			for (Future<?> chunk : chunks) {
+				chunk.get();
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Unable to import " + file, cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void importChunk(Path file, FileChannel channel, ImportCheckpoint checkpoint, int chunk, Counts counts)
+			throws IOException {
+		long size = channel.size();
+		long start = chunk * (long) chunkSize;
+		long end = Math.min(size, start + chunkSize);
+		long resumeAt = checkpoint.getPosition(chunk);
+		// a resumed chunk starts at a line; otherwise map the byte before the chunk to tell whether the chunk starts a
+		// line. Map the line that runs past the end of the chunk too
+		long mapStart = resumeAt > start ? resumeAt : Math.max(0, start - 1);
+		long mapEnd = Math.min(size, end + MAX_LINE_LENGTH);
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+		Lines lines = new Lines(file, buffer, mapStart, (int) (end - mapStart), mapEnd == size, checkpoint, chunk,
+				counts);
+		Stream<Dining> dinings = StreamSupport.stream(lines, false);
+		try {
+			if (resumeAt > start) {
+				logger.debug("Resuming chunk {} of {} at byte {}", chunk, file, resumeAt);
+			} else if (start > 0) {
+				lines.skipLine();
+			}
+			if (rewardNetwork instanceof BatchRewardNetwork) {
+				((BatchRewardNetwork) rewardNetwork).rewardAccountsFor(dinings, result -> {
+					lines.rewarded();
+					report(result, counts);
+				});
+			} else {
+				dinings.forEach(dining -> {
+					RewardResult result = rewardAccountFor(dining);
+					lines.rewarded();
+					report(result, counts);
+				});
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private RewardResult rewardAccountFor(Dining dining) {
+		try {
+			return RewardResult.success(dining, rewardNetwork.rewardAccountFor(dining));
+		} catch (RuntimeException e) {
+			return RewardResult.failure(dining, e);
+		}
+	}
+
+	private void report(RewardResult result, Counts counts) {
+		if (result.isSuccess()) {
+			counts.rewarded.increment();
+		} else {
+			counts.failed.increment();
+		}
+		resultListener.accept(result);
+	}
+
+	/**
+	 * The dinings of the lines starting within a chunk, parsed as the stream is consumed. Keeps the position of the
+	 * line after each dining read but not rewarded yet, and records the position in the checkpoint whenever all the
+	 * dinings read have been rewarded: at the end of each batch, as a batch reward network reads the next batch only
+	 * once it has reported the results of the last one.
+	 */
+	private class Lines extends Spliterators.AbstractSpliterator<Dining> {
+
+		private final Path file;
+
+		private final MappedByteBuffer buffer;
+
+		private final long offset;
+
+		private final int limit;
+
+		private final boolean endOfFile;
+
+		private final ImportCheckpoint checkpoint;
+
+		private final int chunk;
+
+		private final Counts counts;
+
+		private final DiningLineParser parser = new DiningLineParser(format);
+
+		private int position;
+
+		/**
+		 * The positions of the lines after the dinings read but not rewarded yet, a queue in a circular array.
+		 */
+		private int[] unrewarded = new int[64];
+
+		private int unrewardedStart;
+
+		private int unrewardedCount;
+
+		/**
+		 * @param buffer the mapped part of the file
+		 * @param offset the position of the buffer in the file
+		 * @param limit the index in the buffer of the end of the chunk; only lines starting before it are read
+		 * @param endOfFile true if the buffer runs to the end of the file
+		 * @param checkpoint the checkpoint the progress of the chunk is recorded in
+		 * @param chunk the number of the chunk
+		 */
+		Lines(Path file, MappedByteBuffer buffer, long offset, int limit, boolean endOfFile, ImportCheckpoint checkpoint,
+				int chunk, Counts counts) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.file = file;
+			this.buffer = buffer;
+			this.offset = offset;
+			this.limit = limit;
+			this.endOfFile = endOfFile;
+			this.checkpoint = checkpoint;
+			this.chunk = chunk;
+			this.counts = counts;
+		}
+
+		/**
+		 * Skips the line that started in the previous chunk; the buffer starts with the last byte of that chunk.
+		 */
+		void skipLine() {
+			position = lineEnd(0) + 1;
+		}
+
+		public boolean tryAdvance(Consumer<? super Dining> action) {
+			while (position < limit) {
+				int lineStart = position;
+				int lineEnd = lineEnd(lineStart);
+				position = lineEnd + 1;
+				int contentEnd = lineEnd;
+				if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+					contentEnd--;
+				}
+				if (contentEnd == lineStart) {
+					continue;
+				}
+				Dining dining;
+				try {
+					dining = parser.parse(buffer, lineStart, contentEnd);
+				} catch (IllegalArgumentException e) {
+					counts.malformed.increment();
+					logger.warn("Skipping the malformed dining at byte {} of {}: {}", offset + lineStart, file,
+							e.getMessage());
+					continue;
+				}
+				if (dining != null) {
+					counts.dinings.increment();
+					addUnrewarded(position);
+					action.accept(dining);
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Called when the oldest dining read has been rewarded, or has failed. Records the progress of the chunk once
+		 * every dining read has been.
+		 */
+		void rewarded() {
+			int next = unrewarded[unrewardedStart];
+			unrewardedStart = (unrewardedStart + 1) % unrewarded.length;
+			if (--unrewardedCount == 0) {
+				try {
+					checkpoint.setPosition(chunk, offset + next);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+
+		private void addUnrewarded(int next) {
+			if (unrewardedCount == unrewarded.length) {
+				int[] grown = new int[unrewarded.length * 2];
+				for (int i = 0; i < unrewardedCount; i++) {
+					grown[i] = unrewarded[(unrewardedStart + i) % unrewarded.length];
+				}
+				unrewarded = grown;
+				unrewardedStart = 0;
+			}
+			unrewarded[(unrewardedStart + unrewardedCount++) % unrewarded.length] = next;
+		}
+
+		/**
+		 * Returns the index of the line feed ending the line at the given index, or of the end of the file if the last
+		 * line has no line feed.
+		 */
+		private int lineEnd(int from) {
+			int capacity = buffer.limit();
+			for (int i = from; i < capacity; i++) {
+				if (buffer.get(i) == '\n') {
+					return i;
+				}
+			}
+			if (endOfFile) {
+				return capacity;
+			}
+			throw new UncheckedIOException(new IOException("The line at byte " + (offset + from) + " of " + file
+					+ " is longer than " + MAX_LINE_LENGTH + " bytes"));
+		}
+	}
+
+	private static class Counts {
+
+		final LongAdder dinings = new LongAdder();
+
+		final LongAdder rewarded = new LongAdder();
+
+		final LongAdder failed = new LongAdder();
+
+		final LongAdder malformed = new LongAdder();
+	}
+}
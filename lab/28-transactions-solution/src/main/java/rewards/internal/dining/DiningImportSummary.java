@@ -0,0 +1,78 @@
+package rewards.internal.dining;
+
+/**
+ * The outcome of importing a dining file: how many dinings were read and rewarded, and how much of the file a previous
+ * run had imported already.
+ *
+ * A value object. Immutable.
+ */
+public class DiningImportSummary {
+
+	private final long dinings;
+
+	private final long rewarded;
+
+	private final long failed;
+
+	private final long malformed;
+
+	private final int chunks;
+
+	private final int resumedChunks;
+
+	DiningImportSummary(long dinings, long rewarded, long failed, long malformed, int chunks, int resumedChunks) {
+		this.dinings = dinings;
+		this.rewarded = rewarded;
+		this.failed = failed;
+		this.malformed = malformed;
+		this.chunks = chunks;
+		this.resumedChunks = resumedChunks;
+	}
+
+	/**
+	 * Returns the number of dinings read by this import.
+	 */
+	public long getDinings() {
+		return dinings;
+	}
+
+	/**
+	 * Returns the number of dinings rewarded by this import.
+	 */
+	public long getRewarded() {
+		return rewarded;
+	}
+
+	/**
+	 * Returns the number of dinings that could not be rewarded.
+	 */
+	public long getFailed() {
+		return failed;
+	}
+
+	/**
+	 * Returns the number of lines skipped because they are not a valid dining.
+	 */
+	public long getMalformed() {
+		return malformed;
+	}
+
+	/**
+	 * Returns the number of chunks the file was split into.
+	 */
+	public int getChunks() {
+		return chunks;
+	}
+
+	/**
+	 * Returns the number of chunks skipped because a previous run imported them.
+	 */
+	public int getResumedChunks() {
+		return resumedChunks;
+	}
+
+	public String toString() {
+		return "Read " + dinings + " dinings: " + rewarded + " rewarded, " + failed + " failed, " + malformed
+				+ " malformed lines; resumed " + resumedChunks + " of " + chunks + " chunks";
+	}
+}
@@ -0,0 +1,233 @@
+package rewards.internal.dining;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import rewards.Dining;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+
+/**
+ * Parses the lines of a dining file straight from the bytes of a buffer, without decoding them to a String first.
+ *
+ * Amounts are read as a whole number of cents. The only String created per dining is its credit card number: merchant
+ * numbers and dates repeat across a file, so each distinct one is created once and reused. A parser holds those
+ * caches and a scratch buffer, so it is used by one thread only.
+ */
+class DiningLineParser {
+
+	static final int AMOUNT_WIDTH = 12;
+
+	static final int CARD_WIDTH = 16;
+
+	static final int MERCHANT_WIDTH = 10;
+
+	static final int DATE_WIDTH = 8;
+
+	static final int FIXED_WIDTH_LINE_LENGTH = AMOUNT_WIDTH + CARD_WIDTH + MERCHANT_WIDTH + DATE_WIDTH;
+
+	private static final int MIN_CARD_DIGITS = 12;
+
+	private static final int MAX_CARD_DIGITS = 19;
+
+	private static final int MAX_MERCHANT_DIGITS = 15;
+
+	private static final int MAX_AMOUNT_DIGITS = 15;
+
+	private final DiningFileFormat format;
+
+	private final byte[] scratch = new byte[MAX_CARD_DIGITS];
+
+	private final Map<Long, String> merchantNumbers = new HashMap<Long, String>();
+
+	private final Map<Integer, SimpleDate> dates = new HashMap<Integer, SimpleDate>();
+
+	private ByteBuffer buffer;
+
+	private int position;
+
+	private int end;
+
+	DiningLineParser(DiningFileFormat format) {
+		this.format = format;
+	}
+
+	/**
+	 * Parses a line.
+	 * @param buffer the buffer holding the line
+	 * @param start the index of the first byte of the line
+	 * @param end the index after the last byte of the line, excluding the line terminator
+	 * @return the dining, or null if the line is a header
+	 * @throws IllegalArgumentException if the line is not a valid dining
+	 */
+	Dining parse(ByteBuffer buffer, int start, int end) {
+		this.buffer = buffer;
+		this.position = start;
+		this.end = end;
+		if (format == DiningFileFormat.CSV) {
+			if (Character.isLetter(buffer.get(start))) {
+				return null;
+			}
+			MonetaryAmount amount = parseAmount(fieldEnd());
+			String creditCardNumber = parseCreditCardNumber(fieldEnd());
+			String merchantNumber = parseMerchantNumber(fieldEnd());
+			SimpleDate date = parseDate(end, true);
+			return new Dining(amount, creditCardNumber, merchantNumber, date);
+		} else {
+			if (end - start != FIXED_WIDTH_LINE_LENGTH) {
+				throw new IllegalArgumentException("Expected a line of " + FIXED_WIDTH_LINE_LENGTH + " characters; got "
+						+ (end - start));
+			}
+			MonetaryAmount amount = parseAmount(position + AMOUNT_WIDTH);
+			String creditCardNumber = parseCreditCardNumber(position + CARD_WIDTH);
+			String merchantNumber = parseMerchantNumber(position + MERCHANT_WIDTH);
+			SimpleDate date = parseDate(end, false);
+			return new Dining(amount, creditCardNumber, merchantNumber, date);
+		}
+	}
+
+	/**
+	 * Returns the end of the comma separated field at the current position.
+	 */
+	private int fieldEnd() {
+		for (int i = position; i < end; i++) {
+			if (buffer.get(i) == ',') {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Expected 4 comma separated fields");
+	}
+
+	/**
+	 * Moves the position to the next field, past the separator of a comma separated field.
+	 */
+	private void skipField(int fieldEnd) {
+		position = format == DiningFileFormat.CSV ? fieldEnd + 1 : fieldEnd;
+	}
+
+	private MonetaryAmount parseAmount(int fieldEnd) {
+		int i = skipSpaces(position, fieldEnd);
+		long cents = 0;
+		int digits = 0;
+		int decimals = -1;
+		for (; i < fieldEnd; i++) {
+			byte b = buffer.get(i);
+			if (b >= '0' && b <= '9') {
+				if (decimals == 2 || ++digits > MAX_AMOUNT_DIGITS) {
+					throw new IllegalArgumentException("Invalid amount");
+				}
+				cents = cents * 10 + (b - '0');
+				if (decimals >= 0) {
+					decimals++;
+				}
+			} else if (b == '.' && decimals < 0) {
+				decimals = 0;
+			} else if (b == ' ') {
+				break;
+			} else {
+				throw new IllegalArgumentException("Invalid amount");
+			}
+		}
+		if (digits == 0 || skipSpaces(i, fieldEnd) != fieldEnd) {
+			throw new IllegalArgumentException("Invalid amount");
+		}
+		for (int d = Math.max(decimals, 0); d < 2; d++) {
+			cents *= 10;
+		}
+		skipField(fieldEnd);
+		return MonetaryAmount.ofCents(cents);
+	}
+
+	private String parseCreditCardNumber(int fieldEnd) {
+		int length = fieldEnd - position;
+		if (length < MIN_CARD_DIGITS || length > MAX_CARD_DIGITS) {
+			throw new IllegalArgumentException("Invalid credit card number");
+		}
+		for (int i = 0; i < length; i++) {
+			byte b = buffer.get(position + i);
+			if (b < '0' || b > '9') {
+				throw new IllegalArgumentException("Invalid credit card number");
+			}
+			scratch[i] = b;
+		}
+		skipField(fieldEnd);
+		return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+	}
+
+	private String parseMerchantNumber(int fieldEnd) {
+		int length = fieldEnd - position;
+		if (length < 1 || length > MAX_MERCHANT_DIGITS) {
+			throw new IllegalArgumentException("Invalid merchant number");
+		}
+		long value = parseDigits(position, fieldEnd, "merchant number");
+		// the length tells merchant numbers with leading zeros apart
+		Long key = (value << 4) | length;
+		String merchantNumber = merchantNumbers.get(key);
+		if (merchantNumber == null) {
+			byte[] bytes = new byte[length];
+			for (int i = 0; i < length; i++) {
+				bytes[i] = buffer.get(position + i);
+			}
+			merchantNumber = new String(bytes, StandardCharsets.ISO_8859_1);
+			merchantNumbers.put(key, merchantNumber);
+		}
+		skipField(fieldEnd);
+		return merchantNumber;
+	}
+
+	private SimpleDate parseDate(int fieldEnd, boolean separated) {
+		int length = fieldEnd - position;
+		int year;
+		int month;
+		int day;
+		if (separated) {
+			if (length != DATE_WIDTH + 2 || buffer.get(position + 4) != '-' || buffer.get(position + 7) != '-') {
+				throw new IllegalArgumentException("Invalid date");
+			}
+			year = (int) parseDigits(position, position + 4, "date");
+			month = (int) parseDigits(position + 5, position + 7, "date");
+			day = (int) parseDigits(position + 8, position + 10, "date");
+		} else {
+			if (length != DATE_WIDTH) {
+				throw new IllegalArgumentException("Invalid date");
+			}
+			year = (int) parseDigits(position, position + 4, "date");
+			month = (int) parseDigits(position + 4, position + 6, "date");
+			day = (int) parseDigits(position + 6, position + 8, "date");
+		}
+		Integer key = year * 10000 + month * 100 + day;
+		SimpleDate date = dates.get(key);
+		if (date == null) {
+			try {
+				date = new SimpleDate(month, day, year);
+			} catch (RuntimeException e) {
+				throw new IllegalArgumentException("Invalid date", e);
+			}
+			dates.put(key, date);
+		}
+		position = fieldEnd;
+		return date;
+	}
+
+	private long parseDigits(int from, int to, String field) {
+		long value = 0;
+		for (int i = from; i < to; i++) {
+			byte b = buffer.get(i);
+			if (b < '0' || b > '9') {
+				throw new IllegalArgumentException("Invalid " + field);
+			}
+			value = value * 10 + (b - '0');
+		}
+		return value;
+	}
+
+	private int skipSpaces(int from, int to) {
+		while (from < to && buffer.get(from) == ' ') {
+			from++;
+		}
+		return from;
+	}
+}
@@ -0,0 +1,134 @@
+package rewards.internal.dining;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records how far each chunk of a dining file has been imported, so an import that stopped half way can resume.
+ *
+ * The checkpoint file starts with the size of the dining file, the chunk size and the number of chunks, followed by
+ * one position per chunk: the position in the dining file of the first line of the chunk not imported yet, or 0 when
+ * the chunk has not been started. A chunk is imported once its position reaches its end. Recording a position writes
+ * it and forces it to disk. A checkpoint left by an import of a file of another size, or with another chunk size, is
+ * started over.
+ */
+class ImportCheckpoint implements Closeable {
+
+	private static final int HEADER_SIZE = Long.BYTES + 2 * Integer.BYTES;
+
+	private final FileChannel channel;
+
+	private final long fileSize;
+
+	private final int chunkSize;
+
+	private final long[] positions;
+
+	private final ByteBuffer position = ByteBuffer.allocate(Long.BYTES);
+
+	private ImportCheckpoint(FileChannel channel, long fileSize, int chunkSize, long[] positions) {
+		this.channel = channel;
+		this.fileSize = fileSize;
+		this.chunkSize = chunkSize;
+		this.positions = positions;
+	}
+
+	/**
+	 * Opens the checkpoint of an import, creating it if there is none for the same file size and chunk size.
+	 * @param path the checkpoint file
+	 * @param fileSize the size of the dining file
+	 * @param chunkSize the size of a chunk
+	 * @param chunkCount the number of chunks
+	 */
+	static ImportCheckpoint open(Path path, long fileSize, int chunkSize, int chunkCount) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putLong(fileSize).putInt(chunkSize).putInt(chunkCount).flip();
+			long[] positions = new long[chunkCount];
+			ByteBuffer chunks = ByteBuffer.allocate(chunkCount * Long.BYTES);
+			if (channel.size() == HEADER_SIZE + chunks.capacity()) {
+				ByteBuffer existing = ByteBuffer.allocate(HEADER_SIZE);
+				channel.read(existing, 0);
+				existing.flip();
+				if (existing.equals(header)) {
+					channel.read(chunks, HEADER_SIZE);
+					for (int i = 0; i < chunkCount; i++) {
+						positions[i] = chunks.getLong(i * Long.BYTES);
+					}
+					return new ImportCheckpoint(channel, fileSize, chunkSize, positions);
+				}
+			}
+			channel.truncate(0);
+			channel.write(header, 0);
+			channel.write(chunks, HEADER_SIZE);
+			channel.force(true);
+			return new ImportCheckpoint(channel, fileSize, chunkSize, positions);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the position in the dining file of the first line of the given chunk not imported yet, or 0 when the
+	 * chunk has not been started.
+	 */
+	synchronized long getPosition(int chunk) {
+		return positions[chunk];
+	}
+
+	/**
+	 * Returns true if the given chunk has been imported.
+	 */
+	synchronized boolean isCompleted(int chunk) {
+		return positions[chunk] >= end(chunk);
+	}
+
+	/**
+	 * Returns the number of chunks imported.
+	 */
+	synchronized int getCompletedCount() {
+		int count = 0;
+		for (int i = 0; i < positions.length; i++) {
+			if (isCompleted(i)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Records that the lines of the given chunk before the given position have been imported, on disk before
+	 * returning.
+	 * @param chunk the chunk
+	 * @param position the position in the dining file of the next line of the chunk to import
+	 */
+	synchronized void setPosition(int chunk, long position) throws IOException {
+		this.position.clear();
+		this.position.putLong(position).flip();
+		channel.write(this.position, HEADER_SIZE + chunk * (long) Long.BYTES);
+		channel.force(false);
+		positions[chunk] = position;
+	}
+
+	/**
+	 * Records that the given chunk has been imported, on disk before returning.
+	 */
+	synchronized void markCompleted(int chunk) throws IOException {
+		setPosition(chunk, end(chunk));
+	}
+
+	public synchronized void close() throws IOException {
+		channel.close();
+	}
+
+	private long end(int chunk) {
+		return Math.min(fileSize, (chunk + 1) * (long) chunkSize);
+	}
+}
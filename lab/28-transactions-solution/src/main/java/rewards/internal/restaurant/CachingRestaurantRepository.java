@@ -0,0 +1,333 @@
+package rewards.internal.restaurant;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * A restaurant repository that keeps all restaurants in memory, so finding a restaurant does not cost a database
+ * round-trip. Restaurants are loaded from another repository, typically a {@link JdbcRestaurantRepository}.
+ *
+ * Reads never lock: the restaurants are held in a concurrent map that a refresh replaces as a whole. The cache is
+ * refreshed in the background every refresh interval. If a change detection query is set, for example one selecting
+ * the latest modification timestamp or version of T_RESTAURANT, a refresh only reloads the restaurants when the
+ * query's result differs from the previous refresh.
+ *
+ * A merchant number missing from the cache is looked up in the other repository, so a restaurant added since the last
+ * refresh is found right away. Merchant numbers that turn out to be unknown are remembered for the negative cache
+ * time-to-live, so repeated lookups of a bogus merchant number do not each go to the database. At most a maximum
+ * number of them are remembered, the least recently used forgotten first, and every refresh forgets the expired ones,
+ * so a stream of bogus merchant numbers cannot grow the cache without bound.
+ */
+public class CachingRestaurantRepository implements RestaurantRepository {
+
+	private static final Logger logger = LoggerFactory.getLogger(CachingRestaurantRepository.class);
+
+	private RestaurantRepository restaurantRepository;
+
+	private volatile Map<String, Restaurant> restaurants = new ConcurrentHashMap<String, Restaurant>();
+
+	private final UnknownMerchantNumbers unknownMerchantNumbers = new UnknownMerchantNumbers();
+
+	private volatile int maxUnknownMerchantNumbers = 10000;
+
+	private long refreshIntervalMillis = TimeUnit.MINUTES.toMillis(5);
+
+	private long negativeCacheTimeToLiveMillis = TimeUnit.MINUTES.toMillis(1);
+
+	private JdbcTemplate jdbcTemplate;
+
+	private String changeDetectionQuery;
+
+	private volatile Object lastChangeMarker;
+
+	private final Object refreshMonitor = new Object();
+
+	private ScheduledExecutorService scheduler;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder negativeHits = new LongAdder();
+
+	private final LongAdder refreshes = new LongAdder();
+
+	/**
+	 * Creates a new caching restaurant repository.
+	 * @param restaurantRepository the repository restaurants are loaded from
+	 */
+	public CachingRestaurantRepository(RestaurantRepository restaurantRepository) {
+		this.restaurantRepository = restaurantRepository;
+	}
+
+	/**
+	 * Sets how often the cache is refreshed in the background. Defaults to five minutes; zero or less disables
+	 * background refreshing.
+	 */
+	public void setRefreshIntervalMillis(long refreshIntervalMillis) {
+		this.refreshIntervalMillis = refreshIntervalMillis;
+	}
+
+	/**
+	 * Sets how long an unknown merchant number is remembered. Defaults to one minute; zero or less disables negative
+	 * caching.
+	 */
+	public void setNegativeCacheTimeToLiveMillis(long negativeCacheTimeToLiveMillis) {
+		this.negativeCacheTimeToLiveMillis = negativeCacheTimeToLiveMillis;
+	}
+
+	/**
+	 * Sets how many unknown merchant numbers are remembered at most. Defaults to 10000; the least recently used one is
+	 * forgotten first.
+	 */
+	public void setMaxUnknownMerchantNumbers(int maxUnknownMerchantNumbers) {
+		if (maxUnknownMerchantNumbers < 0) {
+			throw new IllegalArgumentException(
+					"The maximum number of unknown merchant numbers must not be negative; your value was "
+							+ maxUnknownMerchantNumbers);
+		}
+		this.maxUnknownMerchantNumbers = maxUnknownMerchantNumbers;
+	}
+
+	/**
+	 * Sets the data source the change detection query runs against.
+	 */
+	public void setDataSource(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * Sets a query returning a single value that changes whenever a restaurant changes, such as
+	 * <code>select max(LAST_MODIFIED) from T_RESTAURANT</code>. Without one, every refresh reloads all restaurants.
+	 */
+	public void setChangeDetectionQuery(String changeDetectionQuery) {
+		this.changeDetectionQuery = changeDetectionQuery;
+	}
+
+	/**
+	 * Loads the cache and starts refreshing it in the background.
+	 */
+	@PostConstruct
+	public void start() {
+		if (changeDetectionQuery != null && jdbcTemplate == null) {
+			throw new IllegalStateException("A data source is required to run the change detection query");
+		}
+		refresh();
+		if (refreshIntervalMillis > 0) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "restaurant-cache-refresh");
+				thread.setDaemon(true);
+				return thread;
+			});
+			scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMillis, refreshIntervalMillis,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Stops refreshing the cache in the background.
+	 */
+	@PreDestroy
+	public void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * Reloads all restaurants, unless the change detection query shows nothing changed since the last refresh. Also
+	 * forgets the unknown merchant numbers when the restaurants are reloaded, and the expired ones when they are not.
+	 */
+	public void refresh() {
+		synchronized (refreshMonitor) {
+			forgetExpiredUnknownMerchantNumbers();
+			Object changeMarker = null;
+			if (changeDetectionQuery != null) {
+				// read the marker before the restaurants, so a change made while loading is picked up next time
+				changeMarker = jdbcTemplate.queryForObject(changeDetectionQuery, Object.class);
+				if (refreshes.sum() > 0 && Objects.equals(changeMarker, lastChangeMarker)) {
+					return;
+				}
+			}
+			restaurants = new ConcurrentHashMap<String, Restaurant>(restaurantRepository.findAll());
+			synchronized (unknownMerchantNumbers) {
+				unknownMerchantNumbers.clear();
+			}
+			lastChangeMarker = changeMarker;
+			refreshes.increment();
+		}
+	}
+
+	private void refreshQuietly() {
+		try {
+			refresh();
+		} catch (RuntimeException e) {
+			// keep serving the restaurants loaded before; the next refresh tries again
+			logger.warn("Unable to refresh the restaurant cache", e);
+		}
+	}
+
+	public Restaurant findByMerchantNumber(String merchantNumber) {
+		Map<String, Restaurant> current = restaurants;
+		Restaurant restaurant = current.get(merchantNumber);
+		if (restaurant != null) {
+			hits.increment();
+			return restaurant;
+		}
+		if (isKnownToBeUnknown(merchantNumber)) {
+			negativeHits.increment();
+			throw new EmptyResultDataAccessException(1);
+		}
+		misses.increment();
+		try {
+			restaurant = restaurantRepository.findByMerchantNumber(merchantNumber);
+		} catch (EmptyResultDataAccessException e) {
+			rememberUnknown(merchantNumber);
+			throw e;
+		}
+		current.put(merchantNumber, restaurant);
+		return restaurant;
+	}
+
+	public Map<String, Restaurant> findByMerchantNumbers(Collection<String> merchantNumbers) {
+		Map<String, Restaurant> current = restaurants;
+		Map<String, Restaurant> found = new HashMap<String, Restaurant>();
+		List<String> missing = new ArrayList<String>();
+		for (String merchantNumber : merchantNumbers) {
+			Restaurant restaurant = current.get(merchantNumber);
+			if (restaurant != null) {
+				hits.increment();
+				found.put(merchantNumber, restaurant);
+			} else if (isKnownToBeUnknown(merchantNumber)) {
+				negativeHits.increment();
+			} else {
+				misses.increment();
+				missing.add(merchantNumber);
+			}
+		}
+		if (!missing.isEmpty()) {
+			Map<String, Restaurant> loaded = restaurantRepository.findByMerchantNumbers(missing);
+			for (String merchantNumber : missing) {
+				Restaurant restaurant = loaded.get(merchantNumber);
+				if (restaurant != null) {
+					current.put(merchantNumber, restaurant);
+					found.put(merchantNumber, restaurant);
+				} else {
+					rememberUnknown(merchantNumber);
+				}
+			}
+		}
+		return found;
+	}
+
+	public Map<String, Restaurant> findAll() {
+		return new HashMap<String, Restaurant>(restaurants);
+	}
+
+	private boolean isKnownToBeUnknown(String merchantNumber) {
+		synchronized (unknownMerchantNumbers) {
+			Long expiry = unknownMerchantNumbers.get(merchantNumber);
+			if (expiry == null) {
+				return false;
+			}
+			if (System.currentTimeMillis() < expiry) {
+				return true;
+			}
+			unknownMerchantNumbers.remove(merchantNumber);
+			return false;
+		}
+	}
+
+	private void rememberUnknown(String merchantNumber) {
+		if (negativeCacheTimeToLiveMillis > 0) {
+			long expiry = System.currentTimeMillis() + negativeCacheTimeToLiveMillis;
+			synchronized (unknownMerchantNumbers) {
+				unknownMerchantNumbers.put(merchantNumber, expiry);
+			}
+		}
+	}
+
+	private void forgetExpiredUnknownMerchantNumbers() {
+		long now = System.currentTimeMillis();
+		synchronized (unknownMerchantNumbers) {
+			for (Iterator<Long> expiries = unknownMerchantNumbers.values().iterator(); expiries.hasNext();) {
+				if (now >= expiries.next()) {
+					expiries.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of lookups answered from the cached restaurants.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of lookups that had to go to the other repository.
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of lookups answered from the remembered unknown merchant numbers.
+	 */
+	public long getNegativeHitCount() {
+		return negativeHits.sum();
+	}
+
+	/**
+	 * Returns the number of times all restaurants were loaded.
+	 */
+	public long getRefreshCount() {
+		return refreshes.sum();
+	}
+
+	/**
+	 * Returns the number of unknown merchant numbers currently remembered.
+	 */
+	public int getUnknownMerchantNumberCount() {
+		synchronized (unknownMerchantNumbers) {
+			return unknownMerchantNumbers.size();
+		}
+	}
+
+	/**
+	 * The expiry times of the unknown merchant numbers, least recently used first. Guarded by its own monitor.
+	 */
+	private class UnknownMerchantNumbers extends LinkedHashMap<String, Long> {
+
+		UnknownMerchantNumbers() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+			return size() > maxUnknownMerchantNumbers;
+		}
+	}
+}
@@ -2,11 +2,16 @@ package rewards.internal.restaurant;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 import rewards.Dining;
 import rewards.internal.account.Account;
@@ -20,6 +25,8 @@ public class JdbcRestaurantRepository implements RestaurantRepository {
 
 	private JdbcTemplate jdbcTemplate;
 
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
 	/**
 	 * Maps a row returned from a query of T_RESTAURANT to a Restaurant object.
 	 */
@@ -27,6 +34,7 @@ public class JdbcRestaurantRepository implements RestaurantRepository {
 
 	public void setDataSource(DataSource dataSource) {
 		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
 	}
 	
 	public Restaurant findByMerchantNumber(String merchantNumber) {
@@ -34,6 +42,29 @@ public class JdbcRestaurantRepository implements RestaurantRepository {
 		return jdbcTemplate.queryForObject(sql, rowMapper, merchantNumber);
 	}
 
+	public Map<String, Restaurant> findByMerchantNumbers(Collection<String> merchantNumbers) {
+		if (merchantNumbers.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		String sql = "select MERCHANT_NUMBER, NAME, BENEFIT_PERCENTAGE, BENEFIT_AVAILABILITY_POLICY from T_RESTAURANT where MERCHANT_NUMBER in (:merchantNumbers)";
+		Map<String, Restaurant> restaurants = new HashMap<String, Restaurant>();
+		namedParameterJdbcTemplate.query(sql, Collections.singletonMap("merchantNumbers", merchantNumbers), rs -> {
+			Restaurant restaurant = mapRestaurant(rs);
+			restaurants.put(restaurant.getNumber(), restaurant);
+		});
+		return restaurants;
+	}
+
+	public Map<String, Restaurant> findAll() {
+		String sql = "select MERCHANT_NUMBER, NAME, BENEFIT_PERCENTAGE, BENEFIT_AVAILABILITY_POLICY from T_RESTAURANT";
+		Map<String, Restaurant> restaurants = new HashMap<String, Restaurant>();
+		jdbcTemplate.query(sql, rs -> {
+			Restaurant restaurant = mapRestaurant(rs);
+			restaurants.put(restaurant.getNumber(), restaurant);
+		});
+		return restaurants;
+	}
+
 	/**
 	 * Maps a row returned from a query of T_RESTAURANT to a Restaurant object.
 	 * 
@@ -1,5 +1,8 @@
 package rewards.internal.restaurant;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * Loads restaurant aggregates. Called by the reward network to find and reconstitute Restaurant entities from an
  * external form such as a set of RDMS rows.
@@ -14,4 +17,17 @@ public interface RestaurantRepository {
 	 * @return the restaurant
 	 */
 	public Restaurant findByMerchantNumber(String merchantNumber);
+
+	/**
+	 * Load the Restaurant entities of several merchant numbers at once.
+	 * @param merchantNumbers the merchant numbers
+	 * @return the restaurants keyed by merchant number; unknown merchant numbers are not contained
+	 */
+	public Map<String, Restaurant> findByMerchantNumbers(Collection<String> merchantNumbers);
+
+	/**
+	 * Load all Restaurant entities.
+	 * @return the restaurants keyed by merchant number
+	 */
+	public Map<String, Restaurant> findAll();
 }
@@ -0,0 +1,43 @@
+package rewards.internal.reward;
+
+import java.util.Collections;
+import java.util.List;
+
+import rewards.AccountContribution;
+import rewards.Dining;
+import rewards.RewardConfirmation;
+
+/**
+ * A reward repository that adds every reward it confirms to the {@link JdbcRewardStatistics reward statistics}.
+ * Rewards are stored by another repository, which must insert them into T_REWARD in the caller's transaction, as a
+ * {@link JdbcRewardRepository} does; the statistics are then updated in that same transaction. A repository writing
+ * behind, such as the {@link JournalingRewardRepository}, would leave the statistics ahead of T_REWARD.
+ */
+public class AggregatingRewardRepository implements RewardRepository {
+
+	private RewardRepository rewardRepository;
+
+	private JdbcRewardStatistics rewardStatistics;
+
+	/**
+	 * Creates a new aggregating reward repository.
+	 * @param rewardRepository the repository storing the rewards
+	 * @param rewardStatistics the statistics the rewards are added to
+	 */
+	public AggregatingRewardRepository(RewardRepository rewardRepository, JdbcRewardStatistics rewardStatistics) {
+		this.rewardRepository = rewardRepository;
+		this.rewardStatistics = rewardStatistics;
+	}
+
+	public RewardConfirmation confirmReward(AccountContribution contribution, Dining dining) {
+		RewardConfirmation confirmation = rewardRepository.confirmReward(contribution, dining);
+		rewardStatistics.record(Collections.singletonList(contribution), Collections.singletonList(dining));
+		return confirmation;
+	}
+
+	public List<RewardConfirmation> confirmRewards(List<AccountContribution> contributions, List<Dining> dinings) {
+		List<RewardConfirmation> confirmations = rewardRepository.confirmRewards(contributions, dinings);
+		rewardStatistics.record(contributions, dinings);
+		return confirmations;
+	}
+}
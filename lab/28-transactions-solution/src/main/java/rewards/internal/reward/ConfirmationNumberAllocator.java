@@ -0,0 +1,16 @@
+package rewards.internal.reward;
+
+/**
+ * Allocates the unique confirmation numbers that identify reward transactions.
+ *
+ * Implementations must be thread-safe and must never hand out the same number twice, not even across restarts or when
+ * several application nodes share the same database.
+ */
+public interface ConfirmationNumberAllocator {
+
+	/**
+	 * Returns the next unused confirmation number.
+	 * @return the confirmation number
+	 */
+	public String nextConfirmationNumber();
+}
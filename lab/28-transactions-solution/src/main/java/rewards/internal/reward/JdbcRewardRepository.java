@@ -1,5 +1,9 @@
 package rewards.internal.reward;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
 import javax.sql.DataSource;
 
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -12,27 +16,65 @@ import common.datetime.SimpleDate;
 
 /**
  * JDBC implementation of a reward repository that records the result of a reward transaction by inserting a reward
- * confirmation record.
+ * confirmation record. The key of a dining, if it has one, is stored in a column with a unique index, so a dining with
+ * the same key as one rewarded before fails with a DuplicateKeyException.
  */
 public class JdbcRewardRepository implements RewardRepository {
 
+	private static final String INSERT_REWARD_SQL = "insert into T_REWARD (CONFIRMATION_NUMBER, REWARD_AMOUNT, REWARD_DATE, ACCOUNT_NUMBER, DINING_MERCHANT_NUMBER, DINING_DATE, DINING_AMOUNT, DINING_KEY) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
 	private JdbcTemplate jdbcTemplate;
+
+	private ConfirmationNumberAllocator confirmationNumberAllocator;
 	
 	public void setDataSource(DataSource dataSource) {
 		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		if (confirmationNumberAllocator == null) {
+			confirmationNumberAllocator = new SequenceConfirmationNumberAllocator(dataSource);
+		}
+	}
+
+	/**
+	 * Sets the strategy for allocating confirmation numbers. Defaults to querying the confirmation number sequence
+	 * for every reward.
+	 * @param confirmationNumberAllocator the confirmation number allocator
+	 */
+	public void setConfirmationNumberAllocator(ConfirmationNumberAllocator confirmationNumberAllocator) {
+		this.confirmationNumberAllocator = confirmationNumberAllocator;
 	}
 
 	public RewardConfirmation confirmReward(AccountContribution contribution, Dining dining) {
-		String sql = "insert into T_REWARD (CONFIRMATION_NUMBER, REWARD_AMOUNT, REWARD_DATE, ACCOUNT_NUMBER, DINING_MERCHANT_NUMBER, DINING_DATE, DINING_AMOUNT) values (?, ?, ?, ?, ?, ?, ?)";
 		String confirmationNumber = nextConfirmationNumber();
-		jdbcTemplate.update(sql, confirmationNumber, contribution.getAmount().asBigDecimal(),
+		jdbcTemplate.update(INSERT_REWARD_SQL, confirmationNumber, contribution.getAmount().asBigDecimal(),
 				SimpleDate.today().asDate(), contribution.getAccountNumber(), dining.getMerchantNumber(),
-				dining.getDate().asDate(), dining.getAmount().asBigDecimal());
+				dining.getDate().asDate(), dining.getAmount().asBigDecimal(), dining.getKey());
 		return new RewardConfirmation(confirmationNumber, contribution);
 	}
 
+	public List<RewardConfirmation> confirmRewards(List<AccountContribution> contributions, List<Dining> dinings) {
+		if (contributions.size() != dinings.size()) {
+			throw new IllegalArgumentException("Expected a dining for each of the " + contributions.size()
+					+ " contributions; got " + dinings.size());
+		}
+		List<RewardConfirmation> confirmations = new ArrayList<RewardConfirmation>(contributions.size());
+		List<Object[]> batchArgs = new ArrayList<Object[]>(contributions.size());
+		Date rewardDate = SimpleDate.today().asDate();
+		for (int i = 0; i < contributions.size(); i++) {
+			AccountContribution contribution = contributions.get(i);
+			Dining dining = dinings.get(i);
+			String confirmationNumber = nextConfirmationNumber();
+			batchArgs.add(new Object[] { confirmationNumber, contribution.getAmount().asBigDecimal(), rewardDate,
+					contribution.getAccountNumber(), dining.getMerchantNumber(), dining.getDate().asDate(),
+					dining.getAmount().asBigDecimal(), dining.getKey() });
+			confirmations.add(new RewardConfirmation(confirmationNumber, contribution));
+		}
+		if (!batchArgs.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT_REWARD_SQL, batchArgs);
+		}
+		return confirmations;
+	}
+
 	private String nextConfirmationNumber() {
-		String sql = "select next value for S_REWARD_CONFIRMATION_NUMBER from DUAL_REWARD_CONFIRMATION_NUMBER";
-		return jdbcTemplate.queryForObject(sql, String.class);
+		return confirmationNumberAllocator.nextConfirmationNumber();
 	}
 }
\ No newline at end of file
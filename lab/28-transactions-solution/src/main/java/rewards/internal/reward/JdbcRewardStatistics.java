@@ -0,0 +1,195 @@
+package rewards.internal.reward;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import rewards.AccountContribution;
+import rewards.Dining;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+
+/**
+ * JDBC implementation of the reward statistics, kept in summary tables next to T_REWARD: the rewards per account in
+ * T_REWARD_ACCOUNT_SUMMARY, the benefit paid per merchant in T_REWARD_MERCHANT_SUMMARY and per merchant and dining date
+ * in T_REWARD_MERCHANT_DAY, created by <code>rewards/statistics-schema.sql</code>. Each question is answered by a
+ * primary key lookup, or for the top merchants by reading the first rows of an index.
+ *
+ * The summaries are updated by {@link #record(List, List)}, called by an {@link AggregatingRewardRepository} in the
+ * transaction that inserts the rewards, so they commit or roll back with T_REWARD. Each summary table is updated with
+ * one batch of MERGE statements, which add to a row or insert it, in key order, so transactions recording rewards of
+ * the same accounts and merchants do not deadlock; they do wait for each other, as each holds its summary rows locked
+ * until it commits.
+ *
+ * This limits throughput: all rewards at one merchant update the same summary row, so they commit one after another,
+ * however many threads reward dinings. Dinings are not spread evenly over merchants; when a few popular merchants see
+ * most of them, the busiest merchant caps the whole reward network at one reward transaction per lock hold time. Where
+ * that matters, leave the statistics out of the reward transaction: do not aggregate the rewards as they are
+ * confirmed, and {@link #rebuild()} the summaries from T_REWARD periodically instead.
+ *
+ * The summaries can be rebuilt from T_REWARD with {@link #rebuild()}, for instance after rewards were inserted without
+ * recording them.
+ */
+public class JdbcRewardStatistics implements RewardStatistics {
+
+	private static final String MERGE_ACCOUNT_SQL = "merge into T_REWARD_ACCOUNT_SUMMARY s "
+			+ "using (values (cast(? as integer), cast(? as decimal(12,2)), cast(? as varchar(9)))) as v (REWARD_COUNT, REWARD_TOTAL, ACCOUNT_NUMBER) "
+			+ "on s.ACCOUNT_NUMBER = v.ACCOUNT_NUMBER "
+			+ "when matched then update set s.REWARD_COUNT = s.REWARD_COUNT + v.REWARD_COUNT, s.REWARD_TOTAL = s.REWARD_TOTAL + v.REWARD_TOTAL "
+			+ "when not matched then insert (ACCOUNT_NUMBER, REWARD_COUNT, REWARD_TOTAL) values (v.ACCOUNT_NUMBER, v.REWARD_COUNT, v.REWARD_TOTAL)";
+
+	private static final String MERGE_MERCHANT_SQL = "merge into T_REWARD_MERCHANT_SUMMARY s "
+			+ "using (values (cast(? as integer), cast(? as decimal(12,2)), cast(? as varchar(10)))) as v (REWARD_COUNT, BENEFIT_TOTAL, MERCHANT_NUMBER) "
+			+ "on s.MERCHANT_NUMBER = v.MERCHANT_NUMBER "
+			+ "when matched then update set s.REWARD_COUNT = s.REWARD_COUNT + v.REWARD_COUNT, s.BENEFIT_TOTAL = s.BENEFIT_TOTAL + v.BENEFIT_TOTAL "
+			+ "when not matched then insert (MERCHANT_NUMBER, REWARD_COUNT, BENEFIT_TOTAL) values (v.MERCHANT_NUMBER, v.REWARD_COUNT, v.BENEFIT_TOTAL)";
+
+	private static final String MERGE_MERCHANT_DAY_SQL = "merge into T_REWARD_MERCHANT_DAY s "
+			+ "using (values (cast(? as integer), cast(? as decimal(12,2)), cast(? as varchar(10)), cast(? as date))) as v (REWARD_COUNT, BENEFIT_TOTAL, MERCHANT_NUMBER, DINING_DATE) "
+			+ "on s.MERCHANT_NUMBER = v.MERCHANT_NUMBER and s.DINING_DATE = v.DINING_DATE "
+			+ "when matched then update set s.REWARD_COUNT = s.REWARD_COUNT + v.REWARD_COUNT, s.BENEFIT_TOTAL = s.BENEFIT_TOTAL + v.BENEFIT_TOTAL "
+			+ "when not matched then insert (MERCHANT_NUMBER, DINING_DATE, REWARD_COUNT, BENEFIT_TOTAL) values (v.MERCHANT_NUMBER, v.DINING_DATE, v.REWARD_COUNT, v.BENEFIT_TOTAL)";
+
+	private static final String SELECT_ACCOUNT_SQL = "select REWARD_COUNT, REWARD_TOTAL from T_REWARD_ACCOUNT_SUMMARY where ACCOUNT_NUMBER = ?";
+
+	private static final String SELECT_MERCHANT_DAY_SQL = "select BENEFIT_TOTAL from T_REWARD_MERCHANT_DAY where MERCHANT_NUMBER = ? and DINING_DATE = ?";
+
+	private static final String SELECT_TOP_MERCHANTS_SQL = "select MERCHANT_NUMBER, REWARD_COUNT, BENEFIT_TOTAL from T_REWARD_MERCHANT_SUMMARY order by BENEFIT_TOTAL desc, MERCHANT_NUMBER limit ?";
+
+	private static final String[] REBUILD_SQL = {
+			"delete from T_REWARD_ACCOUNT_SUMMARY",
+			"delete from T_REWARD_MERCHANT_SUMMARY",
+			"delete from T_REWARD_MERCHANT_DAY",
+			"insert into T_REWARD_ACCOUNT_SUMMARY (ACCOUNT_NUMBER, REWARD_COUNT, REWARD_TOTAL) select ACCOUNT_NUMBER, count(*), sum(REWARD_AMOUNT) from T_REWARD group by ACCOUNT_NUMBER",
+			"insert into T_REWARD_MERCHANT_SUMMARY (MERCHANT_NUMBER, REWARD_COUNT, BENEFIT_TOTAL) select DINING_MERCHANT_NUMBER, count(*), sum(REWARD_AMOUNT) from T_REWARD group by DINING_MERCHANT_NUMBER",
+			"insert into T_REWARD_MERCHANT_DAY (MERCHANT_NUMBER, DINING_DATE, REWARD_COUNT, BENEFIT_TOTAL) select DINING_MERCHANT_NUMBER, DINING_DATE, count(*), sum(REWARD_AMOUNT) from T_REWARD group by DINING_MERCHANT_NUMBER, DINING_DATE" };
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+	public void setDataSource(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * Sets the transaction boundary the summaries are rebuilt in. Defaults to no transaction at all, which is only
+	 * suitable for testing.
+	 * @param transactionOperations typically a TransactionTemplate
+	 */
+	public void setTransactionOperations(TransactionOperations transactionOperations) {
+		this.transactionOperations = transactionOperations;
+	}
+
+	/**
+	 * Adds rewards to the summaries, in the current transaction.
+	 * @param contributions the account contributions that were made
+	 * @param dinings the dining events that resulted in the account contributions, in the same order as the
+	 * contributions
+	 */
+	public void record(List<AccountContribution> contributions, List<Dining> dinings) {
+		Map<String, Increment> accounts = new TreeMap<String, Increment>();
+		Map<String, Increment> merchants = new TreeMap<String, Increment>();
+		Map<String, Map<Long, Increment>> merchantDays = new TreeMap<String, Map<Long, Increment>>();
+		for (int i = 0; i < contributions.size(); i++) {
+			AccountContribution contribution = contributions.get(i);
+			Dining dining = dinings.get(i);
+			long cents = contribution.getAmount().asCents();
+			accounts.computeIfAbsent(contribution.getAccountNumber(), number -> new Increment()).add(cents);
+			merchants.computeIfAbsent(dining.getMerchantNumber(), number -> new Increment()).add(cents);
+			merchantDays.computeIfAbsent(dining.getMerchantNumber(), number -> new TreeMap<Long, Increment>())
+				.computeIfAbsent(dining.getDate().inMilliseconds(), date -> new Increment()).add(cents);
+		}
+
+		List<Object[]> accountArgs = new ArrayList<Object[]>(accounts.size());
+		for (Map.Entry<String, Increment> account : accounts.entrySet()) {
+			accountArgs.add(account.getValue().toArgs(account.getKey()));
+		}
+		add(MERGE_ACCOUNT_SQL, accountArgs);
+
+		List<Object[]> merchantArgs = new ArrayList<Object[]>(merchants.size());
+		List<Object[]> merchantDayArgs = new ArrayList<Object[]>();
+		for (Map.Entry<String, Increment> merchant : merchants.entrySet()) {
+			merchantArgs.add(merchant.getValue().toArgs(merchant.getKey()));
+			for (Map.Entry<Long, Increment> day : merchantDays.get(merchant.getKey()).entrySet()) {
+				merchantDayArgs.add(day.getValue().toArgs(merchant.getKey(), new Date(day.getKey())));
+			}
+		}
+		add(MERGE_MERCHANT_SQL, merchantArgs);
+		add(MERGE_MERCHANT_DAY_SQL, merchantDayArgs);
+	}
+
+	/**
+	 * Recomputes the summaries from T_REWARD, in a single transaction.
+	 */
+	public void rebuild() {
+		transactionOperations.executeWithoutResult(status -> jdbcTemplate.batchUpdate(REBUILD_SQL));
+	}
+
+	public RewardTotal getAccountTotal(String accountNumber) {
+		List<RewardTotal> totals = jdbcTemplate.query(SELECT_ACCOUNT_SQL, (rs, rowNum) -> new RewardTotal(
+				accountNumber, rs.getInt("REWARD_COUNT"), new MonetaryAmount(rs.getBigDecimal("REWARD_TOTAL"))),
+				accountNumber);
+		return totals.isEmpty() ? new RewardTotal(accountNumber, 0, MonetaryAmount.zero()) : totals.get(0);
+	}
+
+	public MonetaryAmount getMerchantBenefit(String merchantNumber, SimpleDate date) {
+		List<BigDecimal> totals = jdbcTemplate.queryForList(SELECT_MERCHANT_DAY_SQL, BigDecimal.class, merchantNumber,
+				date.asDate());
+		return totals.isEmpty() ? MonetaryAmount.zero() : new MonetaryAmount(totals.get(0));
+	}
+
+	public List<RewardTotal> findTopMerchants(int count) {
+		return jdbcTemplate.query(SELECT_TOP_MERCHANTS_SQL, (rs, rowNum) -> new RewardTotal(
+				rs.getString("MERCHANT_NUMBER"), rs.getInt("REWARD_COUNT"),
+				new MonetaryAmount(rs.getBigDecimal("BENEFIT_TOTAL"))), count);
+	}
+
+	/**
+	 * Adds to the summary rows, or inserts the rows that do not exist yet, with a single batch of merges in key order.
+	 */
+	private void add(String mergeSql, List<Object[]> batchArgs) {
+		if (batchArgs.isEmpty()) {
+			return;
+		}
+		int[] merged = jdbcTemplate.batchUpdate(mergeSql, batchArgs);
+		for (int count : merged) {
+			if (count != Statement.SUCCESS_NO_INFO && count != 1) {
+				throw new IllegalStateException("Expected to merge one summary row; merged " + count);
+			}
+		}
+	}
+
+	/**
+	 * The rewards added to one summary row.
+	 */
+	private static class Increment {
+
+		private int count;
+
+		private long cents;
+
+		void add(long cents) {
+			this.count++;
+			this.cents += cents;
+		}
+
+		Object[] toArgs(String number) {
+			return new Object[] { count, MonetaryAmount.ofCents(cents).asBigDecimal(), number };
+		}
+
+		Object[] toArgs(String number, Date date) {
+			return new Object[] { count, MonetaryAmount.ofCents(cents).asBigDecimal(), number, date };
+		}
+	}
+}
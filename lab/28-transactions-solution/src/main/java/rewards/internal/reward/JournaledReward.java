@@ -0,0 +1,111 @@
+package rewards.internal.reward;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * A reward as recorded in the reward journal: the values of a T_REWARD row, with amounts in cents and dates in
+ * milliseconds since 1970. The dining key is null for a dining without a key.
+ */
+class JournaledReward {
+
+	private final String confirmationNumber;
+
+	private final long rewardAmountCents;
+
+	private final long rewardDate;
+
+	private final String accountNumber;
+
+	private final String merchantNumber;
+
+	private final long diningDate;
+
+	private final long diningAmountCents;
+
+	private final String diningKey;
+
+	JournaledReward(String confirmationNumber, long rewardAmountCents, long rewardDate, String accountNumber,
+			String merchantNumber, long diningDate, long diningAmountCents, String diningKey) {
+		this.confirmationNumber = confirmationNumber;
+		this.rewardAmountCents = rewardAmountCents;
+		this.rewardDate = rewardDate;
+		this.accountNumber = accountNumber;
+		this.merchantNumber = merchantNumber;
+		this.diningDate = diningDate;
+		this.diningAmountCents = diningAmountCents;
+		this.diningKey = diningKey;
+	}
+
+	String getConfirmationNumber() {
+		return confirmationNumber;
+	}
+
+	String getDiningKey() {
+		return diningKey;
+	}
+
+	/**
+	 * Returns the values of the T_REWARD insert, in the order of its columns.
+	 */
+	Object[] toInsertArgs() {
+		return new Object[] { confirmationNumber, BigDecimal.valueOf(rewardAmountCents, 2), new Date(rewardDate),
+				accountNumber, merchantNumber, new Date(diningDate), BigDecimal.valueOf(diningAmountCents, 2),
+				diningKey };
+	}
+
+	/**
+	 * Returns the encoded reward.
+	 */
+	byte[] encode() {
+		byte[] confirmation = confirmationNumber.getBytes(StandardCharsets.UTF_8);
+		byte[] account = accountNumber.getBytes(StandardCharsets.UTF_8);
+		byte[] merchant = merchantNumber.getBytes(StandardCharsets.UTF_8);
+		byte[] key = diningKey == null ? null : diningKey.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buffer = ByteBuffer.allocate(4 * Long.BYTES + 3 * Short.BYTES + confirmation.length
+				+ account.length + merchant.length + 1 + (key == null ? 0 : Short.BYTES + key.length));
+		putString(buffer, confirmation);
+		buffer.putLong(rewardAmountCents);
+		buffer.putLong(rewardDate);
+		putString(buffer, account);
+		putString(buffer, merchant);
+		buffer.putLong(diningDate);
+		buffer.putLong(diningAmountCents);
+		if (key == null) {
+			buffer.put((byte) 0);
+		} else {
+			buffer.put((byte) 1);
+			putString(buffer, key);
+		}
+		return buffer.array();
+	}
+
+	/**
+	 * Decodes a reward encoded by {@link #encode()}.
+	 */
+	static JournaledReward decode(ByteBuffer buffer) {
+		String confirmationNumber = getString(buffer);
+		long rewardAmountCents = buffer.getLong();
+		long rewardDate = buffer.getLong();
+		String accountNumber = getString(buffer);
+		String merchantNumber = getString(buffer);
+		long diningDate = buffer.getLong();
+		long diningAmountCents = buffer.getLong();
+		String diningKey = buffer.get() == 0 ? null : getString(buffer);
+		return new JournaledReward(confirmationNumber, rewardAmountCents, rewardDate, accountNumber, merchantNumber,
+				diningDate, diningAmountCents, diningKey);
+	}
+
+	private static void putString(ByteBuffer buffer, byte[] bytes) {
+		buffer.putShort((short) bytes.length);
+		buffer.put(bytes);
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,413 @@
+package rewards.internal.reward;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import rewards.AccountContribution;
+import rewards.Dining;
+import rewards.RewardConfirmation;
+
+import common.datetime.SimpleDate;
+
+/**
+ * A reward repository that confirms rewards without waiting for the database: rewards are appended to a
+ * {@link RewardJournal} on local disk, and written behind to T_REWARD in large batches by a background thread.
+ *
+ * A reward confirmed within a transaction is appended to the journal, and forced to disk, just before the transaction
+ * commits, so a journal that cannot be written rolls back the savings of the reward. Transactions committing at the
+ * same time share a force. The reward is only handed to the writer once the transaction has committed; should the
+ * transaction roll back instead, a tombstone is appended to the journal, so the reward is neither written behind nor
+ * recovered.
+ *
+ * A reward confirmed outside a transaction is appended right away and forced to disk with group commit: every flush
+ * interval, or sooner once flush records were appended since the last force, all records appended in the meantime
+ * are written to disk with a single force. The pending rewards are inserted into T_REWARD every drain interval, or
+ * sooner once a drain batch is pending, after which the journal segments holding only stored rewards are deleted.
+ *
+ * The key of a dining is stored with its reward, and must be unique, as in the {@link JdbcRewardRepository}: a
+ * dining is rejected with a DuplicateKeyException when its key is in T_REWARD, or belongs to a reward confirmed by
+ * this repository and not written yet, whose confirmation cannot be looked up in T_REWARD until it is.
+ *
+ * When started, the repository stores the rewards left in the journal by a previous run that stopped before writing
+ * them, for instance because it crashed, except the rewards it cancelled. Rewards are only inserted if their
+ * confirmation number is not in T_REWARD yet, so rewards written just before the crash are not stored twice.
+ */
+public class JournalingRewardRepository implements RewardRepository {
+
+	private static final Logger logger = LoggerFactory.getLogger(JournalingRewardRepository.class);
+
+	private static final String INSERT_REWARD_SQL = "insert into T_REWARD (CONFIRMATION_NUMBER, REWARD_AMOUNT, REWARD_DATE, ACCOUNT_NUMBER, DINING_MERCHANT_NUMBER, DINING_DATE, DINING_AMOUNT, DINING_KEY) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String SELECT_STORED_SQL = "select CONFIRMATION_NUMBER from T_REWARD where CONFIRMATION_NUMBER in (:confirmationNumbers)";
+
+	private static final String SELECT_STORED_KEYS_SQL = "select DINING_KEY from T_REWARD where DINING_KEY in (:keys)";
+
+	private JdbcTemplate jdbcTemplate;
+
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	private ConfirmationNumberAllocator confirmationNumberAllocator;
+
+	private Path directory;
+
+	private int segmentSize = 8 * 1024 * 1024;
+
+	private long flushIntervalMillis = 10;
+
+	private int flushRecords = 100;
+
+	private long drainIntervalMillis = 1000;
+
+	private int drainBatchSize = 1000;
+
+	private RewardJournal journal;
+
+	private Thread writer;
+
+	private volatile boolean running;
+
+	private final Object drainMonitor = new Object();
+
+	/**
+	 * The confirmation numbers of the rewards of dinings with a key that were confirmed but not written yet, by key.
+	 */
+	private final ConcurrentMap<String, String> unwrittenKeys = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Creates a new journaling reward repository.
+	 * @param dataSource the data source holding T_REWARD
+	 * @param directory the directory holding the journal
+	 */
+	public JournalingRewardRepository(DataSource dataSource, Path directory) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+		this.confirmationNumberAllocator = new SequenceConfirmationNumberAllocator(dataSource);
+		this.directory = directory;
+	}
+
+	/**
+	 * Sets the strategy for allocating confirmation numbers. Defaults to querying the confirmation number sequence
+	 * for every reward.
+	 * @param confirmationNumberAllocator the confirmation number allocator
+	 */
+	public void setConfirmationNumberAllocator(ConfirmationNumberAllocator confirmationNumberAllocator) {
+		this.confirmationNumberAllocator = confirmationNumberAllocator;
+	}
+
+	/**
+	 * Sets the size of a journal segment file in bytes. Defaults to 8 MB.
+	 */
+	public void setSegmentSize(int segmentSize) {
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * Sets the longest time a reward appended outside a transaction waits to be forced to disk. Defaults to 10
+	 * milliseconds.
+	 */
+	public void setFlushIntervalMillis(long flushIntervalMillis) {
+		this.flushIntervalMillis = flushIntervalMillis;
+	}
+
+	/**
+	 * Sets the number of rewards appended outside a transaction that are forced to disk without waiting for the flush
+	 * interval. Defaults to 100.
+	 */
+	public void setFlushRecords(int flushRecords) {
+		this.flushRecords = flushRecords;
+	}
+
+	/**
+	 * Sets the longest time a reward waits to be inserted into T_REWARD. Defaults to one second.
+	 */
+	public void setDrainIntervalMillis(long drainIntervalMillis) {
+		this.drainIntervalMillis = drainIntervalMillis;
+	}
+
+	/**
+	 * Sets the number of rewards inserted with a single batch, and the number of pending rewards that are inserted
+	 * without waiting for the drain interval. Defaults to 1000.
+	 */
+	public void setDrainBatchSize(int drainBatchSize) {
+		this.drainBatchSize = drainBatchSize;
+	}
+
+	/**
+	 * Stores the rewards left in the journal by a previous run, then starts writing rewards behind.
+	 */
+	@PostConstruct
+	public void start() throws IOException {
+		journal = new RewardJournal(directory, segmentSize);
+		List<JournaledReward> unwritten = journal.open();
+		if (!unwritten.isEmpty()) {
+			logger.info("Recovering {} rewards from the reward journal in {}", unwritten.size(), directory);
+			insertUnstored(unwritten);
+		}
+		journal.deleteSegmentsBefore(journal.getSegmentNumber());
+		running = true;
+		writer = new Thread(this::writeBehind, "reward-journal-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Stops writing behind, after storing all pending rewards.
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException, IOException {
+		if (writer == null) {
+			return;
+		}
+		running = false;
+		LockSupport.unpark(writer);
+		writer.join();
+		writer = null;
+		journal.force();
+		drain();
+		journal.close();
+	}
+
+	public RewardConfirmation confirmReward(AccountContribution contribution, Dining dining) {
+		String confirmationNumber = confirmationNumberAllocator.nextConfirmationNumber();
+		journal(Collections.singletonList(
+				toJournaledReward(confirmationNumber, contribution, dining, SimpleDate.today())));
+		return new RewardConfirmation(confirmationNumber, contribution);
+	}
+
+	public List<RewardConfirmation> confirmRewards(List<AccountContribution> contributions, List<Dining> dinings) {
+		if (contributions.size() != dinings.size()) {
+			throw new IllegalArgumentException("Expected a dining for each of the " + contributions.size()
+					+ " contributions; got " + dinings.size());
+		}
+		List<RewardConfirmation> confirmations = new ArrayList<RewardConfirmation>(contributions.size());
+		List<JournaledReward> rewards = new ArrayList<JournaledReward>(contributions.size());
+		SimpleDate rewardDate = SimpleDate.today();
+		for (int i = 0; i < contributions.size(); i++) {
+			AccountContribution contribution = contributions.get(i);
+			String confirmationNumber = confirmationNumberAllocator.nextConfirmationNumber();
+			rewards.add(toJournaledReward(confirmationNumber, contribution, dinings.get(i), rewardDate));
+			confirmations.add(new RewardConfirmation(confirmationNumber, contribution));
+		}
+		if (!rewards.isEmpty()) {
+			journal(rewards);
+		}
+		return confirmations;
+	}
+
+	/**
+	 * Inserts all pending rewards into T_REWARD now, then deletes the journal segments that only hold stored rewards.
+	 */
+	public void drain() throws IOException {
+		synchronized (drainMonitor) {
+			RewardJournal.Pending pending = journal.takePending();
+			try {
+				insertUnstored(pending.getRewards());
+			} catch (RuntimeException e) {
+				journal.restorePending(pending.getRewards());
+				throw e;
+			}
+			journal.deleteSegmentsBefore(pending.getSegmentNumber());
+		}
+	}
+
+	/**
+	 * Returns the number of rewards not inserted into T_REWARD yet.
+	 */
+	public int getPendingCount() {
+		return journal == null ? 0 : journal.getPendingCount();
+	}
+
+	private JournaledReward toJournaledReward(String confirmationNumber, AccountContribution contribution,
+			Dining dining, SimpleDate rewardDate) {
+		return new JournaledReward(confirmationNumber, contribution.getAmount().asCents(),
+				rewardDate.inMilliseconds(), contribution.getAccountNumber(), dining.getMerchantNumber(),
+				dining.getDate().inMilliseconds(), dining.getAmount().asCents(), dining.getKey());
+	}
+
+	/**
+	 * Journals rewards: before the current transaction commits, or right away without a transaction.
+	 */
+	private void journal(List<JournaledReward> rewards) {
+		if (writer == null) {
+			throw new IllegalStateException("The reward repository has not been started");
+		}
+		reserveKeys(rewards);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				private RewardJournal.Held held;
+
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					try {
+						held = journal.hold(rewards);
+						journal.forceThrough(held.getAppendedCount());
+					} catch (IOException | UncheckedIOException e) {
+						throw new DataAccessResourceFailureException("Unable to write to the reward journal in "
+								+ directory, e);
+					}
+				}
+
+				@Override
+				public void afterCommit() {
+					journal.release(held);
+					wakeWriter();
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					if (status == STATUS_COMMITTED) {
+						return;
+					}
+					if (status == STATUS_UNKNOWN && held != null) {
+						logger.error("The transaction of {} journaled rewards, starting with confirmation number {}, "
+								+ "may not have committed; they are written behind regardless", rewards.size(),
+								rewards.get(0).getConfirmationNumber());
+						journal.release(held);
+						return;
+					}
+					releaseKeys(rewards);
+					if (held != null) {
+						cancel(held);
+					}
+				}
+			});
+		} else {
+			try {
+				for (JournaledReward reward : rewards) {
+					journal.append(reward);
+				}
+			} catch (IOException e) {
+				throw new DataAccessResourceFailureException("Unable to append to the reward journal in " + directory,
+						e);
+			}
+			wakeWriter();
+		}
+	}
+
+	/**
+	 * Appends tombstones for the rewards of a rolled back transaction, forced to disk, so they are not recovered.
+	 */
+	private void cancel(RewardJournal.Held held) {
+		try {
+			journal.forceThrough(journal.cancel(held));
+		} catch (IOException | UncheckedIOException e) {
+			logger.error("Unable to cancel " + held.getRewards().size() + " rolled back rewards, starting with "
+					+ "confirmation number " + held.getRewards().get(0).getConfirmationNumber()
+					+ "; they are stored when the journal is recovered", e);
+		}
+	}
+
+	/**
+	 * Makes sure no other reward with the key of one of the given rewards is stored or about to be, and keeps the
+	 * others from being stored until these are written or rolled back.
+	 * @throws DuplicateKeyException if a reward has the key of a stored or unwritten reward
+	 */
+	private void reserveKeys(List<JournaledReward> rewards) {
+		List<String> keys = new ArrayList<String>();
+		try {
+			for (JournaledReward reward : rewards) {
+				String key = reward.getDiningKey();
+				if (key != null) {
+					if (unwrittenKeys.putIfAbsent(key, reward.getConfirmationNumber()) != null) {
+						throw new DuplicateKeyException("A reward of the dining with key '" + key
+								+ "' is being written");
+					}
+					keys.add(key);
+				}
+			}
+			if (!keys.isEmpty()) {
+				List<String> stored = namedParameterJdbcTemplate.queryForList(SELECT_STORED_KEYS_SQL,
+						Collections.singletonMap("keys", keys), String.class);
+				if (!stored.isEmpty()) {
+					throw new DuplicateKeyException("A reward of the dining with key '" + stored.get(0)
+							+ "' is stored");
+				}
+			}
+		} catch (RuntimeException e) {
+			releaseKeys(rewards);
+			throw e;
+		}
+	}
+
+	private void releaseKeys(List<JournaledReward> rewards) {
+		for (JournaledReward reward : rewards) {
+			if (reward.getDiningKey() != null) {
+				unwrittenKeys.remove(reward.getDiningKey(), reward.getConfirmationNumber());
+			}
+		}
+	}
+
+	private void wakeWriter() {
+		if (journal.getUnforcedCount() >= flushRecords || journal.getPendingCount() >= drainBatchSize) {
+			LockSupport.unpark(writer);
+		}
+	}
+
+	private void writeBehind() {
+		long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+		long drainIntervalNanos = TimeUnit.MILLISECONDS.toNanos(drainIntervalMillis);
+		long lastDrain = System.nanoTime();
+		while (running) {
+			LockSupport.parkNanos(this, flushIntervalNanos);
+			try {
+				journal.force();
+				if (journal.getPendingCount() >= drainBatchSize || System.nanoTime() - lastDrain >= drainIntervalNanos) {
+					drain();
+					lastDrain = System.nanoTime();
+				}
+			} catch (RuntimeException | IOException e) {
+				// the rewards stay pending in the journal; the next drain tries again
+				logger.warn("Unable to write rewards behind", e);
+			}
+		}
+	}
+
+	/**
+	 * Inserts the rewards whose confirmation number is not in T_REWARD yet.
+	 */
+	private void insertUnstored(List<JournaledReward> rewards) {
+		for (int from = 0; from < rewards.size(); from += drainBatchSize) {
+			List<JournaledReward> batch = rewards.subList(from, Math.min(from + drainBatchSize, rewards.size()));
+			List<String> confirmationNumbers = new ArrayList<String>(batch.size());
+			for (JournaledReward reward : batch) {
+				confirmationNumbers.add(reward.getConfirmationNumber());
+			}
+			Set<String> stored = new HashSet<String>(namedParameterJdbcTemplate.queryForList(SELECT_STORED_SQL,
+					Collections.singletonMap("confirmationNumbers", confirmationNumbers), String.class));
+			List<Object[]> batchArgs = new ArrayList<Object[]>(batch.size());
+			for (JournaledReward reward : batch) {
+				if (!stored.contains(reward.getConfirmationNumber())) {
+					batchArgs.add(reward.toInsertArgs());
+				}
+			}
+			if (!batchArgs.isEmpty()) {
+				jdbcTemplate.batchUpdate(INSERT_REWARD_SQL, batchArgs);
+			}
+			releaseKeys(batch);
+		}
+	}
+}
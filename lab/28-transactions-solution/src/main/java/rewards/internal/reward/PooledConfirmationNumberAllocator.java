@@ -0,0 +1,114 @@
+package rewards.internal.reward;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Allocates confirmation numbers from blocks reserved in advance from the S_REWARD_CONFIRMATION_NUMBER sequence.
+ *
+ * The sequence is incremented by the block size, so each value it returns starts a block of its own: a single
+ * increment reserves a whole block, whatever its size. The numbers of the current block are then handed out from
+ * memory without locking; only the thread that finds the block exhausted goes back to the database, while the other
+ * threads wait for the new block.
+ *
+ * Every block starts at a value of the database sequence, so numbers stay unique across restarts and across nodes,
+ * even nodes that still query the sequence once per reward and so use only the first number of their block. All
+ * nodes must use a block size equal to the increment of the sequence; the first block reserved verifies it. Numbers
+ * of a block that was not used up before shutdown are lost, leaving gaps; confirmation numbers are not required to be
+ * contiguous.
+ */
+public class PooledConfirmationNumberAllocator implements ConfirmationNumberAllocator {
+
+	private static final String NEXT_BLOCK_SQL = "select next value for S_REWARD_CONFIRMATION_NUMBER from DUAL_REWARD_CONFIRMATION_NUMBER";
+
+	private static final String SELECT_INCREMENT_SQL = "select INCREMENT from INFORMATION_SCHEMA.SEQUENCES where SEQUENCE_NAME = 'S_REWARD_CONFIRMATION_NUMBER'";
+
+	private JdbcTemplate jdbcTemplate;
+
+	private int blockSize;
+
+	private volatile Block block = new Block(0, 0);
+
+	private boolean incrementVerified;
+
+	private final Object reserveMonitor = new Object();
+
+	/**
+	 * Creates a new pooled allocator.
+	 * @param dataSource the data source holding the confirmation number sequence
+	 * @param blockSize the number of confirmation numbers to reserve with each database round-trip; must equal the
+	 * increment of the sequence
+	 */
+	public PooledConfirmationNumberAllocator(DataSource dataSource, int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("The block size must be positive; your value was " + blockSize);
+		}
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.blockSize = blockSize;
+	}
+
+	public String nextConfirmationNumber() {
+		while (true) {
+			Block current = block;
+			long number = current.next();
+			if (number >= 0) {
+				return Long.toString(number);
+			}
+			synchronized (reserveMonitor) {
+				// another thread may have replaced the exhausted block while this one was waiting
+				if (block == current) {
+					block = reserveBlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of confirmation numbers reserved with each database round-trip.
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	private Block reserveBlock() {
+		if (!incrementVerified) {
+			Long increment = jdbcTemplate.queryForObject(SELECT_INCREMENT_SQL, Long.class);
+			if (increment == null || increment != blockSize) {
+				throw new IllegalStateException("The block size " + blockSize + " differs from the increment "
+						+ increment + " of S_REWARD_CONFIRMATION_NUMBER, so blocks would overlap; alter the sequence "
+						+ "to increment by the block size");
+			}
+			incrementVerified = true;
+		}
+		Long start = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL, Long.class);
+		return new Block(start, blockSize);
+	}
+
+	/**
+	 * A block of reserved confirmation numbers, handed out in order by atomically advancing an offset.
+	 */
+	private static class Block {
+
+		private final long start;
+
+		private final int size;
+
+		private final AtomicInteger next = new AtomicInteger();
+
+		Block(long start, int size) {
+			this.start = start;
+			this.size = size;
+		}
+
+		/**
+		 * Returns the next number of this block, or -1 if the block is exhausted.
+		 */
+		long next() {
+			int offset = next.getAndIncrement();
+			return offset < size ? start + offset : -1;
+		}
+	}
+}
@@ -0,0 +1,414 @@
+package rewards.internal.reward;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of rewards, written to memory-mapped segment files in a directory.
+ *
+ * Appending a reward copies it into the mapped segment, which costs no system call; {@link #force()} writes the
+ * rewards appended since the last force to disk at once. Threads that need their rewards on disk force the journal
+ * through them with {@link #forceThrough(long)}: while one thread forces, the others wait, and the next force writes
+ * all the rewards appended in the meantime, so concurrent threads share the cost of a force. When a segment is full,
+ * the next segment is started. A segment can be deleted once all its rewards are stored elsewhere.
+ *
+ * A reward is either pending as soon as it is appended, or held, for instance until the transaction it belongs to
+ * completes: a held reward is made pending with {@link #release(Held)}, or cancelled with {@link #cancel(Held)},
+ * which appends a tombstone so the reward is not recovered when the journal is opened again. The segment of a held
+ * reward is not deleted until it is released or cancelled.
+ *
+ * Each record is the length of its payload, the CRC32 checksum of the payload and the payload: a byte telling a reward
+ * from a tombstone, followed by the encoded reward or the confirmation number of the cancelled reward. A new segment
+ * is filled with zeros, so a zero length marks the end of the records. A record whose checksum does not match, the
+ * remains of a write interrupted by a crash, ends the segment as well.
+ */
+class RewardJournal implements Closeable {
+
+	private static final String SEGMENT_PREFIX = "rewards-";
+
+	private static final String SEGMENT_SUFFIX = ".journal";
+
+	private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+	private static final byte REWARD = 1;
+
+	private static final byte TOMBSTONE = 2;
+
+	private final Path directory;
+
+	private final int segmentSize;
+
+	private long segmentNumber;
+
+	private FileChannel channel;
+
+	private MappedByteBuffer segment;
+
+	private List<JournaledReward> pending = new ArrayList<JournaledReward>();
+
+	private long appended;
+
+	private long forced;
+
+	private boolean forcing;
+
+	/**
+	 * The number of held rewards by the segment the first of them was appended to.
+	 */
+	private final TreeMap<Long, Integer> heldSegments = new TreeMap<Long, Integer>();
+
+	/**
+	 * Creates a journal in the given directory, creating the directory if needed.
+	 * @param directory the directory holding the segment files
+	 * @param segmentSize the size of a segment file in bytes
+	 */
+	RewardJournal(Path directory, int segmentSize) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * Opens the journal for appending, in a new segment after the segments left by a previous run.
+	 * @return the rewards in the segments left by a previous run that were not cancelled, in the order they were
+	 * appended
+	 */
+	synchronized List<JournaledReward> open() throws IOException {
+		List<JournaledReward> rewards = new ArrayList<JournaledReward>();
+		Set<String> cancelled = new HashSet<String>();
+		long lastSegmentNumber = 0;
+		for (Map.Entry<Long, Path> existing : segments().entrySet()) {
+			read(existing.getValue(), rewards, cancelled);
+			lastSegmentNumber = existing.getKey();
+		}
+		startSegment(lastSegmentNumber + 1);
+		if (!cancelled.isEmpty()) {
+			rewards.removeIf(reward -> cancelled.contains(reward.getConfirmationNumber()));
+		}
+		return rewards;
+	}
+
+	/**
+	 * Appends a reward, which stays pending until taken with {@link #takePending()}.
+	 * @return the number of records appended since the journal was opened, including this one
+	 */
+	synchronized long append(JournaledReward reward) throws IOException {
+		appendRecord(REWARD, reward.encode());
+		pending.add(reward);
+		return appended;
+	}
+
+	/**
+	 * Appends rewards that are held until they are released or cancelled.
+	 * @return the held rewards
+	 */
+	synchronized Held hold(List<JournaledReward> rewards) throws IOException {
+		long firstSegmentNumber = segmentNumber;
+		for (int i = 0; i < rewards.size(); i++) {
+			try {
+				appendRecord(REWARD, rewards.get(i).encode());
+			} catch (IOException | RuntimeException e) {
+				cancelAppended(rewards.subList(0, i), e);
+				throw e;
+			}
+			if (i == 0) {
+				// appending may have started a new segment
+				firstSegmentNumber = segmentNumber;
+			}
+		}
+		heldSegments.merge(firstSegmentNumber, 1, Integer::sum);
+		return new Held(rewards, firstSegmentNumber, appended);
+	}
+
+	/**
+	 * Makes held rewards pending.
+	 */
+	synchronized void release(Held held) {
+		unhold(held);
+		pending.addAll(held.rewards);
+	}
+
+	/**
+	 * Cancels held rewards, appending a tombstone for each of them.
+	 * @return the number of records appended since the journal was opened, including the tombstones
+	 */
+	synchronized long cancel(Held held) throws IOException {
+		unhold(held);
+		for (JournaledReward reward : held.rewards) {
+			appendRecord(TOMBSTONE, reward.getConfirmationNumber().getBytes(StandardCharsets.UTF_8));
+		}
+		return appended;
+	}
+
+	/**
+	 * Writes the records appended since the last force to disk. Appending continues while the disk is written.
+	 */
+	void force() {
+		forceThrough(getAppendedCount());
+	}
+
+	/**
+	 * Makes sure the given number of records first appended are on disk, forcing the journal if they are not, or
+	 * waiting for a force in progress.
+	 * @param count the number of records, as returned by {@link #append(JournaledReward)} or
+	 * {@link Held#getAppendedCount()}
+	 */
+	void forceThrough(long count) {
+		MappedByteBuffer current;
+		long through;
+		synchronized (this) {
+			boolean interrupted = false;
+			while (forcing && forced < count) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (forced >= count || forced == appended) {
+				return;
+			}
+			forcing = true;
+			current = segment;
+			through = appended;
+		}
+		boolean done = false;
+		try {
+			// the segments before the current one were forced when they were completed
+			current.force();
+			done = true;
+		} finally {
+			synchronized (this) {
+				forcing = false;
+				if (done) {
+					forced = through;
+				}
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of records appended since the journal was opened.
+	 */
+	synchronized long getAppendedCount() {
+		return appended;
+	}
+
+	/**
+	 * Returns the number of records appended since the last force.
+	 */
+	synchronized long getUnforcedCount() {
+		return appended - forced;
+	}
+
+	/**
+	 * Returns the number of the segment rewards are appended to.
+	 */
+	synchronized long getSegmentNumber() {
+		return segmentNumber;
+	}
+
+	/**
+	 * Returns the number of pending rewards.
+	 */
+	synchronized int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * Takes the rewards made pending since they were last taken.
+	 */
+	synchronized Pending takePending() {
+		long deletableBefore = heldSegments.isEmpty() ? segmentNumber : Math.min(segmentNumber, heldSegments.firstKey());
+		Pending taken = new Pending(pending, deletableBefore);
+		pending = new ArrayList<JournaledReward>();
+		return taken;
+	}
+
+	/**
+	 * Puts rewards taken before back in front of the pending rewards, for instance when they could not be stored.
+	 */
+	synchronized void restorePending(List<JournaledReward> rewards) {
+		List<JournaledReward> restored = new ArrayList<JournaledReward>(rewards);
+		restored.addAll(pending);
+		pending = restored;
+	}
+
+	/**
+	 * Deletes the segments before the given segment.
+	 */
+	void deleteSegmentsBefore(long segmentNumber) throws IOException {
+		for (Path path : segments().headMap(segmentNumber).values()) {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	public synchronized void close() throws IOException {
+		if (channel != null) {
+			segment.force();
+			forced = appended;
+			notifyAll();
+			channel.close();
+			channel = null;
+		}
+	}
+
+	private void appendRecord(byte kind, byte[] bytes) throws IOException {
+		int length = 1 + bytes.length;
+		if (HEADER_SIZE + length > segmentSize) {
+			throw new IllegalArgumentException("A record of " + length + " bytes does not fit in a segment of "
+					+ segmentSize + " bytes");
+		}
+		if (segment.remaining() < HEADER_SIZE + length) {
+			segment.force();
+			channel.close();
+			startSegment(segmentNumber + 1);
+		}
+		CRC32 checksum = new CRC32();
+		checksum.update(kind);
+		checksum.update(bytes);
+		segment.putInt(length);
+		segment.putInt((int) checksum.getValue());
+		segment.put(kind);
+		segment.put(bytes);
+		appended++;
+	}
+
+	/**
+	 * Appends tombstones for the rewards appended before holding them failed, so they are not recovered.
+	 */
+	private void cancelAppended(List<JournaledReward> rewards, Exception failure) {
+		try {
+			for (JournaledReward reward : rewards) {
+				appendRecord(TOMBSTONE, reward.getConfirmationNumber().getBytes(StandardCharsets.UTF_8));
+			}
+		} catch (IOException | RuntimeException e) {
+			failure.addSuppressed(e);
+		}
+	}
+
+	private void unhold(Held held) {
+		heldSegments.computeIfPresent(held.segmentNumber, (number, count) -> count == 1 ? null : count - 1);
+	}
+
+	private void startSegment(long number) throws IOException {
+		Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+		channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		segmentNumber = number;
+	}
+
+	private TreeMap<Long, Path> segments() throws IOException {
+		TreeMap<Long, Path> segments = new TreeMap<Long, Path>();
+		try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (Path path : paths) {
+				String name = path.getFileName().toString();
+				segments.put(Long.valueOf(name.substring(SEGMENT_PREFIX.length(),
+						name.length() - SEGMENT_SUFFIX.length())), path);
+			}
+		}
+		return segments;
+	}
+
+	private static void read(Path path, List<JournaledReward> rewards, Set<String> cancelled) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			while (buffer.remaining() >= HEADER_SIZE) {
+				int length = buffer.getInt();
+				int checksum = buffer.getInt();
+				if (length <= 0 || length > buffer.remaining()) {
+					return;
+				}
+				byte[] bytes = new byte[length];
+				buffer.get(bytes);
+				CRC32 crc = new CRC32();
+				crc.update(bytes);
+				if ((int) crc.getValue() != checksum) {
+					return;
+				}
+				ByteBuffer payload = ByteBuffer.wrap(bytes, 1, length - 1);
+				if (bytes[0] == TOMBSTONE) {
+					cancelled.add(new String(bytes, 1, length - 1, StandardCharsets.UTF_8));
+				} else {
+					rewards.add(JournaledReward.decode(payload));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rewards appended together and held, with the segment the first of them was appended to.
+	 */
+	static class Held {
+
+		private final List<JournaledReward> rewards;
+
+		private final long segmentNumber;
+
+		private final long appendedCount;
+
+		Held(List<JournaledReward> rewards, long segmentNumber, long appendedCount) {
+			this.rewards = rewards;
+			this.segmentNumber = segmentNumber;
+			this.appendedCount = appendedCount;
+		}
+
+		List<JournaledReward> getRewards() {
+			return rewards;
+		}
+
+		/**
+		 * Returns the number of records appended to the journal up to and including the last of these rewards, to
+		 * force the journal through.
+		 */
+		long getAppendedCount() {
+			return appendedCount;
+		}
+	}
+
+	/**
+	 * Rewards taken from the journal, with the first segment that may still hold rewards not taken.
+	 */
+	static class Pending {
+
+		private final List<JournaledReward> rewards;
+
+		private final long segmentNumber;
+
+		Pending(List<JournaledReward> rewards, long segmentNumber) {
+			this.rewards = rewards;
+			this.segmentNumber = segmentNumber;
+		}
+
+		List<JournaledReward> getRewards() {
+			return rewards;
+		}
+
+		/**
+		 * Returns the first segment that may still hold rewards not taken; all the rewards of earlier segments were
+		 * taken.
+		 */
+		long getSegmentNumber() {
+			return segmentNumber;
+		}
+	}
+}
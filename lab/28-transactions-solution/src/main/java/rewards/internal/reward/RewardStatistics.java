@@ -0,0 +1,35 @@
+package rewards.internal.reward;
+
+import java.util.List;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+
+/**
+ * Answers reporting questions about the rewards made, from summaries kept up to date as rewards are confirmed rather
+ * than by scanning all rewards.
+ */
+public interface RewardStatistics {
+
+	/**
+	 * Returns the rewards made for an account.
+	 * @param accountNumber the account number
+	 * @return the number and total amount of the account's rewards; none if the account was never rewarded
+	 */
+	public RewardTotal getAccountTotal(String accountNumber);
+
+	/**
+	 * Returns the benefit a merchant paid for the dinings of a day.
+	 * @param merchantNumber the merchant number of the restaurant
+	 * @param date the date of the dinings
+	 * @return the total amount of the rewards for those dinings; zero if there were none
+	 */
+	public MonetaryAmount getMerchantBenefit(String merchantNumber, SimpleDate date);
+
+	/**
+	 * Returns the merchants that paid the most benefit, most first.
+	 * @param count the number of merchants to return at most
+	 * @return the number and total amount of the rewards of each merchant
+	 */
+	public List<RewardTotal> findTopMerchants(int count);
+}
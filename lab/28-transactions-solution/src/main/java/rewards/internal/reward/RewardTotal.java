@@ -0,0 +1,66 @@
+package rewards.internal.reward;
+
+import common.money.MonetaryAmount;
+
+/**
+ * The number of rewards made for an account or at a merchant, and their total amount.
+ *
+ * A value object. Immutable.
+ */
+public class RewardTotal {
+
+	private final String number;
+
+	private final int count;
+
+	private final MonetaryAmount amount;
+
+	/**
+	 * Creates a new reward total.
+	 * @param number the account or merchant number the rewards were made for or at
+	 * @param count the number of rewards
+	 * @param amount the total amount of the rewards
+	 */
+	public RewardTotal(String number, int count, MonetaryAmount amount) {
+		this.number = number;
+		this.count = count;
+		this.amount = amount;
+	}
+
+	/**
+	 * Returns the account or merchant number the rewards were made for or at.
+	 */
+	public String getNumber() {
+		return number;
+	}
+
+	/**
+	 * Returns the number of rewards.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the total amount of the rewards.
+	 */
+	public MonetaryAmount getAmount() {
+		return amount;
+	}
+
+	public boolean equals(Object o) {
+		if (!(o instanceof RewardTotal)) {
+			return false;
+		}
+		RewardTotal other = (RewardTotal) o;
+		return number.equals(other.number) && count == other.count && amount.equals(other.amount);
+	}
+
+	public int hashCode() {
+		return number.hashCode() * 31 + count;
+	}
+
+	public String toString() {
+		return count + " rewards of " + number + " totaling " + amount;
+	}
+}
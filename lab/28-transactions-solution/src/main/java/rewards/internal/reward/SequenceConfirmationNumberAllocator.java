@@ -0,0 +1,23 @@
+package rewards.internal.reward;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Allocates each confirmation number with its own query of the S_REWARD_CONFIRMATION_NUMBER sequence. Simple, but
+ * costs a database round-trip per reward.
+ */
+public class SequenceConfirmationNumberAllocator implements ConfirmationNumberAllocator {
+
+	private JdbcTemplate jdbcTemplate;
+
+	public SequenceConfirmationNumberAllocator(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	public String nextConfirmationNumber() {
+		String sql = "select next value for S_REWARD_CONFIRMATION_NUMBER from DUAL_REWARD_CONFIRMATION_NUMBER";
+		return jdbcTemplate.queryForObject(sql, String.class);
+	}
+}
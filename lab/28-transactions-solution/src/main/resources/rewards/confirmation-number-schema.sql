@@ -0,0 +1,3 @@
+-- Confirmation numbers are reserved a block at a time: each value of the sequence starts a block of
+-- rewards.confirmation-number.block-size numbers, so the sequence is incremented by the block size
+alter sequence S_REWARD_CONFIRMATION_NUMBER restart with 1 increment by 100;
@@ -0,0 +1,10 @@
+-- The reward statistics of JdbcRewardStatistics, summarizing T_REWARD
+drop table T_REWARD_ACCOUNT_SUMMARY if exists;
+drop table T_REWARD_MERCHANT_SUMMARY if exists;
+drop table T_REWARD_MERCHANT_DAY if exists;
+
+create table T_REWARD_ACCOUNT_SUMMARY (ACCOUNT_NUMBER varchar(9) primary key, REWARD_COUNT integer not null, REWARD_TOTAL decimal(12,2) not null);
+create table T_REWARD_MERCHANT_SUMMARY (MERCHANT_NUMBER varchar(10) primary key, REWARD_COUNT integer not null, BENEFIT_TOTAL decimal(12,2) not null);
+create table T_REWARD_MERCHANT_DAY (MERCHANT_NUMBER varchar(10) not null, DINING_DATE date not null, REWARD_COUNT integer not null, BENEFIT_TOTAL decimal(12,2) not null, primary key (MERCHANT_NUMBER, DINING_DATE));
+
+create index IX_REWARD_MERCHANT_SUMMARY_TOTAL on T_REWARD_MERCHANT_SUMMARY(BENEFIT_TOTAL desc, MERCHANT_NUMBER);
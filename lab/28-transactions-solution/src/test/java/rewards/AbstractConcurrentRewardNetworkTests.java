@@ -0,0 +1,135 @@
+package rewards;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import common.money.MonetaryAmount;
+import common.money.Percentage;
+
+/**
+ * A multithreaded stress test verifying that no savings updates are lost when many dinings of the same accounts are
+ * rewarded at the same time. Subclasses configure how the reward network prevents lost updates.
+ *
+ * The test adds a credit card and commits rewards to the context's database, so the context is closed, and its
+ * database dropped, after the test.
+ */
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public abstract class AbstractConcurrentRewardNetworkTests {
+
+	private static final int THREADS = 8;
+
+	private static final int DININGS_PER_THREAD = 40;
+
+	/**
+	 * The credit cards dined with: account 123456789 (2 beneficiaries), account 123456003 with two credit cards
+	 * (4 beneficiaries) and account 123456017 (1 beneficiary).
+	 */
+	private static final List<String> CREDIT_CARDS = Arrays.asList(
+			"1234123412341234", "1234123412340003", "1234123412349999", "1234123412340017");
+
+	@Autowired
+	RewardNetwork rewardNetwork;
+
+	@Autowired
+	DataSource dataSource;
+
+	JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	public void setUp() {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.update("delete from T_ACCOUNT_CREDIT_CARD where NUMBER = ?", "1234123412349999");
+		jdbcTemplate.update("insert into T_ACCOUNT_CREDIT_CARD (ACCOUNT_ID, NUMBER) values (3, ?)", "1234123412349999");
+	}
+
+	@Test
+	public void testConcurrentRewardsLoseNoSavings() throws Exception {
+		Map<String, Beneficiary> initialSavings = savingsByBeneficiary();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int thread = 0; thread < THREADS; thread++) {
+				int offset = thread;
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < DININGS_PER_THREAD; i++) {
+						String creditCard = CREDIT_CARDS.get((offset + i) % CREDIT_CARDS.size());
+						rewardNetwork.rewardAccountFor(Dining.createDining("100.00", creditCard, "1234567890"));
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// every dining contributed 8.00 (8% of 100.00), split by allocation percentage; the account with two credit
+		// cards got twice as many
+		int diningsPerCard = THREADS * DININGS_PER_THREAD / CREDIT_CARDS.size();
+		Map<String, Integer> dinings = new HashMap<String, Integer>();
+		dinings.put("123456789", diningsPerCard);
+		dinings.put("123456003", 2 * diningsPerCard);
+		dinings.put("123456017", diningsPerCard);
+		Map<String, Beneficiary> savings = savingsByBeneficiary();
+		for (Map.Entry<String, Beneficiary> entry : initialSavings.entrySet()) {
+			Beneficiary initial = entry.getValue();
+			int accountDinings = dinings.getOrDefault(initial.accountNumber, 0);
+			MonetaryAmount contribution = MonetaryAmount.ofCents(800).multiplyBy(initial.allocationPercentage);
+			assertEquals(initial.savings.add(contribution.multiplyBy(BigDecimal.valueOf(accountDinings))),
+					savings.get(entry.getKey()).savings, entry.getKey());
+		}
+	}
+
+	private Map<String, Beneficiary> savingsByBeneficiary() {
+		String sql = "select a.NUMBER, b.NAME, b.ALLOCATION_PERCENTAGE, b.SAVINGS from T_ACCOUNT a"
+				+ " join T_ACCOUNT_BENEFICIARY b on b.ACCOUNT_ID = a.ID";
+		Map<String, Beneficiary> savings = new HashMap<String, Beneficiary>();
+		jdbcTemplate.query(sql, rs -> {
+			Beneficiary beneficiary = new Beneficiary(rs.getString(1), new Percentage(rs.getBigDecimal(3)),
+					new MonetaryAmount(rs.getBigDecimal(4)));
+			savings.put(rs.getString(1) + "/" + rs.getString(2), beneficiary);
+		});
+		return savings;
+	}
+
+	private static class Beneficiary {
+
+		final String accountNumber;
+
+		final Percentage allocationPercentage;
+
+		final MonetaryAmount savings;
+
+		Beneficiary(String accountNumber, Percentage allocationPercentage, MonetaryAmount savings) {
+			this.accountNumber = accountNumber;
+			this.allocationPercentage = allocationPercentage;
+			this.savings = savings;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package rewards;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import common.money.MonetaryAmount;
+
+/**
+ * A load test of the asynchronous reward network: a thousand callers hand over a dining each at the same time, all
+ * of which are rewarded, with no savings lost, by the few threads the network uses.
+ */
+@SpringJUnitConfig(classes = { SystemTestConfig.class })
+@TestPropertySource(properties = "rewards.async.enabled=true")
+public class AsyncRewardNetworkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(AsyncRewardNetworkTests.class);
+
+	private static final int CALLERS = 1000;
+
+	private static final List<String> CREDIT_CARDS = Arrays.asList(
+			"1234123412341234", "1234123412340003", "1234123412340017");
+
+	@Autowired
+	AsyncRewardNetwork asyncRewardNetwork;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Test
+	public void testConcurrentCallers() throws Exception {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		String savingsSql = "select sum(SAVINGS) from T_ACCOUNT_BENEFICIARY where ACCOUNT_ID in (0, 3, 17)";
+		MonetaryAmount initialSavings = new MonetaryAmount(jdbcTemplate.queryForObject(savingsSql, BigDecimal.class));
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<CompletableFuture<RewardConfirmation>> confirmations = new ArrayList<CompletableFuture<RewardConfirmation>>();
+		List<Thread> callers = new ArrayList<Thread>();
+		for (int i = 0; i < CALLERS; i++) {
+			String creditCard = CREDIT_CARDS.get(i % CREDIT_CARDS.size());
+			CompletableFuture<RewardConfirmation> confirmation = new CompletableFuture<RewardConfirmation>();
+			confirmations.add(confirmation);
+			Thread caller = new Thread(() -> {
+				try {
+					start.await();
+					asyncRewardNetwork.rewardAccountFor(Dining.createDining("100.00", creditCard, "1234567890"))
+						.whenComplete((result, failure) -> {
+							if (failure != null) {
+								confirmation.completeExceptionally(failure);
+							} else {
+								confirmation.complete(result);
+							}
+						});
+				} catch (InterruptedException e) {
+					confirmation.completeExceptionally(e);
+				}
+			});
+			caller.start();
+			callers.add(caller);
+		}
+		long startTime = System.nanoTime();
+		start.countDown();
+		CompletableFuture.allOf(confirmations.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+		for (Thread caller : callers) {
+			caller.join();
+		}
+
+		Set<String> confirmationNumbers = new HashSet<String>();
+		for (CompletableFuture<RewardConfirmation> confirmation : confirmations) {
+			confirmationNumbers.add(confirmation.get().getConfirmationNumber());
+		}
+		assertEquals(CALLERS, confirmationNumbers.size(), "confirmation numbers should be unique");
+		// every dining contributed 8.00 (8% of 100.00)
+		MonetaryAmount savings = new MonetaryAmount(jdbcTemplate.queryForObject(savingsSql, BigDecimal.class));
+		assertEquals(initialSavings.add(MonetaryAmount.ofCents(800 * CALLERS)), savings);
+		logger.info("{} concurrent callers rewarded in {} ms ({} rewards/s)", CALLERS, elapsedMillis,
+				CALLERS * 1000L / Math.max(elapsedMillis, 1));
+	}
+}
@@ -0,0 +1,157 @@
+package rewards;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rewards.internal.IdempotentRewardNetwork;
+import rewards.internal.reward.JournalingRewardRepository;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+
+/**
+ * A system test that verifies a dining submitted more than once is rewarded once, and replayed with its original
+ * confirmation, whether the replay is answered from memory or from the database.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SystemTestConfig.class })
+public class IdempotentRewardNetworkTests {
+
+	@Autowired
+	@Qualifier("idempotentRewardNetwork")
+	RewardNetwork idempotentRewardNetwork;
+
+	@Autowired
+	@Qualifier("rewardNetwork")
+	RewardNetwork rewardNetwork;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	public void setUp() {
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@Test
+	public void testReplayFromMemory() {
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890", 1, 10, 2024);
+		BigDecimal savings = getSavings("Annabelle");
+
+		RewardConfirmation confirmation = idempotentRewardNetwork.rewardAccountFor(dining);
+		RewardConfirmation replayed = idempotentRewardNetwork.rewardAccountFor(dining);
+
+		assertEquals(confirmation, replayed);
+		assertEquals(1, getRewardCount(dining));
+		assertEquals(savings.add(new BigDecimal("4.00")), getSavings("Annabelle"));
+	}
+
+	@Test
+	public void testReplayFromDatabase() {
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890", 1, 11, 2024);
+		RewardConfirmation confirmation = idempotentRewardNetwork.rewardAccountFor(dining);
+		BigDecimal savings = getSavings("Annabelle");
+
+		// a network that remembers nothing, as after a restart
+		IdempotentRewardNetwork restarted = new IdempotentRewardNetwork(rewardNetwork, dataSource);
+		restarted.setMaxEntries(0);
+		RewardConfirmation replayed = restarted.rewardAccountFor(dining);
+
+		assertEquals(confirmation.getConfirmationNumber(), replayed.getConfirmationNumber());
+		assertEquals("123456789", replayed.getAccountContribution().getAccountNumber());
+		assertEquals(MonetaryAmount.valueOf("8.00"), replayed.getAccountContribution().getAmount());
+		assertEquals(1, getRewardCount(dining));
+		assertEquals(savings, getSavings("Annabelle"));
+	}
+
+	@Test
+	public void testDiningsWithDifferentKeysAreRewardedSeparately() {
+		Dining first = new Dining(MonetaryAmount.valueOf("100.00"), "1234123412341234", "1234567890",
+				new SimpleDate(1, 12, 2024), "authorization-1");
+		Dining second = first.withKey("authorization-2");
+
+		RewardConfirmation confirmation = idempotentRewardNetwork.rewardAccountFor(first);
+		assertNotEquals(confirmation.getConfirmationNumber(),
+				idempotentRewardNetwork.rewardAccountFor(second).getConfirmationNumber());
+		assertEquals(confirmation, idempotentRewardNetwork.rewardAccountFor(first));
+		assertEquals(2, getRewardCount(first));
+	}
+
+	@Test
+	public void testRefusedWithinTransaction() {
+		Dining dining = new Dining(MonetaryAmount.valueOf("100.00"), "1234123412341234", "1234567890",
+				new SimpleDate(1, 15, 2024), "authorization-4");
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+		assertThrows(IllegalStateException.class, () -> transactionTemplate.execute(
+				status -> idempotentRewardNetwork.rewardAccountFor(dining)));
+		assertEquals(0, jdbcTemplate.queryForObject("select count(*) from T_REWARD where DINING_KEY = ?",
+				Integer.class, "authorization-4"));
+	}
+
+	@Test
+	public void testKeysLongerThanTheColumnAreRejected() {
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890", 1, 13, 2024);
+		String key = "k".repeat(Dining.MAX_KEY_LENGTH);
+
+		assertEquals(key, dining.withKey(key).getKey());
+		assertThrows(IllegalArgumentException.class, () -> dining.withKey(key + "k"));
+	}
+
+	@Test
+	public void testRewardedOnceWhenWrittenBehind(@TempDir Path journal) throws Exception {
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+			context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("journal",
+					Collections.<String, Object> singletonMap("rewards.journal.directory", journal.toString())));
+			context.register(SystemTestConfig.class);
+			context.refresh();
+			RewardNetwork idempotentRewardNetwork = context.getBean("idempotentRewardNetwork", RewardNetwork.class);
+			Dining dining = new Dining(MonetaryAmount.valueOf("100.00"), "1234123412341234", "1234567890",
+					new SimpleDate(1, 14, 2024), "authorization-3");
+
+			RewardConfirmation confirmation = idempotentRewardNetwork.rewardAccountFor(dining);
+			assertEquals(confirmation, idempotentRewardNetwork.rewardAccountFor(dining));
+			context.getBean(JournalingRewardRepository.class).drain();
+
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+			assertEquals(confirmation.getConfirmationNumber(), jdbcTemplate.queryForObject(
+					"select CONFIRMATION_NUMBER from T_REWARD where DINING_KEY = ?", String.class, "authorization-3"));
+		}
+	}
+
+	private int getRewardCount(Dining dining) {
+		return jdbcTemplate.queryForObject("select count(*) from T_REWARD where DINING_DATE = ?", Integer.class,
+				dining.getDate().asDate());
+	}
+
+	private BigDecimal getSavings(String beneficiary) {
+		return jdbcTemplate.queryForObject("select SAVINGS from T_ACCOUNT_BENEFICIARY where NAME = ?",
+				BigDecimal.class, beneficiary);
+	}
+}
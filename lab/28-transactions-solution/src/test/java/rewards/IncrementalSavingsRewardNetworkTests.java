@@ -0,0 +1,14 @@
+package rewards;
+
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Verifies that adding the distributed amounts to the stored savings loses no savings updates, even though dinings of
+ * the same account are rewarded at the same time.
+ */
+@ContextConfiguration(classes = { SystemTestConfig.class })
+@TestPropertySource(properties = "rewards.incremental-savings=true")
+public class IncrementalSavingsRewardNetworkTests extends AbstractConcurrentRewardNetworkTests {
+
+}
@@ -0,0 +1,137 @@
+package rewards;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rewards.internal.RewardNetworkImpl;
+import rewards.internal.account.Account;
+import rewards.internal.account.AccountRepository;
+import rewards.internal.restaurant.RestaurantRepository;
+import rewards.internal.reward.RewardRepository;
+
+/**
+ * The control case of the concurrent reward network tests: shows that the plain reward network, without striped locks
+ * or incremental savings, loses a savings update when two dinings of the same account are rewarded at the same time.
+ * Both rewards read the account before either writes its savings back, so the second write overwrites the first.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { SystemTestConfig.class })
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class LostUpdateRewardNetworkTests {
+
+	@Autowired
+	AccountRepository accountRepository;
+
+	@Autowired
+	RestaurantRepository restaurantRepository;
+
+	@Autowired
+	RewardRepository rewardRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Test
+	public void testConcurrentRewardsLoseSavings() throws Exception {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		BigDecimal initialSavings = savingsOfAnnabelle(jdbcTemplate);
+		int initialRewards = rewardsOfAccount(jdbcTemplate);
+		CyclicBarrier bothRead = new CyclicBarrier(2);
+		RewardNetworkImpl rewardNetwork = new RewardNetworkImpl(new ReadTogetherAccountRepository(bothRead),
+				restaurantRepository, rewardRepository);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int thread = 0; thread < 2; thread++) {
+				futures.add(executor.submit(() -> transactionTemplate.execute(status -> rewardNetwork
+						.rewardAccountFor(Dining.createDining("100.00", "1234123412341234", "1234567890")))));
+			}
+			for (Future<?> future : futures) {
+				future.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// two dinings each contributed 4.00 to Annabelle, but only one of them was kept
+		assertEquals(initialSavings.add(new BigDecimal("4.00")), savingsOfAnnabelle(jdbcTemplate));
+		assertEquals(initialRewards + 2, rewardsOfAccount(jdbcTemplate));
+	}
+
+	private BigDecimal savingsOfAnnabelle(JdbcTemplate jdbcTemplate) {
+		return jdbcTemplate.queryForObject(
+				"select SAVINGS from T_ACCOUNT_BENEFICIARY where ACCOUNT_ID = 0 and NAME = 'Annabelle'",
+				BigDecimal.class);
+	}
+
+	private int rewardsOfAccount(JdbcTemplate jdbcTemplate) {
+		return jdbcTemplate.queryForObject("select count(*) from T_REWARD where ACCOUNT_NUMBER = '123456789'",
+				Integer.class);
+	}
+
+	/**
+	 * Holds each reward after it read its account until the other reward read the account too.
+	 */
+	private class ReadTogetherAccountRepository implements AccountRepository {
+
+		private final CyclicBarrier bothRead;
+
+		ReadTogetherAccountRepository(CyclicBarrier bothRead) {
+			this.bothRead = bothRead;
+		}
+
+		public Account findByCreditCard(String creditCardNumber) {
+			Account account = accountRepository.findByCreditCard(creditCardNumber);
+			try {
+				bothRead.await(10, TimeUnit.SECONDS);
+			} catch (Exception e) {
+				throw new IllegalStateException("The other reward did not read the account", e);
+			}
+			return account;
+		}
+
+		public Map<String, Account> findByCreditCards(Collection<String> creditCardNumbers) {
+			return accountRepository.findByCreditCards(creditCardNumbers);
+		}
+
+		public void updateBeneficiaries(Account account) {
+			accountRepository.updateBeneficiaries(account);
+		}
+
+		public void updateBeneficiaries(Collection<Account> accounts) {
+			accountRepository.updateBeneficiaries(accounts);
+		}
+
+		public List<AccountContribution> updateBeneficiaries(Collection<Account> accounts,
+				List<AccountContribution> contributions) {
+			return accountRepository.updateBeneficiaries(accounts, contributions);
+		}
+	}
+}
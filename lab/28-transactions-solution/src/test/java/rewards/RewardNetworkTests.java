@@ -14,8 +14,13 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.sql.DataSource;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * A system test that verifies the components of the RewardNetwork application
@@ -32,6 +37,9 @@ public class RewardNetworkTests {
 	@Autowired
 	RewardNetwork rewardNetwork;
 
+	@Autowired
+	BatchRewardNetwork batchRewardNetwork;
+
 	@Autowired
 	DataSource dataSource;
 
@@ -86,4 +94,34 @@ public class RewardNetworkTests {
 		assertEquals(MonetaryAmount.valueOf("4.00"), contribution.getDistribution("Annabelle").getAmount());
 		assertEquals(MonetaryAmount.valueOf("4.00"), contribution.getDistribution("Corgan").getAmount());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testRewardForDinings() {
+		List<Dining> dinings = Arrays.asList(
+				Dining.createDining("100.00", "1234123412341234", "1234567890"),
+				Dining.createDining("100.00", "1234123412340003", "bogus"),
+				Dining.createDining("50.00", "1234123412341234", "1234567890"));
+		String savingsSql = "select SAVINGS from T_ACCOUNT_BENEFICIARY where NAME = ?";
+		Double initialSavings = jdbcTemplate.queryForObject(savingsSql, Double.class, "Annabelle");
+		int initialRewards = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM T_REWARD", Integer.class);
+
+		List<RewardResult> results = batchRewardNetwork.rewardAccountsFor(dinings);
+
+		assertEquals(3, results.size());
+		assertTrue(results.get(0).isSuccess());
+		assertFalse(results.get(1).isSuccess());
+		assertTrue(results.get(2).isSuccess());
+
+		// a reward record was inserted for each rewarded dining
+		assertEquals(initialRewards + 2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM T_REWARD", Integer.class));
+		for (RewardResult result : Arrays.asList(results.get(0), results.get(2))) {
+			String sql = "SELECT COUNT(*) FROM T_REWARD WHERE CONFIRMATION_NUMBER = ?";
+			assertEquals(1, jdbcTemplate.queryForObject(sql, Integer.class,
+					result.getConfirmation().getConfirmationNumber()));
+		}
+
+		// both contributions were written to the beneficiary savings: 4.00 + 2.00
+		assertEquals(Double.valueOf(initialSavings + 6.00d),
+				jdbcTemplate.queryForObject(savingsSql, Double.class, "Annabelle"));
+	}
+}
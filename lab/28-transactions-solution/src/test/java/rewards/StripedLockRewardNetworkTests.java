@@ -0,0 +1,22 @@
+package rewards;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * Verifies that rewarding dinings of the same account one at a time, with striped locks, loses no savings updates.
+ */
+@ContextConfiguration(classes = { SystemTestConfig.class })
+public class StripedLockRewardNetworkTests extends AbstractConcurrentRewardNetworkTests {
+
+	@Autowired
+	@Qualifier("stripedLockRewardNetwork")
+	RewardNetwork stripedLockRewardNetwork;
+
+	@BeforeEach
+	public void useStripedLockRewardNetwork() {
+		rewardNetwork = stripedLockRewardNetwork;
+	}
+}
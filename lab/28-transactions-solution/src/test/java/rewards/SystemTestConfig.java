@@ -19,14 +19,19 @@ public class SystemTestConfig {
 	
 	/**
 	 * Creates an in-memory "rewards" database populated 
-	 * with test data for fast testing
+	 * with test data for fast testing. Each application context
+	 * gets its own database, so a context does not reset the
+	 * data, or the confirmation number sequence, of another.
 	 */
 	@Bean
 	public DataSource dataSource(){
 		return
 			(new EmbeddedDatabaseBuilder())
+			.generateUniqueName(true)
 			.addScript("classpath:rewards/testdb/schema.sql")
 			.addScript("classpath:rewards/testdb/data.sql")
+			.addScript("classpath:rewards/confirmation-number-schema.sql")
+			.addScript("classpath:rewards/statistics-schema.sql")
 			.build();
 	}	
 	
@@ -0,0 +1,259 @@
+package rewards.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import common.money.MonetaryAmount;
+import rewards.AccountContribution;
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+import rewards.internal.AsyncRewardNetworkImpl.OverflowPolicy;
+
+/**
+ * Unit tests for the asynchronous reward network, rewarding dinings with a reward network that waits until the test
+ * lets it go.
+ */
+public class AsyncRewardNetworkImplTests {
+
+	private BlockingRewardNetwork rewardNetwork = new BlockingRewardNetwork();
+
+	private AsyncRewardNetworkImpl asyncRewardNetwork;
+
+	@AfterEach
+	public void tearDown() throws InterruptedException {
+		rewardNetwork.release.countDown();
+		if (asyncRewardNetwork != null) {
+			asyncRewardNetwork.stop();
+		}
+	}
+
+	@Test
+	public void testRewardAccountFor() throws Exception {
+		rewardNetwork.release.countDown();
+		start(2, 0, OverflowPolicy.BLOCK);
+
+		CompletableFuture<RewardConfirmation> confirmation = asyncRewardNetwork.rewardAccountFor(dining());
+
+		assertEquals("1", confirmation.get(5, TimeUnit.SECONDS).getConfirmationNumber());
+		assertTrue(rewardNetwork.threads.get(0).getName().startsWith("reward-network-"));
+	}
+
+	@Test
+	public void testMaxConcurrency() throws Exception {
+		start(2, 8, OverflowPolicy.BLOCK);
+
+		List<CompletableFuture<RewardConfirmation>> confirmations = new ArrayList<CompletableFuture<RewardConfirmation>>();
+		for (int i = 0; i < 10; i++) {
+			confirmations.add(asyncRewardNetwork.rewardAccountFor(dining()));
+		}
+		assertEquals(10, asyncRewardNetwork.getPendingCount());
+		rewardNetwork.awaitRunning(2);
+		rewardNetwork.release.countDown();
+		CompletableFuture.allOf(confirmations.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+		assertEquals(2, rewardNetwork.maxRunning.get());
+		// a dining is admitted until just after its future completes
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (asyncRewardNetwork.getPendingCount() > 0 && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(0, asyncRewardNetwork.getPendingCount());
+	}
+
+	@Test
+	public void testRejectWhenFull() throws Exception {
+		start(1, 1, OverflowPolicy.REJECT);
+
+		asyncRewardNetwork.rewardAccountFor(dining());
+		asyncRewardNetwork.rewardAccountFor(dining());
+		CompletableFuture<RewardConfirmation> rejected = asyncRewardNetwork.rewardAccountFor(dining());
+
+		ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(RejectedExecutionException.class, e.getCause());
+		assertEquals(1, asyncRewardNetwork.getRejectedCount());
+	}
+
+	@Test
+	public void testCallerRunsWhenFull() throws Exception {
+		start(1, 0, OverflowPolicy.CALLER_RUNS);
+		asyncRewardNetwork.rewardAccountFor(dining());
+		rewardNetwork.awaitRunning(1);
+
+		rewardNetwork.unblocked = Thread.currentThread();
+		CompletableFuture<RewardConfirmation> confirmation = asyncRewardNetwork.rewardAccountFor(dining());
+
+		// rewarded before rewardAccountFor returned
+		assertTrue(confirmation.isDone());
+		assertSame(Thread.currentThread(), rewardNetwork.threads.get(1));
+		assertEquals(1, asyncRewardNetwork.getCallerRunsCount());
+	}
+
+	@Test
+	public void testRewardAfterCommit() throws Exception {
+		rewardNetwork.release.countDown();
+		start(1, 0, OverflowPolicy.BLOCK);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			CompletableFuture<RewardConfirmation> confirmation = asyncRewardNetwork.rewardAccountFor(dining());
+			assertFalse(confirmation.isDone());
+			assertEquals(0, rewardNetwork.threads.size());
+
+			complete(TransactionSynchronization.STATUS_COMMITTED);
+			assertEquals("1", confirmation.get(5, TimeUnit.SECONDS).getConfirmationNumber());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void testNoRewardAfterRollback() throws Exception {
+		start(1, 0, OverflowPolicy.BLOCK);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			CompletableFuture<RewardConfirmation> confirmation = asyncRewardNetwork.rewardAccountFor(dining());
+
+			complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+			assertTrue(confirmation.isCancelled());
+			assertEquals(0, rewardNetwork.threads.size());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void testQueuedBeyondCapacityAfterCommitWhenFull() throws Exception {
+		start(1, 0, OverflowPolicy.BLOCK);
+		CompletableFuture<RewardConfirmation> first = asyncRewardNetwork.rewardAccountFor(dining());
+		rewardNetwork.awaitRunning(1);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			CompletableFuture<RewardConfirmation> confirmation = asyncRewardNetwork.rewardAccountFor(dining());
+
+			// neither waits for room nor rewards the dining on the committing thread
+			complete(TransactionSynchronization.STATUS_COMMITTED);
+			assertFalse(confirmation.isDone());
+			assertEquals(1, asyncRewardNetwork.getOverCapacityCount());
+			assertEquals(2, asyncRewardNetwork.getPendingCount());
+
+			rewardNetwork.release.countDown();
+			CompletableFuture.allOf(first, confirmation).get(5, TimeUnit.SECONDS);
+			assertEquals(1, rewardNetwork.threads.stream().distinct().count());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void testVirtualThreads() throws Exception {
+		asyncRewardNetwork = new AsyncRewardNetworkImpl(rewardNetwork, 2, 8);
+		asyncRewardNetwork.setVirtualThreads(true);
+		if (Runtime.version().feature() < 21) {
+			assertThrows(IllegalStateException.class, asyncRewardNetwork::start);
+			asyncRewardNetwork = null;
+			return;
+		}
+		asyncRewardNetwork.start();
+
+		List<CompletableFuture<RewardConfirmation>> confirmations = new ArrayList<CompletableFuture<RewardConfirmation>>();
+		for (int i = 0; i < 10; i++) {
+			confirmations.add(asyncRewardNetwork.rewardAccountFor(dining()));
+		}
+		rewardNetwork.awaitRunning(2);
+		rewardNetwork.release.countDown();
+		CompletableFuture.allOf(confirmations.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+		assertEquals(2, rewardNetwork.maxRunning.get());
+	}
+
+	@Test
+	public void testNotStarted() {
+		asyncRewardNetwork = new AsyncRewardNetworkImpl(rewardNetwork, 1, 0);
+		assertThrows(IllegalStateException.class, () -> asyncRewardNetwork.rewardAccountFor(dining()));
+		asyncRewardNetwork = null;
+	}
+
+	private void start(int maxConcurrency, int queueCapacity, OverflowPolicy overflowPolicy) {
+		asyncRewardNetwork = new AsyncRewardNetworkImpl(rewardNetwork, maxConcurrency, queueCapacity);
+		asyncRewardNetwork.setOverflowPolicy(overflowPolicy);
+		asyncRewardNetwork.start();
+	}
+
+	private void complete(int status) {
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(status);
+		}
+	}
+
+	private Dining dining() {
+		return Dining.createDining("100.00", "1234123412341234", "1234567890");
+	}
+
+	/**
+	 * A reward network that records the threads rewarding dinings, and how many did so at the same time, and that
+	 * waits for the release latch before confirming a reward, except on the unblocked thread.
+	 */
+	private static class BlockingRewardNetwork implements RewardNetwork {
+
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private volatile Thread unblocked;
+
+		private final List<Thread> threads = new ArrayList<Thread>();
+
+		private final AtomicInteger running = new AtomicInteger();
+
+		private final AtomicInteger maxRunning = new AtomicInteger();
+
+		private final AtomicInteger confirmationNumber = new AtomicInteger();
+
+		public RewardConfirmation rewardAccountFor(Dining dining) {
+			synchronized (threads) {
+				threads.add(Thread.currentThread());
+				threads.notifyAll();
+			}
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				if (Thread.currentThread() != unblocked) {
+					release.await(5, TimeUnit.SECONDS);
+				}
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			} finally {
+				running.decrementAndGet();
+			}
+			AccountContribution contribution = new AccountContribution("123456789", MonetaryAmount.valueOf("8.00"),
+					null);
+			return new RewardConfirmation(String.valueOf(confirmationNumber.incrementAndGet()), contribution);
+		}
+
+		void awaitRunning(int count) throws InterruptedException {
+			synchronized (threads) {
+				while (threads.size() < count) {
+					threads.wait(5000);
+				}
+			}
+		}
+	}
+}
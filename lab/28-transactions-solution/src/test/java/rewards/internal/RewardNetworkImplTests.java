@@ -1,14 +1,22 @@
 package rewards.internal;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
 
 import rewards.AccountContribution;
 import rewards.Dining;
 import rewards.RewardConfirmation;
+import rewards.RewardResult;
 import rewards.internal.account.AccountRepository;
 import rewards.internal.restaurant.RestaurantRepository;
 import rewards.internal.reward.RewardRepository;
@@ -38,6 +46,7 @@ public class RewardNetworkImplTests {
 
 		// setup the object being tested by handing what it needs to work
 		rewardNetwork = new RewardNetworkImpl(accountRepo, restaurantRepo, rewardRepo);
+		rewardNetwork.setTransactionOperations(TransactionOperations.withoutTransaction());
 	}
 
 	@Test
@@ -69,4 +78,36 @@ public class RewardNetworkImplTests {
 		assertEquals(MonetaryAmount.valueOf("4.00"), contribution.getDistribution("Annabelle").getAmount());
 		assertEquals(MonetaryAmount.valueOf("4.00"), contribution.getDistribution("Corgan").getAmount());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testBatchRefusedWithoutTransactionBoundary() {
+		RewardNetworkImpl rewardNetwork = new RewardNetworkImpl(new StubAccountRepository(),
+				new StubRestaurantRepository(), new StubRewardRepository());
+		List<Dining> dinings = Arrays.asList(Dining.createDining("100.00", "1234123412341234", "1234567890"));
+
+		assertThrows(IllegalStateException.class, () -> rewardNetwork.rewardAccountsFor(dinings));
+	}
+
+	@Test
+	public void testRewardForDinings() {
+		rewardNetwork.setChunkSize(2);
+		List<Dining> dinings = Arrays.asList(
+				Dining.createDining("100.00", "1234123412341234", "1234567890"),
+				Dining.createDining("100.00", "bogus", "1234567890"),
+				Dining.createDining("50.00", "1234123412341234", "1234567890"));
+
+		List<RewardResult> results = rewardNetwork.rewardAccountsFor(dinings);
+
+		// one result per dining, in the order of the dinings
+		assertEquals(3, results.size());
+		assertTrue(results.get(0).isSuccess());
+		assertFalse(results.get(1).isSuccess());
+		assertNotNull(results.get(1).getFailure());
+		assertTrue(results.get(2).isSuccess());
+
+		// contributions to the same account accumulate: 4.00 for the first dining and 2.00 for the last one
+		AccountContribution contribution = results.get(2).getConfirmation().getAccountContribution();
+		assertEquals(MonetaryAmount.valueOf("4.00"), contribution.getAmount());
+		assertEquals(MonetaryAmount.valueOf("6.00"), contribution.getDistribution("Annabelle").getTotalSavings());
+	}
+}
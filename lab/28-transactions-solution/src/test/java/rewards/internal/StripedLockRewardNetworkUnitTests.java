@@ -0,0 +1,63 @@
+package rewards.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rewards.Dining;
+import rewards.internal.account.Account;
+
+/**
+ * Unit tests of the credit cards remembered by the striped lock reward network.
+ */
+public class StripedLockRewardNetworkUnitTests {
+
+	private CountingAccountRepository accountRepository;
+
+	private StripedLockRewardNetwork rewardNetwork;
+
+	@BeforeEach
+	public void setUp() {
+		accountRepository = new CountingAccountRepository();
+		rewardNetwork = new StripedLockRewardNetwork(dining -> null, accountRepository, 4);
+	}
+
+	@Test
+	public void testAccountNumberLookedUpOncePerCreditCard() {
+		rewardNetwork.rewardAccountFor(dining());
+		rewardNetwork.rewardAccountFor(dining());
+
+		assertEquals(1, accountRepository.lookups);
+	}
+
+	@Test
+	public void testForgottenCreditCardsAreLookedUpAgain() {
+		rewardNetwork.setMaxCreditCards(0);
+		rewardNetwork.rewardAccountFor(dining());
+		rewardNetwork.rewardAccountFor(dining());
+
+		assertEquals(2, accountRepository.lookups);
+	}
+
+	@Test
+	public void testNegativeMaxCreditCardsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> rewardNetwork.setMaxCreditCards(-1));
+	}
+
+	private Dining dining() {
+		return Dining.createDining("100.00", "1234123412341234", "1234567890");
+	}
+
+	private static class CountingAccountRepository extends StubAccountRepository {
+
+		int lookups;
+
+		@Override
+		public Account findByCreditCard(String creditCardNumber) {
+			lookups++;
+			return super.findByCreditCard(creditCardNumber);
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package rewards.internal;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -40,6 +41,21 @@ public class StubRestaurantRepository implements RestaurantRepository {
 		return restaurant;
 	}
 
+	public Map<String, Restaurant> findByMerchantNumbers(Collection<String> merchantNumbers) {
+		Map<String, Restaurant> restaurants = new HashMap<String, Restaurant>();
+		for (String merchantNumber : merchantNumbers) {
+			Restaurant restaurant = restaurantsByMerchantNumber.get(merchantNumber);
+			if (restaurant != null) {
+				restaurants.put(merchantNumber, restaurant);
+			}
+		}
+		return restaurants;
+	}
+
+	public Map<String, Restaurant> findAll() {
+		return new HashMap<String, Restaurant>(restaurantsByMerchantNumber);
+	}
+
 	/**
 	 * A simple "dummy" benefit availability policy that always returns true. Only useful for testing--a real
 	 * availability policy might consider many factors such as the day of week of the dining, or the account's reward
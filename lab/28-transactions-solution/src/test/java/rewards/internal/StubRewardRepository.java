@@ -1,5 +1,7 @@
 package rewards.internal;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import rewards.AccountContribution;
@@ -16,6 +18,14 @@ public class StubRewardRepository implements RewardRepository {
 		return new RewardConfirmation(confirmationNumber(), contribution);
 	}
 
+	public List<RewardConfirmation> confirmRewards(List<AccountContribution> contributions, List<Dining> dinings) {
+		List<RewardConfirmation> confirmations = new ArrayList<RewardConfirmation>(contributions.size());
+		for (AccountContribution contribution : contributions) {
+			confirmations.add(new RewardConfirmation(confirmationNumber(), contribution));
+		}
+		return confirmations;
+	}
+
 	private String confirmationNumber() {
 		return new Random().toString();
 	}
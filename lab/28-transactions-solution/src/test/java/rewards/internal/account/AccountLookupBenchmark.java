@@ -0,0 +1,141 @@
+package rewards.internal.account;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import common.money.MonetaryAmount;
+import common.money.Percentage;
+
+/**
+ * Compares finding an account by credit card with JdbcAccountRepository against the query and label-based,
+ * string-parsing extractor it used before. Extra accounts are added to the test data so the credit card lookup has
+ * rows to search, with and without the index on T_ACCOUNT_CREDIT_CARD(NUMBER).
+ *
+ * Run the main method from the IDE, or any other way that puts the test classpath on the classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountLookupBenchmark {
+
+	private static final String CREDIT_CARD_NUMBER = "1234123412340003";
+
+	private static final String LEGACY_SQL = "select a.ID as ID, a.NUMBER as ACCOUNT_NUMBER, a.NAME as ACCOUNT_NAME, c.NUMBER as CREDIT_CARD_NUMBER, b.NAME as BENEFICIARY_NAME, b.ALLOCATION_PERCENTAGE as BENEFICIARY_ALLOCATION_PERCENTAGE, b.SAVINGS as BENEFICIARY_SAVINGS from T_ACCOUNT a, T_ACCOUNT_BENEFICIARY b, T_ACCOUNT_CREDIT_CARD c where ID = b.ACCOUNT_ID and ID = c.ACCOUNT_ID and c.NUMBER = ?";
+
+	@Param({ "true", "false" })
+	private boolean creditCardIndex;
+
+	@Param({ "10000" })
+	private int extraAccounts;
+
+	private EmbeddedDatabase dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private JdbcAccountRepository repository;
+
+	private ResultSetExtractor<Account> legacyExtractor = new LegacyAccountExtractor();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.build();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		if (!creditCardIndex) {
+			jdbcTemplate.execute("drop index IX_ACCOUNT_CREDIT_CARD_NUMBER");
+		}
+		List<Object[]> accounts = new ArrayList<Object[]>();
+		List<Object[]> creditCards = new ArrayList<Object[]>();
+		List<Object[]> beneficiaries = new ArrayList<Object[]>();
+		for (int i = 0; i < extraAccounts; i++) {
+			int id = 1000 + i;
+			accounts.add(new Object[] { id, String.format("9%08d", i), "Extra " + i });
+			creditCards.add(new Object[] { id, String.format("9999%012d", i) });
+			beneficiaries.add(new Object[] { id, "Extra " + i });
+		}
+		jdbcTemplate.batchUpdate("insert into T_ACCOUNT (ID, NUMBER, NAME) values (?, ?, ?)", accounts);
+		jdbcTemplate.batchUpdate("insert into T_ACCOUNT_CREDIT_CARD (ACCOUNT_ID, NUMBER) values (?, ?)", creditCards);
+		jdbcTemplate.batchUpdate("insert into T_ACCOUNT_BENEFICIARY (ACCOUNT_ID, NAME, ALLOCATION_PERCENTAGE, SAVINGS) values (?, ?, 1.00, 0.00)", beneficiaries);
+		repository = new JdbcAccountRepository();
+		repository.setDataSource(dataSource);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Benchmark
+	public Account findByCreditCard() {
+		return repository.findByCreditCard(CREDIT_CARD_NUMBER);
+	}
+
+	@Benchmark
+	public Account findByCreditCardLegacy() {
+		return jdbcTemplate.query(LEGACY_SQL, legacyExtractor, CREDIT_CARD_NUMBER);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+			.include(AccountLookupBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+
+	/**
+	 * The account extractor as it was before: looks columns up by label and parses the decimal columns from strings.
+	 */
+	private static class LegacyAccountExtractor implements ResultSetExtractor<Account> {
+
+		public Account extractData(ResultSet rs) throws SQLException, DataAccessException {
+			Account account = null;
+			while (rs.next()) {
+				if (account == null) {
+					String number = rs.getString("ACCOUNT_NUMBER");
+					String name = rs.getString("ACCOUNT_NAME");
+					account = new Account(number, name);
+					account.setEntityId(rs.getLong("ID"));
+				}
+				String name = rs.getString("BENEFICIARY_NAME");
+				MonetaryAmount savings = MonetaryAmount.valueOf(rs.getString("BENEFICIARY_SAVINGS"));
+				Percentage allocationPercentage = Percentage.valueOf(rs.getString("BENEFICIARY_ALLOCATION_PERCENTAGE"));
+				account.restoreBeneficiary(new Beneficiary(name, allocationPercentage, savings));
+			}
+			if (account == null) {
+				throw new EmptyResultDataAccessException(1);
+			}
+			return account;
+		}
+	}
+}
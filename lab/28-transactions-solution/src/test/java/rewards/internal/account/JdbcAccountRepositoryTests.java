@@ -5,12 +5,20 @@ import common.money.Percentage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 
+import rewards.AccountContribution;
+
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -59,6 +67,21 @@ public class JdbcAccountRepositoryTests {
 		});
 	}
 
+	@Test
+	public void testFindAccountsByCreditCards() {
+		Map<String, Account> accounts = repository.findByCreditCards(
+				Arrays.asList("1234123412341234", "1234123412340003", "bogus"));
+		assertEquals(2, accounts.size(), "wrong number of accounts");
+		assertFalse(accounts.containsKey("bogus"), "bogus credit card should have no account");
+
+		Account account = accounts.get("1234123412341234");
+		assertEquals("123456789", account.getNumber(), "wrong account number");
+		assertEquals(2, account.getBeneficiaries().size(), "wrong beneficiary collection size");
+		assertEquals(Percentage.valueOf("50%"), account.getBeneficiary("Corgan").getAllocationPercentage(),
+				"wrong allocation percentage");
+		assertEquals("123456003", accounts.get("1234123412340003").getNumber(), "wrong account number");
+	}
+
 	@Test
 	public void testUpdateBeneficiaries() throws SQLException {
 		Account account = repository.findByCreditCard("1234123412341234");
@@ -67,6 +90,62 @@ public class JdbcAccountRepositoryTests {
 		verifyBeneficiaryTableUpdated();
 	}
 
+	@Test
+	public void testUpdateBeneficiariesSkipsUnchangedSavings() {
+		Account account = repository.findByCreditCard("1234123412341234");
+		// change the savings behind the repository's back: a write of the unchanged savings would overwrite this
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.update("update T_ACCOUNT_BENEFICIARY set SAVINGS = 1.00 where ACCOUNT_ID = 0");
+
+		// a contribution without benefit leaves the savings unchanged, so nothing is written
+		account.makeContribution(MonetaryAmount.zero());
+		repository.updateBeneficiaries(account);
+
+		String sql = "select count(*) from T_ACCOUNT_BENEFICIARY where ACCOUNT_ID = 0 and SAVINGS = 1.00";
+		assertEquals(2, jdbcTemplate.queryForObject(sql, Integer.class));
+	}
+
+	@Test
+	public void testIncrementalSavingsKeepConcurrentCredits() {
+		repository.setIncrementalSavings(true);
+		Account account = repository.findByCreditCard("1234123412341234");
+		// another transaction credits Annabelle after the account was read
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.update("update T_ACCOUNT_BENEFICIARY set SAVINGS = SAVINGS + 10.00 where NAME = 'Annabelle'");
+
+		AccountContribution contribution = account.makeContribution(MonetaryAmount.valueOf("8.00"));
+		assertEquals(MonetaryAmount.valueOf("4.00"), contribution.getDistribution("Annabelle").getTotalSavings());
+		List<AccountContribution> stored = repository.updateBeneficiaries(Collections.singletonList(account),
+				Collections.singletonList(contribution));
+
+		String sql = "select SAVINGS from T_ACCOUNT_BENEFICIARY where NAME = ?";
+		assertEquals(new BigDecimal("14.00"), jdbcTemplate.queryForObject(sql, BigDecimal.class, "Annabelle"));
+		assertEquals(new BigDecimal("4.00"), jdbcTemplate.queryForObject(sql, BigDecimal.class, "Corgan"));
+		// the returned totals and the account reflect the stored savings
+		AccountContribution.Distribution annabelle = stored.get(0).getDistribution("Annabelle");
+		assertEquals(MonetaryAmount.valueOf("4.00"), annabelle.getAmount());
+		assertEquals(MonetaryAmount.valueOf("14.00"), annabelle.getTotalSavings());
+		assertEquals(MonetaryAmount.valueOf("4.00"), stored.get(0).getDistribution("Corgan").getTotalSavings());
+		assertEquals(MonetaryAmount.valueOf("14.00"), account.getBeneficiary("Annabelle").getSavings());
+	}
+
+	@Test
+	public void testIncrementalSavingsOfSeveralContributions() throws SQLException {
+		repository.setIncrementalSavings(true);
+		Account account = repository.findByCreditCard("1234123412341234");
+		AccountContribution first = account.makeContribution(MonetaryAmount.valueOf("4.00"));
+		AccountContribution second = account.makeContribution(MonetaryAmount.valueOf("4.00"));
+
+		List<AccountContribution> stored = repository.updateBeneficiaries(Collections.singletonList(account),
+				Arrays.asList(first, second));
+
+		verifyBeneficiaryTableUpdated();
+		assertSame(first, stored.get(0));
+		assertSame(second, stored.get(1));
+		assertEquals(MonetaryAmount.valueOf("2.00"), stored.get(0).getDistribution("Corgan").getTotalSavings());
+		assertEquals(MonetaryAmount.valueOf("4.00"), stored.get(1).getDistribution("Corgan").getTotalSavings());
+	}
+
 	private void verifyBeneficiaryTableUpdated() throws SQLException {
 		String sql = "select SAVINGS from T_ACCOUNT_BENEFICIARY where NAME = ? and ACCOUNT_ID = ?";
 		PreparedStatement stmt = dataSource.getConnection().prepareStatement(sql);
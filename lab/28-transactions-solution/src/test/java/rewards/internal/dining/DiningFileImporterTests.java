@@ -0,0 +1,220 @@
+package rewards.internal.dining;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionOperations;
+
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+import rewards.internal.RewardNetworkImpl;
+import rewards.internal.StubAccountRepository;
+import rewards.internal.StubRestaurantRepository;
+import rewards.internal.StubRewardRepository;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+
+/**
+ * Unit tests for the dining file importer, reading files written to a temporary directory.
+ */
+public class DiningFileImporterTests {
+
+	@TempDir
+	Path directory;
+
+	private Queue<Dining> dinings = new ConcurrentLinkedQueue<Dining>();
+
+	private RewardNetwork recordingNetwork = dining -> {
+		dinings.add(dining);
+		return new RewardConfirmation(Integer.toString(dinings.size()), null);
+	};
+
+	@Test
+	public void testImportCsv() throws Exception {
+		Path file = write("amount,card,merchant,date\r\n",
+				"100.00,1234123412341234,1234567890,2024-05-17\r\n",
+				"50,1234123412341234,1234567890,2024-05-18\r\n",
+				"100.00,9999999999999999,1234567890,2024-05-18\r\n");
+		RewardNetworkImpl rewardNetwork = new RewardNetworkImpl(new StubAccountRepository(),
+				new StubRestaurantRepository(), new StubRewardRepository());
+		rewardNetwork.setTransactionOperations(TransactionOperations.withoutTransaction());
+		DiningFileImporter importer = new DiningFileImporter(rewardNetwork);
+
+		DiningImportSummary summary = importer.importFile(file);
+		assertEquals(3, summary.getDinings());
+		assertEquals(2, summary.getRewarded());
+		assertEquals(1, summary.getFailed());
+		assertEquals(0, summary.getMalformed());
+		assertFalse(Files.exists(checkpoint(file)));
+	}
+
+	@Test
+	public void testImportFixedWidth() throws Exception {
+		Path file = write("      100.001234123412341234012345678920240517\n",
+				"           51234123412341234012345678920241231");
+		DiningFileImporter importer = new DiningFileImporter(recordingNetwork);
+		importer.setFormat(DiningFileFormat.FIXED_WIDTH);
+
+		DiningImportSummary summary = importer.importFile(file);
+		assertEquals(2, summary.getRewarded());
+		List<Dining> imported = new ArrayList<Dining>(dinings);
+		assertEquals(new Dining(MonetaryAmount.valueOf("100.00"), "1234123412341234", "0123456789",
+				new SimpleDate(5, 17, 2024)), imported.get(0));
+		assertEquals(MonetaryAmount.valueOf("5.00"), imported.get(1).getAmount());
+		assertEquals(new SimpleDate(12, 31, 2024), imported.get(1).getDate());
+	}
+
+	@Test
+	public void testImportChunksInParallel() throws Exception {
+		Path file = write(lines(1000));
+		DiningFileImporter importer = new DiningFileImporter(recordingNetwork);
+		importer.setChunkSize(100);
+		importer.setThreads(4);
+
+		DiningImportSummary summary = importer.importFile(file);
+		assertTrue(summary.getChunks() > 100);
+		assertEquals(1000, summary.getRewarded());
+		assertEquals(amounts(1000), importedAmounts());
+	}
+
+	@Test
+	public void testSkipMalformedLines() throws Exception {
+		Path file = write("100.00,1234123412341234,1234567890,2024-05-17\n",
+				"1O0.00,1234123412341234,1234567890,2024-05-17\n",
+				"100.00,1234123412341234,1234567890,2024-02-30\n",
+				"100.00,1234123412341234\n",
+				"\n",
+				"100.00,1234123412341234,0123456789,2024-05-17");
+		DiningFileImporter importer = new DiningFileImporter(recordingNetwork);
+
+		DiningImportSummary summary = importer.importFile(file);
+		assertEquals(2, summary.getRewarded());
+		assertEquals(3, summary.getMalformed());
+	}
+
+	@Test
+	public void testResumeAfterCrash() throws Exception {
+		Path file = write(lines(200));
+		AtomicInteger rewarded = new AtomicInteger();
+		DiningFileImporter crashing = new DiningFileImporter(dining -> {
+			if (rewarded.incrementAndGet() > 120) {
+				throw new Error("Crashed");
+			}
+			return recordingNetwork.rewardAccountFor(dining);
+		});
+		crashing.setChunkSize(500);
+		crashing.setThreads(1);
+		assertThrows(Error.class, () -> crashing.importFile(file));
+		assertTrue(Files.exists(checkpoint(file)));
+		Set<Long> beforeCrash = importedAmounts();
+
+		dinings.clear();
+		DiningFileImporter importer = new DiningFileImporter(recordingNetwork);
+		importer.setChunkSize(500);
+		DiningImportSummary summary = importer.importFile(file);
+		assertTrue(summary.getResumedChunks() > 0);
+		// the chunk that was being imported resumes after the last dining rewarded
+		assertEquals(200 - 120, summary.getDinings());
+		Set<Long> all = new HashSet<Long>(beforeCrash);
+		all.addAll(importedAmounts());
+		assertEquals(amounts(200), all);
+		assertFalse(Files.exists(checkpoint(file)));
+	}
+
+	@Test
+	public void testResumeBatchesAfterCrash() throws Exception {
+		Path file = write(lines(200));
+		RewardNetworkImpl rewardNetwork = new RewardNetworkImpl(new StubAccountRepository(),
+				new StubRestaurantRepository(), new StubRewardRepository());
+		rewardNetwork.setTransactionOperations(TransactionOperations.withoutTransaction());
+		rewardNetwork.setChunkSize(10);
+		AtomicInteger results = new AtomicInteger();
+		DiningFileImporter crashing = new DiningFileImporter(rewardNetwork);
+		crashing.setChunkSize(100000);
+		crashing.setThreads(1);
+		// crashes after the fourth batch is committed, half way through reporting its results
+		crashing.setResultListener(result -> {
+			if (results.incrementAndGet() == 35) {
+				throw new Error("Crashed");
+			}
+		});
+		assertThrows(Error.class, () -> crashing.importFile(file));
+
+		DiningFileImporter importer = new DiningFileImporter(rewardNetwork);
+		importer.setChunkSize(100000);
+		DiningImportSummary summary = importer.importFile(file);
+		assertEquals(0, summary.getResumedChunks());
+		// only the batch committed before its progress was recorded is rewarded again
+		assertEquals(200 - 30, summary.getDinings());
+		assertEquals(200 - 30, summary.getRewarded());
+	}
+
+	@Test
+	public void testResumeStartsOverForAnotherChunkSize() throws Exception {
+		Path file = write(lines(10));
+		Files.write(checkpoint(file), new byte[] { 1, 2, 3 });
+		DiningFileImporter importer = new DiningFileImporter(recordingNetwork);
+
+		DiningImportSummary summary = importer.importFile(file);
+		assertEquals(0, summary.getResumedChunks());
+		assertEquals(10, summary.getRewarded());
+	}
+
+	private Path write(String... lines) throws Exception {
+		Path file = directory.resolve("dinings.txt");
+		Files.write(file, String.join("", lines).getBytes(StandardCharsets.ISO_8859_1));
+		return file;
+	}
+
+	private Path checkpoint(Path file) {
+		return file.resolveSibling(file.getFileName() + ".checkpoint");
+	}
+
+	/**
+	 * Returns CSV lines with amounts of 1 cent up to the given number of cents, each one 46 bytes long.
+	 */
+	private String[] lines(int count) {
+		String[] lines = new String[count];
+		for (int i = 0; i < count; i++) {
+			lines[i] = String.format(Locale.ROOT, "%6.2f,1234123412341234,1234567890,2024-05-17\n", (i + 1) / 100.0);
+		}
+		return lines;
+	}
+
+	private Set<Long> amounts(int count) {
+		Set<Long> amounts = new HashSet<Long>();
+		for (long cents = 1; cents <= count; cents++) {
+			amounts.add(cents);
+		}
+		return amounts;
+	}
+
+	/**
+	 * Returns the amounts of the imported dinings in cents, checking no dining was imported twice.
+	 */
+	private Set<Long> importedAmounts() {
+		Set<Long> amounts = new HashSet<Long>();
+		for (Dining dining : dinings) {
+			assertTrue(amounts.add(dining.getAmount().asCents()), "Imported twice: " + dining);
+		}
+		return amounts;
+	}
+}
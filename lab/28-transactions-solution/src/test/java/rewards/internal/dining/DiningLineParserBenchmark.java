@@ -0,0 +1,91 @@
+package rewards.internal.dining;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import rewards.Dining;
+
+/**
+ * Compares parsing a buffer of CSV dining lines in place with DiningLineParser against decoding each line to a String,
+ * splitting it and creating the dining from its fields, as a loop over Dining.createDining would.
+ *
+ * Run the main method from the IDE, or any other way that puts the test classpath on the classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiningLineParserBenchmark {
+
+	private static final int LINES = 1000;
+
+	private ByteBuffer buffer;
+
+	private DiningLineParser parser;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		StringBuilder lines = new StringBuilder();
+		for (int i = 0; i < LINES; i++) {
+			lines.append(String.format(Locale.ROOT, "%d.%02d,4%015d,%010d,2024-05-%02d\n", i % 500, i % 100, 2 * i,
+					i % 50, 1 + i % 28));
+		}
+		byte[] bytes = lines.toString().getBytes(StandardCharsets.ISO_8859_1);
+		buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes).flip();
+		parser = new DiningLineParser(DiningFileFormat.CSV);
+	}
+
+	@Benchmark
+	public void parseInPlace(Blackhole blackhole) {
+		int start = 0;
+		for (int i = start; i < buffer.limit(); i++) {
+			if (buffer.get(i) == '\n') {
+				blackhole.consume(parser.parse(buffer, start, i));
+				start = i + 1;
+			}
+		}
+	}
+
+	@Benchmark
+	public void parseStrings(Blackhole blackhole) {
+		int start = 0;
+		for (int i = start; i < buffer.limit(); i++) {
+			if (buffer.get(i) == '\n') {
+				byte[] bytes = new byte[i - start];
+				ByteBuffer line = buffer.duplicate();
+				line.position(start);
+				line.get(bytes);
+				String[] fields = new String(bytes, StandardCharsets.ISO_8859_1).split(",");
+				String[] date = fields[3].split("-");
+				blackhole.consume(Dining.createDining(fields[0], fields[1], fields[2], Integer.parseInt(date[1]),
+						Integer.parseInt(date[2]), Integer.parseInt(date[0])));
+				start = i + 1;
+			}
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(DiningLineParserBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,189 @@
+package rewards.internal.restaurant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import common.money.Percentage;
+
+/**
+ * Tests the caching restaurant repository on top of the JDBC restaurant repository with a test data source.
+ */
+public class CachingRestaurantRepositoryTests {
+
+	private DataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private CachingRestaurantRepository repository;
+
+	@BeforeEach
+	public void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.build();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		JdbcRestaurantRepository jdbcRepository = new JdbcRestaurantRepository();
+		jdbcRepository.setDataSource(dataSource);
+		repository = new CachingRestaurantRepository(jdbcRepository);
+		repository.setRefreshIntervalMillis(0);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repository.stop();
+	}
+
+	@Test
+	public void testFindFromCache() {
+		repository.start();
+		jdbcTemplate.update("delete from T_RESTAURANT");
+
+		Restaurant restaurant = repository.findByMerchantNumber("1234567890");
+		assertEquals("AppleBees", restaurant.getName());
+		assertEquals(Percentage.valueOf("8%"), restaurant.getBenefitPercentage());
+		assertEquals(1, repository.getHitCount());
+		assertEquals(0, repository.getMissCount());
+		assertEquals(1, repository.getRefreshCount());
+	}
+
+	@Test
+	public void testFindRestaurantAddedAfterRefresh() {
+		repository.start();
+		insertRestaurant("9999999999", "Newcomer");
+
+		assertEquals("Newcomer", repository.findByMerchantNumber("9999999999").getName());
+		assertEquals("Newcomer", repository.findByMerchantNumber("9999999999").getName());
+		assertEquals(1, repository.getMissCount());
+		assertEquals(1, repository.getHitCount());
+	}
+
+	@Test
+	public void testUnknownMerchantIsRemembered() {
+		repository.start();
+		assertThrows(EmptyResultDataAccessException.class, () -> repository.findByMerchantNumber("bogus"));
+		insertRestaurant("bogus", "Bogus");
+		assertThrows(EmptyResultDataAccessException.class, () -> repository.findByMerchantNumber("bogus"));
+		assertEquals(1, repository.getMissCount());
+		assertEquals(1, repository.getNegativeHitCount());
+
+		// a refresh forgets the unknown merchant numbers
+		repository.refresh();
+		assertEquals("Bogus", repository.findByMerchantNumber("bogus").getName());
+	}
+
+	@Test
+	public void testUnknownMerchantIsForgottenAfterTimeToLive() throws Exception {
+		repository.setNegativeCacheTimeToLiveMillis(1);
+		repository.start();
+		assertThrows(EmptyResultDataAccessException.class, () -> repository.findByMerchantNumber("bogus"));
+		insertRestaurant("bogus", "Bogus");
+		Thread.sleep(5);
+		assertEquals("Bogus", repository.findByMerchantNumber("bogus").getName());
+	}
+
+	@Test
+	public void testUnknownMerchantNumbersAreBounded() {
+		repository.setMaxUnknownMerchantNumbers(2);
+		repository.start();
+		assertThrows(EmptyResultDataAccessException.class, () -> repository.findByMerchantNumber("bogus1"));
+		assertThrows(EmptyResultDataAccessException.class, () -> repository.findByMerchantNumber("bogus2"));
+		assertThrows(EmptyResultDataAccessException.class, () -> repository.findByMerchantNumber("bogus1"));
+		assertThrows(EmptyResultDataAccessException.class, () -> repository.findByMerchantNumber("bogus3"));
+		assertEquals(2, repository.getUnknownMerchantNumberCount());
+
+		// bogus2 was the least recently used, so it is looked up again
+		assertThrows(EmptyResultDataAccessException.class, () -> repository.findByMerchantNumber("bogus2"));
+		assertEquals(4, repository.getMissCount());
+		assertThrows(EmptyResultDataAccessException.class, () -> repository.findByMerchantNumber("bogus3"));
+		assertEquals(2, repository.getNegativeHitCount());
+	}
+
+	@Test
+	public void testExpiredUnknownMerchantsAreForgottenWhenNothingChanged() throws Exception {
+		jdbcTemplate.execute("alter table T_RESTAURANT add column VERSION integer default 0");
+		repository.setDataSource(dataSource);
+		repository.setChangeDetectionQuery("select sum(VERSION) from T_RESTAURANT");
+		repository.setNegativeCacheTimeToLiveMillis(1);
+		repository.start();
+		assertThrows(EmptyResultDataAccessException.class, () -> repository.findByMerchantNumber("bogus"));
+		assertEquals(1, repository.getUnknownMerchantNumberCount());
+		Thread.sleep(5);
+
+		repository.refresh();
+		assertEquals(1, repository.getRefreshCount());
+		assertEquals(0, repository.getUnknownMerchantNumberCount());
+	}
+
+	@Test
+	public void testNegativeMaxUnknownMerchantNumbersRejected() {
+		assertThrows(IllegalArgumentException.class, () -> repository.setMaxUnknownMerchantNumbers(-1));
+	}
+
+	@Test
+	public void testFindByMerchantNumbers() {
+		repository.start();
+		insertRestaurant("9999999999", "Newcomer");
+
+		Map<String, Restaurant> restaurants = repository.findByMerchantNumbers(
+				Arrays.asList("1234567890", "9999999999", "bogus"));
+		assertEquals(2, restaurants.size());
+		assertEquals("Newcomer", restaurants.get("9999999999").getName());
+		assertEquals(1, repository.getHitCount());
+		assertEquals(2, repository.getMissCount());
+
+		assertEquals(1, repository.findByMerchantNumbers(Arrays.asList("bogus", "9999999999")).size());
+		assertEquals(1, repository.getNegativeHitCount());
+	}
+
+	@Test
+	public void testRefreshOnlyReloadsWhenChanged() {
+		jdbcTemplate.execute("alter table T_RESTAURANT add column VERSION integer default 0");
+		repository.setDataSource(dataSource);
+		repository.setChangeDetectionQuery("select sum(VERSION) from T_RESTAURANT");
+		repository.start();
+		Restaurant cached = repository.findByMerchantNumber("1234567890");
+
+		repository.refresh();
+		assertEquals(1, repository.getRefreshCount());
+		assertSame(cached, repository.findByMerchantNumber("1234567890"));
+
+		jdbcTemplate.update("update T_RESTAURANT set NAME = 'Apple Bees', VERSION = VERSION + 1");
+		repository.refresh();
+		assertEquals(2, repository.getRefreshCount());
+		assertEquals("Apple Bees", repository.findByMerchantNumber("1234567890").getName());
+	}
+
+	@Test
+	public void testRefreshesInBackground() throws Exception {
+		repository.setRefreshIntervalMillis(10);
+		repository.start();
+		jdbcTemplate.update("update T_RESTAURANT set NAME = 'Apple Bees'");
+		long deadline = System.currentTimeMillis() + 5000;
+		while (repository.getRefreshCount() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(repository.getRefreshCount() >= 2);
+		assertEquals("Apple Bees", repository.findByMerchantNumber("1234567890").getName());
+	}
+
+	private void insertRestaurant(String merchantNumber, String name) {
+		jdbcTemplate.update("insert into T_RESTAURANT (MERCHANT_NUMBER, NAME, BENEFIT_PERCENTAGE, BENEFIT_AVAILABILITY_POLICY)"
+				+ " values (?, ?, .05, 'A')", merchantNumber, name);
+	}
+}
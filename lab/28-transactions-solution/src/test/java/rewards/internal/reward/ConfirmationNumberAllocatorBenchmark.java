@@ -0,0 +1,82 @@
+package rewards.internal.reward;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+/**
+ * Compares allocating a confirmation number with a sequence query per reward against handing it out from a block
+ * reserved in advance. Both run against the embedded test database, with several threads competing for numbers.
+ *
+ * Run the main method from the IDE, or any other way that puts the test classpath on the classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConfirmationNumberAllocatorBenchmark {
+
+	@Param({ "100", "1000" })
+	private int blockSize;
+
+	private EmbeddedDatabase dataSource;
+
+	private ConfirmationNumberAllocator sequenceAllocator;
+
+	private ConfirmationNumberAllocator pooledAllocator;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.build();
+		// each value of the sequence starts a block
+		new JdbcTemplate(dataSource).execute("alter sequence S_REWARD_CONFIRMATION_NUMBER increment by " + blockSize);
+		sequenceAllocator = new SequenceConfirmationNumberAllocator(dataSource);
+		pooledAllocator = new PooledConfirmationNumberAllocator(dataSource, blockSize);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Benchmark
+	public String sequencePerCall() {
+		return sequenceAllocator.nextConfirmationNumber();
+	}
+
+	@Benchmark
+	public String pooled() {
+		return pooledAllocator.nextConfirmationNumber();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+			.include(ConfirmationNumberAllocatorBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+}
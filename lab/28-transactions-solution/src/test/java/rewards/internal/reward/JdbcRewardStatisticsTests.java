@@ -0,0 +1,126 @@
+package rewards.internal.reward;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rewards.AccountContribution;
+import rewards.Dining;
+import rewards.internal.account.Account;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+import common.money.Percentage;
+
+/**
+ * Tests the reward statistics, kept up to date by an aggregating reward repository, with a test data source.
+ */
+public class JdbcRewardStatisticsTests {
+
+	private JdbcRewardStatistics statistics;
+
+	private AggregatingRewardRepository repository;
+
+	private TransactionTemplate transactionTemplate;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	public void setUp() {
+		DataSource dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.addScript("/rewards/statistics-schema.sql")
+			.build();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		statistics = new JdbcRewardStatistics();
+		statistics.setDataSource(dataSource);
+		statistics.setTransactionOperations(transactionTemplate);
+		JdbcRewardRepository rewardRepository = new JdbcRewardRepository();
+		rewardRepository.setDataSource(dataSource);
+		repository = new AggregatingRewardRepository(rewardRepository, statistics);
+	}
+
+	@Test
+	public void testConfirmReward() {
+		repository.confirmReward(contribution("1", "8.00"), dining("100.00", "1234567890", 17));
+		repository.confirmReward(contribution("1", "4.00"), dining("50.00", "1234567890", 18));
+		repository.confirmReward(contribution("2", "2.00"), dining("25.00", "1234567890", 18));
+
+		assertEquals(new RewardTotal("1", 2, MonetaryAmount.valueOf("12.00")), statistics.getAccountTotal("1"));
+		assertEquals(new RewardTotal("2", 1, MonetaryAmount.valueOf("2.00")), statistics.getAccountTotal("2"));
+		assertEquals(new RewardTotal("3", 0, MonetaryAmount.zero()), statistics.getAccountTotal("3"));
+		assertEquals(MonetaryAmount.valueOf("8.00"), statistics.getMerchantBenefit("1234567890", date(17)));
+		assertEquals(MonetaryAmount.valueOf("6.00"), statistics.getMerchantBenefit("1234567890", date(18)));
+		assertEquals(MonetaryAmount.zero(), statistics.getMerchantBenefit("1234567890", date(19)));
+	}
+
+	@Test
+	public void testConfirmRewardsAndFindTopMerchants() {
+		repository.confirmRewards(
+				Arrays.asList(contribution("1", "8.00"), contribution("1", "1.00"), contribution("2", "5.00"),
+						contribution("2", "4.00")),
+				Arrays.asList(dining("100.00", "1234567890", 17), dining("10.00", "1234567891", 17),
+						dining("50.00", "1234567892", 17), dining("40.00", "1234567892", 18)));
+
+		assertEquals(new RewardTotal("1", 2, MonetaryAmount.valueOf("9.00")), statistics.getAccountTotal("1"));
+		assertEquals(MonetaryAmount.valueOf("5.00"), statistics.getMerchantBenefit("1234567892", date(17)));
+		assertEquals(Arrays.asList(new RewardTotal("1234567892", 2, MonetaryAmount.valueOf("9.00")),
+				new RewardTotal("1234567890", 1, MonetaryAmount.valueOf("8.00"))), statistics.findTopMerchants(2));
+	}
+
+	@Test
+	public void testRolledBackRewardsAreNotCounted() {
+		repository.confirmReward(contribution("1", "8.00"), dining("100.00", "1234567890", 17));
+		assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+			repository.confirmReward(contribution("1", "4.00"), dining("50.00", "1234567890", 17));
+			throw new IllegalStateException("Rolled back");
+		}));
+
+		assertEquals(new RewardTotal("1", 1, MonetaryAmount.valueOf("8.00")), statistics.getAccountTotal("1"));
+		assertEquals(MonetaryAmount.valueOf("8.00"), statistics.getMerchantBenefit("1234567890", date(17)));
+		assertEquals(1, jdbcTemplate.queryForObject("select count(*) from T_REWARD", Integer.class));
+	}
+
+	@Test
+	public void testRebuild() {
+		repository.confirmRewards(Arrays.asList(contribution("1", "8.00"), contribution("2", "5.00")),
+				Arrays.asList(dining("100.00", "1234567890", 17), dining("50.00", "1234567891", 18)));
+		RewardTotal accountTotal = statistics.getAccountTotal("1");
+		List<RewardTotal> topMerchants = statistics.findTopMerchants(10);
+		jdbcTemplate.update("update T_REWARD_ACCOUNT_SUMMARY set REWARD_COUNT = 42");
+		jdbcTemplate.update("delete from T_REWARD_MERCHANT_DAY");
+
+		statistics.rebuild();
+		assertEquals(accountTotal, statistics.getAccountTotal("1"));
+		assertEquals(topMerchants, statistics.findTopMerchants(10));
+		assertEquals(MonetaryAmount.valueOf("5.00"), statistics.getMerchantBenefit("1234567891", date(18)));
+	}
+
+	private AccountContribution contribution(String accountNumber, String amount) {
+		Account account = new Account(accountNumber, "Keith and Keri Donald");
+		account.addBeneficiary("Annabelle", Percentage.valueOf("100%"));
+		return account.makeContribution(MonetaryAmount.valueOf(amount));
+	}
+
+	private Dining dining(String amount, String merchantNumber, int day) {
+		return Dining.createDining(amount, "1234123412341234", merchantNumber, 5, day, 2024);
+	}
+
+	private SimpleDate date(int day) {
+		return new SimpleDate(5, day, 2024);
+	}
+}
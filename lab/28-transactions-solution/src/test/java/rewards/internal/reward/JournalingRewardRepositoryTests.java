@@ -0,0 +1,268 @@
+package rewards.internal.reward;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rewards.AccountContribution;
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.internal.account.Account;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+import common.money.Percentage;
+
+/**
+ * Tests the journaling reward repository with a test data source and a journal in a temporary directory. The
+ * repositories only write behind when the tests drain them, so a repository that is not stopped behaves as if it
+ * crashed.
+ */
+public class JournalingRewardRepositoryTests {
+
+	@TempDir
+	Path directory;
+
+	private DataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private List<JournalingRewardRepository> repositories = new ArrayList<JournalingRewardRepository>();
+
+	@BeforeEach
+	public void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.build();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		for (JournalingRewardRepository repository : repositories) {
+			repository.stop();
+		}
+	}
+
+	@Test
+	public void testConfirmRewardWritesBehind() throws Exception {
+		JournalingRewardRepository repository = startRepository();
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "0123456789");
+
+		RewardConfirmation confirmation = repository.confirmReward(contribution(), dining);
+		assertEquals(0, getRewardCount());
+		assertEquals(1, repository.getPendingCount());
+
+		repository.drain();
+		assertEquals(0, repository.getPendingCount());
+		Map<String, Object> values = jdbcTemplate.queryForMap("select * from T_REWARD where CONFIRMATION_NUMBER = ?",
+				confirmation.getConfirmationNumber());
+		assertEquals(MonetaryAmount.valueOf("8.00"), new MonetaryAmount((BigDecimal) values.get("REWARD_AMOUNT")));
+		assertEquals(SimpleDate.today().asDate(), values.get("REWARD_DATE"));
+		assertEquals("1", values.get("ACCOUNT_NUMBER"));
+		assertEquals(MonetaryAmount.valueOf("100.00"), new MonetaryAmount((BigDecimal) values.get("DINING_AMOUNT")));
+		assertEquals("0123456789", values.get("DINING_MERCHANT_NUMBER"));
+		assertEquals(SimpleDate.today().asDate(), values.get("DINING_DATE"));
+	}
+
+	@Test
+	public void testConfirmRewards() throws Exception {
+		JournalingRewardRepository repository = startRepository();
+		List<RewardConfirmation> confirmations = repository.confirmRewards(
+				Arrays.asList(contribution(), contribution()),
+				Arrays.asList(Dining.createDining("100.00", "1234123412341234", "0123456789"),
+						Dining.createDining("50.00", "1234123412341234", "0123456789")));
+
+		repository.drain();
+		assertEquals(2, getRewardCount());
+		String sql = "select DINING_AMOUNT from T_REWARD where CONFIRMATION_NUMBER = ?";
+		assertEquals(MonetaryAmount.valueOf("50.00"), new MonetaryAmount(jdbcTemplate.queryForObject(sql,
+				BigDecimal.class, confirmations.get(1).getConfirmationNumber())));
+	}
+
+	@Test
+	public void testRecoverUnwrittenRewards() throws Exception {
+		JournalingRewardRepository crashed = startRepository();
+		crashed.confirmReward(contribution(), Dining.createDining("100.00", "1234123412341234", "0123456789"));
+		crashed.confirmReward(contribution(), Dining.createDining("100.00", "1234123412341234", "0123456789"));
+		assertEquals(0, getRewardCount());
+
+		startRepository();
+		assertEquals(2, getRewardCount());
+	}
+
+	@Test
+	public void testRecoverWrittenRewardsOnlyOnce() throws Exception {
+		JournalingRewardRepository crashed = startRepository();
+		crashed.confirmReward(contribution(), Dining.createDining("100.00", "1234123412341234", "0123456789"));
+		crashed.drain();
+		crashed.confirmReward(contribution(), Dining.createDining("100.00", "1234123412341234", "0123456789"));
+
+		// the journal still holds the written reward, as its segment is still being appended to
+		startRepository();
+		assertEquals(2, getRewardCount());
+	}
+
+	@Test
+	public void testRewardWrittenBehindOnlyAfterCommit() throws Exception {
+		JournalingRewardRepository repository = startRepository();
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			repository.confirmReward(contribution(), Dining.createDining("100.00", "1234123412341234", "0123456789"));
+			assertEquals(0, repository.getPendingCount());
+
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.beforeCommit(false);
+			}
+			assertEquals(0, repository.getPendingCount());
+
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCommit();
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			}
+			assertEquals(1, repository.getPendingCount());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void testJournalFailureRollsBackTheTransaction() throws Exception {
+		JournalingRewardRepository repository = new JournalingRewardRepository(dataSource, directory);
+		// too small for a reward, so appending fails
+		repository.setSegmentSize(16);
+		repository.start();
+		repositories.add(repository);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		BigDecimal savings = getTotalSavings();
+
+		assertThrows(IllegalArgumentException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+			jdbcTemplate.update("update T_ACCOUNT_BENEFICIARY set SAVINGS = SAVINGS + 4");
+			repository.confirmReward(contribution(), Dining.createDining("100.00", "1234123412341234", "0123456789"));
+		}));
+		assertEquals(savings, getTotalSavings());
+		assertEquals(0, repository.getPendingCount());
+	}
+
+	@Test
+	public void testRewardNotJournaledOnRollback() throws Exception {
+		JournalingRewardRepository repository = startRepository();
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			repository.confirmReward(contribution(), Dining.createDining("100.00", "1234123412341234", "0123456789"));
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+			}
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		repository.drain();
+		assertEquals(0, getRewardCount());
+	}
+
+	@Test
+	public void testRewardRolledBackAfterJournalingIsNotRecovered() throws Exception {
+		JournalingRewardRepository crashed = startRepository();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+		assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+			crashed.confirmReward(contribution(), Dining.createDining("100.00", "1234123412341234", "0123456789"));
+			// fails the commit after the reward was journaled
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					throw new IllegalStateException("Commit failed");
+				}
+			});
+		}));
+		assertEquals(0, crashed.getPendingCount());
+
+		startRepository();
+		assertEquals(0, getRewardCount());
+	}
+
+	@Test
+	public void testDiningKeyWrittenBehind() throws Exception {
+		JournalingRewardRepository repository = startRepository();
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "0123456789").withKey("authorization-1");
+
+		RewardConfirmation confirmation = repository.confirmReward(contribution(), dining);
+		// rejected while the first reward is not written yet, and once it is
+		assertThrows(DuplicateKeyException.class, () -> repository.confirmReward(contribution(), dining));
+		repository.drain();
+		assertThrows(DuplicateKeyException.class, () -> repository.confirmReward(contribution(), dining));
+
+		assertEquals(confirmation.getConfirmationNumber(), jdbcTemplate.queryForObject(
+				"select CONFIRMATION_NUMBER from T_REWARD where DINING_KEY = ?", String.class, "authorization-1"));
+		assertEquals(1, getRewardCount());
+	}
+
+	@Test
+	public void testDiningKeyOfRolledBackRewardIsReleased() throws Exception {
+		JournalingRewardRepository repository = startRepository();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "0123456789").withKey("authorization-1");
+
+		assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+			repository.confirmReward(contribution(), dining);
+			throw new IllegalStateException("Rolled back");
+		}));
+		repository.confirmReward(contribution(), dining);
+
+		repository.drain();
+		assertEquals(1, getRewardCount());
+	}
+
+	@Test
+	public void testNotStarted() {
+		JournalingRewardRepository repository = new JournalingRewardRepository(dataSource, directory);
+		assertThrows(IllegalStateException.class, () -> repository.confirmReward(contribution(),
+				Dining.createDining("100.00", "1234123412341234", "0123456789")));
+	}
+
+	private JournalingRewardRepository startRepository() throws Exception {
+		JournalingRewardRepository repository = new JournalingRewardRepository(dataSource, directory);
+		repository.setDrainIntervalMillis(Long.MAX_VALUE / 2);
+		repository.start();
+		repositories.add(repository);
+		return repository;
+	}
+
+	private AccountContribution contribution() {
+		Account account = new Account("1", "Keith and Keri Donald");
+		account.addBeneficiary("Annabelle", Percentage.valueOf("50%"));
+		account.addBeneficiary("Corgan", Percentage.valueOf("50%"));
+		return account.makeContribution(MonetaryAmount.valueOf("8.00"));
+	}
+
+	private BigDecimal getTotalSavings() {
+		return jdbcTemplate.queryForObject("select sum(SAVINGS) from T_ACCOUNT_BENEFICIARY", BigDecimal.class);
+	}
+
+	private int getRewardCount() {
+		return jdbcTemplate.queryForObject("select count(*) from T_REWARD", Integer.class);
+	}
+}
@@ -0,0 +1,91 @@
+package rewards.internal.reward;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+/**
+ * Tests the pooled confirmation number allocator against a test data source, verifying numbers are unique across
+ * threads and across allocators sharing the same sequence.
+ */
+public class PooledConfirmationNumberAllocatorTests {
+
+	private DataSource dataSource;
+
+	@BeforeEach
+	public void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/confirmation-number-schema.sql")
+			.build();
+	}
+
+	@Test
+	public void testNumbersComeFromSequence() {
+		PooledConfirmationNumberAllocator allocator = new PooledConfirmationNumberAllocator(dataSource, 100);
+		assertEquals("1", allocator.nextConfirmationNumber());
+		assertEquals("2", allocator.nextConfirmationNumber());
+
+		// a per-call allocator sharing the sequence continues after the reserved block
+		assertEquals("101", new SequenceConfirmationNumberAllocator(dataSource).nextConfirmationNumber());
+	}
+
+	@Test
+	public void testBlockCostsSingleIncrement() {
+		PooledConfirmationNumberAllocator allocator = new PooledConfirmationNumberAllocator(dataSource, 100);
+		for (int i = 1; i <= 250; i++) {
+			assertEquals(Integer.toString(i), allocator.nextConfirmationNumber());
+		}
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		assertEquals(301, jdbcTemplate.queryForObject(
+				"select next value for S_REWARD_CONFIRMATION_NUMBER from DUAL_REWARD_CONFIRMATION_NUMBER", Long.class));
+	}
+
+	@Test
+	public void testBlockSizeDifferingFromIncrementRejected() {
+		PooledConfirmationNumberAllocator allocator = new PooledConfirmationNumberAllocator(dataSource, 10);
+		assertThrows(IllegalStateException.class, allocator::nextConfirmationNumber);
+	}
+
+	@Test
+	public void testNumbersAreUniqueAcrossThreadsAndAllocators() throws Exception {
+		// two allocators simulate two nodes sharing the database
+		ConfirmationNumberAllocator node1 = new PooledConfirmationNumberAllocator(dataSource, 100);
+		ConfirmationNumberAllocator node2 = new PooledConfirmationNumberAllocator(dataSource, 100);
+		Set<String> numbers = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (int i = 0; i < 8; i++) {
+				ConfirmationNumberAllocator allocator = i % 2 == 0 ? node1 : node2;
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < 500; j++) {
+						assertTrue(numbers.add(allocator.nextConfirmationNumber()), "duplicate confirmation number");
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(4000, numbers.size());
+	}
+}
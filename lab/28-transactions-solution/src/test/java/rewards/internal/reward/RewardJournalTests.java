@@ -0,0 +1,164 @@
+package rewards.internal.reward;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the reward journal, written to a temporary directory.
+ */
+public class RewardJournalTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void testReopen() throws Exception {
+		RewardJournal journal = new RewardJournal(directory, 4096);
+		journal.open();
+		journal.append(reward("1"));
+		journal.append(reward("2"));
+		journal.close();
+
+		List<JournaledReward> rewards = new RewardJournal(directory, 4096).open();
+		assertEquals(2, rewards.size());
+		assertEquals("1", rewards.get(0).getConfirmationNumber());
+		assertEquals("2", rewards.get(1).getConfirmationNumber());
+		assertEquals("0123456789", rewards.get(1).toInsertArgs()[4]);
+	}
+
+	@Test
+	public void testReopenWithDiningKey() throws Exception {
+		RewardJournal journal = new RewardJournal(directory, 4096);
+		journal.open();
+		journal.append(new JournaledReward("1", 800, 0, "123456789", "0123456789", 0, 10000, "authorization-1"));
+		journal.close();
+
+		List<JournaledReward> rewards = new RewardJournal(directory, 4096).open();
+		assertEquals("authorization-1", rewards.get(0).getDiningKey());
+		assertEquals("authorization-1", rewards.get(0).toInsertArgs()[7]);
+	}
+
+	@Test
+	public void testHeldRewardsArePendingOnceReleased() throws Exception {
+		RewardJournal journal = new RewardJournal(directory, 4096);
+		journal.open();
+		RewardJournal.Held held = journal.hold(Arrays.asList(reward("1"), reward("2")));
+		assertEquals(0, journal.getPendingCount());
+		assertEquals(2, held.getAppendedCount());
+
+		journal.release(held);
+		assertEquals(2, journal.getPendingCount());
+		journal.close();
+	}
+
+	@Test
+	public void testCancelledRewardsAreNotRecovered() throws Exception {
+		RewardJournal journal = new RewardJournal(directory, 4096);
+		journal.open();
+		journal.append(reward("1"));
+		journal.cancel(journal.hold(Arrays.asList(reward("2"), reward("3"))));
+		journal.hold(Collections.singletonList(reward("4")));
+		assertEquals(1, journal.getPendingCount());
+		journal.close();
+
+		// a held reward neither released nor cancelled, as after a crash before its transaction completed, is recovered
+		List<JournaledReward> rewards = new RewardJournal(directory, 4096).open();
+		assertEquals(Arrays.asList("1", "4"),
+				rewards.stream().map(JournaledReward::getConfirmationNumber).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testSegmentsOfHeldRewardsAreKept() throws Exception {
+		RewardJournal journal = new RewardJournal(directory, 256);
+		journal.open();
+		RewardJournal.Held held = journal.hold(Collections.singletonList(reward("held")));
+		for (int i = 0; i < 20; i++) {
+			journal.append(reward(Integer.toString(i)));
+		}
+		RewardJournal.Pending pending = journal.takePending();
+		assertEquals(1, pending.getSegmentNumber());
+
+		journal.release(held);
+		assertEquals(segmentCount(), journal.takePending().getSegmentNumber());
+		journal.close();
+	}
+
+	@Test
+	public void testForceThrough() throws Exception {
+		RewardJournal journal = new RewardJournal(directory, 4096);
+		journal.open();
+		long first = journal.append(reward("1"));
+		journal.append(reward("2"));
+		assertEquals(2, journal.getUnforcedCount());
+
+		// forcing through the first reward forces all rewards appended so far
+		journal.forceThrough(first);
+		assertEquals(0, journal.getUnforcedCount());
+		journal.forceThrough(first);
+		journal.close();
+	}
+
+	@Test
+	public void testSegments() throws Exception {
+		RewardJournal journal = new RewardJournal(directory, 256);
+		journal.open();
+		for (int i = 0; i < 20; i++) {
+			journal.append(reward(Integer.toString(i)));
+		}
+		RewardJournal.Pending pending = journal.takePending();
+		assertEquals(20, pending.getRewards().size());
+		assertEquals(segmentCount(), pending.getSegmentNumber());
+
+		journal.deleteSegmentsBefore(pending.getSegmentNumber());
+		assertEquals(1, segmentCount());
+	}
+
+	@Test
+	public void testReopenIgnoresTornRecord() throws Exception {
+		RewardJournal journal = new RewardJournal(directory, 4096);
+		journal.open();
+		journal.append(reward("1"));
+		journal.append(reward("2"));
+		journal.close();
+
+		// corrupt the last byte of the second record, as a crash while writing it would
+		Path segment = segments().get(0);
+		ByteBuffer buffer = ByteBuffer.allocate(4);
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			channel.read(buffer, 0);
+			int recordSize = 8 + buffer.getInt(0);
+			channel.write(ByteBuffer.wrap(new byte[] { 42 }), 2 * recordSize - 1);
+		}
+
+		List<JournaledReward> rewards = new RewardJournal(directory, 4096).open();
+		assertEquals(1, rewards.size());
+		assertEquals("1", rewards.get(0).getConfirmationNumber());
+	}
+
+	private JournaledReward reward(String confirmationNumber) {
+		return new JournaledReward(confirmationNumber, 800, 0, "123456789", "0123456789", 0, 10000, null);
+	}
+
+	private int segmentCount() throws Exception {
+		return segments().size();
+	}
+
+	private List<Path> segments() throws Exception {
+		try (Stream<Path> paths = Files.list(directory)) {
+			return paths.sorted().collect(Collectors.toList());
+		}
+	}
+}
@@ -76,20 +76,11 @@ public class Account extends Entity {
 	 * Validation check that returns true only if the total beneficiary allocation adds up to 100%.
 	 */
 	public boolean isValid() {
-		Percentage totalPercentage = Percentage.zero();
+		int totalBasisPoints = 0;
 		for (Beneficiary b : beneficiaries) {
-			try {
-				totalPercentage = totalPercentage.add(b.getAllocationPercentage());
-			} catch (IllegalArgumentException e) {
-				// total would have been over 100% - return invalid
-				return false;
-			}
-		}
-		if (totalPercentage.equals(Percentage.oneHundred())) {
-			return true;
-		} else {
-			return false;
+			totalBasisPoints += b.getAllocationPercentage().asBasisPoints();
 		}
+		return totalBasisPoints == Percentage.oneHundred().asBasisPoints();
 	}
 
 	/**
@@ -1,5 +1,6 @@
 package rewards.internal.account;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.Repository;
 
 /**
@@ -13,12 +14,14 @@ import org.springframework.data.repository.Repository;
 public interface AccountRepository extends Repository<Account,Long> {
 
 	/**
-	 * Load an account by its credit card.
+	 * Load an account by its credit card. The beneficiaries are fetched with
+	 * the account, in the same statement.
 	 * 
 	 * @param creditCardNumber
 	 *            the credit card number
 	 * @return the account object
 	 */
+	@EntityGraph(attributePaths = "beneficiaries")
 	public Account findByCreditCardNumber(String creditCardNumber);
 
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package rewards;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import common.jdbc.StatementCountingDataSource;
+import config.RewardsConfig;
+
+/**
+ * Guards the number of SQL statements rewarding a dining takes, so a change that loads the account or restaurant with
+ * more queries, such as a lazily loaded collection, fails the build.
+ */
+@EnableAutoConfiguration
+@SpringBootTest(classes = RewardNetworkStatementBudgetTests.CountingConfig.class)
+public class RewardNetworkStatementBudgetTests {
+
+	/**
+	 * The statements to reward a dining of an account with two beneficiaries: loading the account with its
+	 * beneficiaries, loading the restaurant, updating the savings of each beneficiary, getting a confirmation number
+	 * and inserting the reward.
+	 */
+	private static final int STATEMENT_BUDGET = 6;
+
+	@Autowired
+	private RewardNetwork rewardNetwork;
+
+	@Autowired
+	private StatementCountingDataSource dataSource;
+
+	@Test
+	public void testRewardForDiningWithinBudget() {
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890");
+
+		dataSource.reset();
+		rewardNetwork.rewardAccountFor(dining);
+
+		long count = dataSource.getCount();
+		assertTrue(count <= STATEMENT_BUDGET,
+				"Rewarding a dining took " + count + " statements; the budget is " + STATEMENT_BUDGET);
+	}
+
+	@TestConfiguration
+	@Import(RewardsConfig.class)
+	static class CountingConfig {
+
+		/**
+		 * Counts the statements run on the data source.
+		 */
+		@Bean
+		static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (bean instanceof DataSource && !(bean instanceof StatementCountingDataSource)) {
+						return new StatementCountingDataSource((DataSource) bean);
+					}
+					return bean;
+				}
+			};
+		}
+	}
+}
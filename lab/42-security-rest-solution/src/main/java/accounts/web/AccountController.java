@@ -2,14 +2,17 @@ package accounts.web;
 
 import accounts.AccountManager;
 import accounts.services.AccountService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import common.money.Percentage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import rewards.internal.account.Account;
 import rewards.internal.account.Beneficiary;
@@ -24,6 +27,8 @@ public class AccountController {
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	private AccountManager accountManager;
+
+	private ObjectMapper objectMapper = new ObjectMapper();
 	private AccountService accountService;
 
 	/**
@@ -36,6 +41,15 @@ public class AccountController {
 		this.accountService = accountService;
 	}
 
+	/**
+	 * Sets the object mapper accounts are streamed with, normally the one
+	 * Spring MVC uses for its responses.
+	 */
+	@Autowired(required = false)
+	public void setObjectMapper(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
 	@GetMapping("/authorities")
 	public List<String> getAuthoritiesForUser(@RequestParam String username) {
 
@@ -51,6 +65,26 @@ public class AccountController {
 		return accountManager.getAllAccounts();
 	}
 
+	/**
+	 * Stream all accounts as newline delimited JSON, one account per line.
+	 * Accounts are read a page at a time and written as soon as they are read,
+	 * so the first account is sent right away and the memory used does not
+	 * depend on the number of accounts.
+	 */
+	@GetMapping(value = "/accounts", produces = AccountStreams.NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAccounts() {
+		return new AccountStreams(accountManager, objectMapper).ndjson();
+	}
+
+	/**
+	 * Stream all accounts as a JSON array, the same as the account summary, but
+	 * written a page of accounts at a time.
+	 */
+	@GetMapping(value = "/accounts", params = "stream", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAccountSummary() {
+		return new AccountStreams(accountManager, objectMapper).jsonArray();
+	}
+
 	/**
 	 * Provide the details of an account with the given id.
 	 */
@@ -3,15 +3,18 @@ package accounts.web;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -22,6 +25,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -150,6 +154,25 @@ public class AccountControllerTests {
 
     }
 
+    @Test
+    @WithMockUser(roles = {"USER"})
+    public void streamAccounts_with_USER_role_should_return_200() throws Exception {
+
+        Account testAccount = new Account("123456789", "John Doe");
+        testAccount.setEntityId(0L);
+        given(accountManager.getAccounts(null, 100)).willReturn(Arrays.asList(testAccount));
+        given(accountManager.getAccounts(0L, 100)).willReturn(Collections.emptyList());
+
+        MvcResult result = mockMvc.perform(get("/accounts").accept("application/x-ndjson"))
+                                  .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+               .andExpect(content().contentType("application/x-ndjson"))
+               .andExpect(content().string(asJsonString(testAccount)));
+
+        verify(accountManager).getAccounts(0L, 100);
+
+    }
+
     @Test
     @WithMockUser(roles = {"ADMIN", "SUPERADMIN"})
     public void createAccount_with_ADMIN_or_SUPERADMIN_role_should_return_201() throws Exception {
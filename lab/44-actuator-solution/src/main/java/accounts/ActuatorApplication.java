@@ -4,12 +4,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import config.AppConfig;
 
 @SpringBootApplication
 @Import(AppConfig.class)
 @EntityScan("rewards.internal")
+@EnableScheduling
 public class ActuatorApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,53 @@
+package accounts.web;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Publishes the hit ratio of each second-level cache region, and of the query
+ * cache, computed from the Hibernate statistics. Hibernate's own metrics only
+ * count the hits and misses.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.generate_statistics", havingValue = "true")
+public class CacheHitRatioMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public CacheHitRatioMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics,
+                         s -> regionHitRatio(s.getCacheRegionStatistics(region)))
+                 .tag("region", region)
+                 .register(registry);
+        }
+        Gauge.builder("hibernate.query.cache.hit.ratio", statistics,
+                     s -> hitRatio(s.getQueryCacheHitCount(), s.getQueryCacheMissCount()))
+             .register(registry);
+    }
+
+    private static double regionHitRatio(CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null) {
+            return Double.NaN;
+        }
+        return hitRatio(regionStatistics.getHitCount(), regionStatistics.getMissCount());
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        long requests = hits + misses;
+        return requests == 0 ? Double.NaN : (double) hits / requests;
+    }
+}
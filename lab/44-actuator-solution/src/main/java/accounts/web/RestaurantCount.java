@@ -0,0 +1,83 @@
+package accounts.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import rewards.internal.restaurant.RestaurantRepository;
+
+/**
+ * The number of restaurants, shared by the restaurant health indicators. Counting the restaurants is a query, so
+ * rather than counting them on every health request, the count is refreshed in the background every refresh
+ * interval, and health requests are served from the last count.
+ *
+ * A count older than the time to live is stale: the refresh failed to finish in time, for instance because the
+ * database hangs, and the restaurants are reported down.
+ */
+@Component
+public class RestaurantCount {
+
+    private final RestaurantRepository restaurantRepository;
+
+    private final long timeToLive;
+
+    private volatile Snapshot snapshot;
+
+    public RestaurantCount(RestaurantRepository restaurantRepository,
+                           @Value("${restaurant.health.time-to-live:15000}") long timeToLive) {
+        this.restaurantRepository = restaurantRepository;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Counts the restaurants, keeping the count, or the failure to count, for the health indicators.
+     */
+    @Scheduled(fixedDelayString = "${restaurant.health.refresh-interval:5000}")
+    public void refresh() {
+        try {
+            snapshot = new Snapshot(restaurantRepository.getRestaurantCount(), null, System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            snapshot = new Snapshot(null, e, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Reports the health of the restaurants from the last count: up if there are restaurants, NO_RESTAURANTS if
+     * there are none, down if the count failed or is stale, and unknown until the restaurants are first counted.
+     */
+    public void contribute(Health.Builder builder) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            builder.unknown();
+            return;
+        }
+        long age = System.currentTimeMillis() - current.timestamp;
+        builder.withDetail("age", age);
+        if (age > timeToLive) {
+            builder.down()
+                   .withDetail("stale", true);
+        } else if (current.error != null) {
+            builder.down(current.error);
+        } else if (current.count > 0) {
+            builder.up()
+                   .withDetail("restaurantCount", current.count);
+        } else {
+            builder.status("NO_RESTAURANTS");
+        }
+    }
+
+    private static class Snapshot {
+
+        private final Long count;
+
+        private final Exception error;
+
+        private final long timestamp;
+
+        Snapshot(Long count, Exception error, long timestamp) {
+            this.count = count;
+            this.error = error;
+            this.timestamp = timestamp;
+        }
+    }
+}
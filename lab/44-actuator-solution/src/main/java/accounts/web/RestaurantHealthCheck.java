@@ -2,28 +2,20 @@ package accounts.web;
 
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
-import org.springframework.boot.actuate.health.Status;
 import org.springframework.stereotype.Component;
-import rewards.internal.restaurant.RestaurantRepository;
 
 @Component
 public class RestaurantHealthCheck implements HealthIndicator {
-    private final RestaurantRepository restaurantRepository;
+    private final RestaurantCount restaurantCount;
 
-    public RestaurantHealthCheck(RestaurantRepository restaurantRepository) {
-        this.restaurantRepository = restaurantRepository;
+    public RestaurantHealthCheck(RestaurantCount restaurantCount) {
+        this.restaurantCount = restaurantCount;
     }
 
     @Override
     public Health health() {
-        Long restaurantCount = restaurantRepository.getRestaurantCount();
-        if (restaurantCount > 0) {
-            return Health.up()
-                         .withDetail("restaurantCount", restaurantCount)
-                         .build();
-        } else {
-            return Health.status("NO_RESTAURANTS")
-                         .build();
-        }
+        Health.Builder builder = new Health.Builder();
+        restaurantCount.contribute(builder);
+        return builder.build();
     }
 }
@@ -1,17 +1,22 @@
 package accounts.web;
 
 import accounts.internal.StubAccountManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import rewards.internal.account.Account;
 import rewards.internal.account.Beneficiary;
 
+import java.io.ByteArrayOutputStream;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,6 +61,28 @@ public class AccountControllerTests {
 		assertEquals(Long.valueOf(0), accounts.get(0).getEntityId());
 	}
 
+	@Test
+	public void testStreamAccounts() throws Exception {
+		ResponseEntity<StreamingResponseBody> response = controller.streamAccounts();
+		assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		response.getBody().writeTo(out);
+		String[] lines = out.toString("UTF-8").split("\n");
+		assertEquals(1, lines.length);
+		assertEquals(0, new ObjectMapper().readTree(lines[0]).get("entityId").asInt());
+	}
+
+	@Test
+	public void testStreamAccountSummary() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		controller.streamAccountSummary().getBody().writeTo(out);
+		JsonNode accounts = new ObjectMapper().readTree(out.toByteArray());
+		assertTrue(accounts.isArray());
+		assertEquals(1, accounts.size());
+		assertEquals(0, accounts.get(0).get("entityId").asInt());
+	}
+
 	@Test
 	public void testCreateAccount() {
 		Account newAccount = new Account("11223344", "Test");
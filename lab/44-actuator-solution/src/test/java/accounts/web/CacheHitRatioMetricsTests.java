@@ -0,0 +1,40 @@
+package accounts.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class CacheHitRatioMetricsTests {
+
+    @Test
+    public void publishes_hit_ratios() {
+        Statistics statistics = mock(Statistics.class);
+        CacheRegionStatistics restaurants = mock(CacheRegionStatistics.class);
+        doReturn(new String[] { "rewards.internal.restaurant.Restaurant" }).when(statistics).getSecondLevelCacheRegionNames();
+        doReturn(restaurants).when(statistics).getCacheRegionStatistics("rewards.internal.restaurant.Restaurant");
+        doReturn(3L).when(restaurants).getHitCount();
+        doReturn(1L).when(restaurants).getMissCount();
+        doReturn(0L).when(statistics).getQueryCacheHitCount();
+        doReturn(0L).when(statistics).getQueryCacheMissCount();
+
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        doReturn(sessionFactory).when(entityManagerFactory).unwrap(SessionFactory.class);
+        doReturn(statistics).when(sessionFactory).getStatistics();
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new CacheHitRatioMetrics(entityManagerFactory).bindTo(registry);
+
+        assertThat(registry.get("hibernate.second.level.cache.hit.ratio")
+                           .tag("region", "rewards.internal.restaurant.Restaurant")
+                           .gauge().value()).isEqualTo(0.75);
+        assertThat(registry.get("hibernate.query.cache.hit.ratio").gauge().value()).isNaN();
+    }
+}
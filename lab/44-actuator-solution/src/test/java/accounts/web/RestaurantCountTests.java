@@ -0,0 +1,69 @@
+package accounts.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataAccessResourceFailureException;
+import rewards.internal.restaurant.RestaurantRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class RestaurantCountTests {
+    private RestaurantRepository restaurantRepository;
+
+    @BeforeEach
+    public void setUp() {
+        restaurantRepository = mock(RestaurantRepository.class);
+    }
+
+    @Test
+    public void health_is_unknown_until_counted() {
+        RestaurantCount restaurantCount = new RestaurantCount(restaurantRepository, 15000);
+
+        assertThat(new RestaurantHealthCheck(restaurantCount).health().getStatus()).isEqualTo(Status.UNKNOWN);
+        verifyNoInteractions(restaurantRepository);
+    }
+
+    @Test
+    public void health_checks_share_one_count() {
+        doReturn(3L).when(restaurantRepository).getRestaurantCount();
+        RestaurantCount restaurantCount = new RestaurantCount(restaurantRepository, 15000);
+        RestaurantHealthCheck restaurantHealthCheck = new RestaurantHealthCheck(restaurantCount);
+        RestaurantHealthCheck2 restaurantHealthCheck2 = new RestaurantHealthCheck2(restaurantCount);
+
+        restaurantCount.refresh();
+        for (int i = 0; i < 10; i++) {
+            assertThat(restaurantHealthCheck.health().getDetails()).containsEntry("restaurantCount", 3L);
+            assertThat(restaurantHealthCheck2.health().getStatus()).isEqualTo(Status.UP);
+        }
+
+        verify(restaurantRepository, times(1)).getRestaurantCount();
+    }
+
+    @Test
+    public void health_is_down_if_count_fails() {
+        doThrow(new DataAccessResourceFailureException("no database")).when(restaurantRepository).getRestaurantCount();
+        RestaurantCount restaurantCount = new RestaurantCount(restaurantRepository, 15000);
+
+        restaurantCount.refresh();
+        Health health = new RestaurantHealthCheck(restaurantCount).health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+        assertThat(health.getDetails()).containsKey("error");
+    }
+
+    @Test
+    public void health_is_down_if_count_is_stale() throws InterruptedException {
+        doReturn(3L).when(restaurantRepository).getRestaurantCount();
+        RestaurantCount restaurantCount = new RestaurantCount(restaurantRepository, 0);
+
+        restaurantCount.refresh();
+        Thread.sleep(5);
+        Health health = new RestaurantHealthCheck(restaurantCount).health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+        assertThat(health.getDetails()).containsEntry("stale", true);
+    }
+}
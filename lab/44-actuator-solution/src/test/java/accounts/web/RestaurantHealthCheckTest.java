@@ -11,18 +11,21 @@ import static org.mockito.Mockito.*;
 
 public class RestaurantHealthCheckTest {
     private RestaurantHealthCheck restaurantHealthCheck;
+    private RestaurantCount restaurantCount;
     private RestaurantRepository restaurantRepository;
 
     @BeforeEach
     public void setUp() {
         restaurantRepository = mock(JpaRestaurantRepository.class);
-        restaurantHealthCheck = new RestaurantHealthCheck(restaurantRepository);
+        restaurantCount = new RestaurantCount(restaurantRepository, 15000);
+        restaurantHealthCheck = new RestaurantHealthCheck(restaurantCount);
     }
 
     @Test
     public void testHealthReturnsUpIfThereAreRestaurants() {
         doReturn(1L).when(restaurantRepository).getRestaurantCount();
 
+        restaurantCount.refresh();
         Health result = restaurantHealthCheck.health();
 
         verify(restaurantRepository).getRestaurantCount();
@@ -33,6 +36,7 @@ public class RestaurantHealthCheckTest {
     public void testHealthReturnsDownIfThereAreNoRestaurants() {
         doReturn(0L).when(restaurantRepository).getRestaurantCount();
 
+        restaurantCount.refresh();
         Health result = restaurantHealthCheck.health();
 
         verify(restaurantRepository).getRestaurantCount();
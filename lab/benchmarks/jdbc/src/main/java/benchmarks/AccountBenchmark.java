@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rewards.AccountContribution;
+import rewards.internal.account.Account;
+
+import common.money.MonetaryAmount;
+import common.money.Percentage;
+
+/**
+ * Measures distributing a contribution over the beneficiaries of an account, for accounts with one, two and four
+ * beneficiaries like those in the test data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountBenchmark {
+
+	@Param({ "1", "2", "4" })
+	private int beneficiaries;
+
+	private MonetaryAmount amount = MonetaryAmount.valueOf("8.00");
+
+	private Account account;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		account = new Account("123456789", "Keith and Keri Donald");
+		Percentage allocationPercentage = Percentage.valueOf(100 / beneficiaries + "%");
+		for (int i = 0; i < beneficiaries; i++) {
+			account.addBeneficiary("Beneficiary " + i, allocationPercentage);
+		}
+	}
+
+	@Benchmark
+	public AccountContribution makeContribution() {
+		return account.makeContribution(amount);
+	}
+}
@@ -0,0 +1,103 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import rewards.internal.account.Account;
+import rewards.internal.account.JdbcAccountRepository;
+import rewards.internal.restaurant.CachingRestaurantRepository;
+import rewards.internal.restaurant.JdbcRestaurantRepository;
+import rewards.internal.restaurant.Restaurant;
+
+import common.money.MonetaryAmount;
+
+/**
+ * Measures the JDBC account and restaurant repositories against the embedded test database. Updating the
+ * beneficiaries first makes a small contribution, so there are savings to write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JdbcRepositoryBenchmark {
+
+	private static final String CREDIT_CARD_NUMBER = "1234123412341234";
+
+	private static final String MERCHANT_NUMBER = "1234567890";
+
+	private EmbeddedDatabase dataSource;
+
+	private JdbcAccountRepository accountRepository;
+
+	private JdbcRestaurantRepository restaurantRepository;
+
+	private CachingRestaurantRepository cachingRestaurantRepository;
+
+	private MonetaryAmount contribution = MonetaryAmount.valueOf("0.04");
+
+	private Account account;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.build();
+		accountRepository = new JdbcAccountRepository();
+		accountRepository.setDataSource(dataSource);
+		restaurantRepository = new JdbcRestaurantRepository();
+		restaurantRepository.setDataSource(dataSource);
+		cachingRestaurantRepository = new CachingRestaurantRepository(restaurantRepository);
+		cachingRestaurantRepository.start();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		cachingRestaurantRepository.stop();
+		dataSource.shutdown();
+	}
+
+	@Benchmark
+	public Account findAccountByCreditCard() {
+		return accountRepository.findByCreditCard(CREDIT_CARD_NUMBER);
+	}
+
+	@Setup(Level.Iteration)
+	public void resetAccount() {
+		account = accountRepository.findByCreditCard(CREDIT_CARD_NUMBER);
+	}
+
+	@Benchmark
+	public Account updateBeneficiaries() {
+		account.makeContribution(contribution);
+		accountRepository.updateBeneficiaries(account);
+		return account;
+	}
+
+	@Benchmark
+	public Restaurant findRestaurantByMerchantNumber() {
+		return restaurantRepository.findByMerchantNumber(MERCHANT_NUMBER);
+	}
+
+	@Benchmark
+	public Restaurant findCachedRestaurantByMerchantNumber() {
+		return cachingRestaurantRepository.findByMerchantNumber(MERCHANT_NUMBER);
+	}
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import common.money.MonetaryAmount;
+import common.money.Percentage;
+
+/**
+ * Measures the MonetaryAmount and Percentage operations a reward is made of: parsing the dining amount, taking the
+ * benefit percentage of it, splitting it over the beneficiaries and adding the splits to their savings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+	private String amountString = "100.00";
+
+	private String percentageString = "8%";
+
+	private MonetaryAmount diningAmount = MonetaryAmount.valueOf("100.00");
+
+	private MonetaryAmount savings = MonetaryAmount.valueOf("123.45");
+
+	private Percentage benefitPercentage = Percentage.valueOf("8%");
+
+	private Percentage allocationPercentage = Percentage.valueOf("25%");
+
+	@Benchmark
+	public MonetaryAmount parseMonetaryAmount() {
+		return MonetaryAmount.valueOf(amountString);
+	}
+
+	@Benchmark
+	public Percentage parsePercentage() {
+		return Percentage.valueOf(percentageString);
+	}
+
+	@Benchmark
+	public MonetaryAmount add() {
+		return savings.add(diningAmount);
+	}
+
+	@Benchmark
+	public MonetaryAmount multiplyByPercentage() {
+		return diningAmount.multiplyBy(benefitPercentage);
+	}
+
+	@Benchmark
+	public Percentage addPercentages() {
+		return allocationPercentage.add(allocationPercentage);
+	}
+
+	@Benchmark
+	public MonetaryAmount distribute() {
+		MonetaryAmount benefit = diningAmount.multiplyBy(benefitPercentage);
+		return savings.add(benefit.multiplyBy(allocationPercentage));
+	}
+}
@@ -0,0 +1,105 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+
+import config.RewardsConfig;
+
+/**
+ * Measures rewarding a dining end to end with the JDBC reward network of RewardsConfig, in its own transaction,
+ * against the embedded test database. The credit cards are those of accounts with one, two and four beneficiaries.
+ *
+ * Rewards and savings are reset before every iteration, so the savings columns do not overflow however many dinings
+ * are rewarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RewardNetworkBenchmark {
+
+	@Param({ "1234123412340017", "1234123412341234", "1234123412340003" })
+	private String creditCardNumber;
+
+	private AnnotationConfigApplicationContext context;
+
+	private RewardNetwork rewardNetwork;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private Dining dining;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+		rewardNetwork = context.getBean(RewardNetwork.class);
+		jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+		dining = Dining.createDining("1.00", creditCardNumber, "1234567890");
+	}
+
+	@Setup(Level.Iteration)
+	public void resetRewards() {
+		jdbcTemplate.update("delete from T_REWARD");
+		jdbcTemplate.update("update T_ACCOUNT_BENEFICIARY set SAVINGS = 0");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public RewardConfirmation rewardAccountFor() {
+		return rewardNetwork.rewardAccountFor(dining);
+	}
+
+	@Configuration
+	@Import(RewardsConfig.class)
+	static class BenchmarkConfig {
+
+		@Bean
+		public DataSource dataSource() {
+			return new EmbeddedDatabaseBuilder()
+				.generateUniqueName(true)
+				.addScript("classpath:rewards/testdb/schema.sql")
+				.addScript("classpath:rewards/testdb/data.sql")
+				.addScript("classpath:rewards/confirmation-number-schema.sql")
+				.addScript("classpath:rewards/statistics-schema.sql")
+				.build();
+		}
+
+		@Bean
+		public PlatformTransactionManager transactionManager() {
+			return new DataSourceTransactionManager(dataSource());
+		}
+	}
+}
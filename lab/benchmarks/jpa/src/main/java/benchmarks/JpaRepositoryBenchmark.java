@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rewards.internal.account.Account;
+import rewards.internal.account.AccountRepository;
+import rewards.internal.restaurant.Restaurant;
+import rewards.internal.restaurant.RestaurantRepository;
+
+import config.AppConfig;
+import config.DbConfig;
+
+/**
+ * Measures the JPA account and restaurant repositories, on Hibernate, against the embedded test database. Every
+ * lookup runs in its own read-only transaction, as the repositories need one to load the beneficiaries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dspring.jpa.show-sql=false")
+public class JpaRepositoryBenchmark {
+
+	private static final String CREDIT_CARD_NUMBER = "1234123412341234";
+
+	private static final String MERCHANT_NUMBER = "1234567890";
+
+	private AnnotationConfigApplicationContext context;
+
+	private AccountRepository accountRepository;
+
+	private RestaurantRepository restaurantRepository;
+
+	private TransactionTemplate transactionTemplate;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new AnnotationConfigApplicationContext(DbConfig.class, AppConfig.class);
+		accountRepository = context.getBean(AccountRepository.class);
+		restaurantRepository = context.getBean(RestaurantRepository.class);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		transactionTemplate.setReadOnly(true);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Account findAccountByCreditCard() {
+		return transactionTemplate.execute(status -> accountRepository.findByCreditCard(CREDIT_CARD_NUMBER));
+	}
+
+	@Benchmark
+	public Restaurant findRestaurantByMerchantNumber() {
+		return transactionTemplate.execute(status -> restaurantRepository.findByMerchantNumber(MERCHANT_NUMBER));
+	}
+}
@@ -0,0 +1,113 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+import rewards.RewardsApplication;
+import rewards.internal.account.Account;
+import rewards.internal.account.AccountRepository;
+import rewards.internal.restaurant.Restaurant;
+import rewards.internal.restaurant.RestaurantRepository;
+
+/**
+ * Measures the Spring Data JPA account and restaurant repositories, and rewarding a dining end to end with the reward
+ * network they make up, in the Spring Boot rewards application and its embedded database. The database is populated
+ * with the test scripts of the application, copied here as they are not part of its jar; their only account has two
+ * beneficiaries.
+ *
+ * Rewards and savings are reset before every iteration, so the savings columns do not overflow however many dinings
+ * are rewarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpringDataBenchmark {
+
+	private static final String MERCHANT_NUMBER = "1234567890";
+
+	private static final String CREDIT_CARD_NUMBER = "1234123412341234";
+
+	private ConfigurableApplicationContext context;
+
+	private AccountRepository accountRepository;
+
+	private RestaurantRepository restaurantRepository;
+
+	private RewardNetwork rewardNetwork;
+
+	private TransactionTemplate transactionTemplate;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private Dining dining;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(RewardsApplication.class)
+			.web(WebApplicationType.NONE)
+			.run("--logging.level.root=WARN",
+				"--spring.sql.init.schema-locations=classpath:/rewards/testdb/test-schema.sql",
+				"--spring.sql.init.data-locations=classpath:/rewards/testdb/test-data.sql");
+		accountRepository = context.getBean(AccountRepository.class);
+		restaurantRepository = context.getBean(RestaurantRepository.class);
+		rewardNetwork = context.getBean(RewardNetwork.class);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		transactionTemplate.setReadOnly(true);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		dining = Dining.createDining("1.00", CREDIT_CARD_NUMBER, MERCHANT_NUMBER);
+	}
+
+	@Setup(Level.Iteration)
+	public void resetRewards() {
+		jdbcTemplate.update("delete from T_REWARD");
+		jdbcTemplate.update("update T_ACCOUNT_BENEFICIARY set SAVINGS = 0");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Account findAccountByCreditCard() {
+		return transactionTemplate.execute(status -> {
+			Account account = accountRepository.findByCreditCardNumber(CREDIT_CARD_NUMBER);
+			account.getBeneficiaries().size();
+			return account;
+		});
+	}
+
+	@Benchmark
+	public Restaurant findRestaurantByMerchantNumber() {
+		return transactionTemplate.execute(status -> restaurantRepository.findByNumber(MERCHANT_NUMBER));
+	}
+
+	@Benchmark
+	public RewardConfirmation rewardAccountFor() {
+		return rewardNetwork.rewardAccountFor(dining);
+	}
+}
@@ -0,0 +1,74 @@
+package common.testdata;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a generated rewards dataset as one CSV file per table, named after the table, with a header row of column
+ * names. Generated values never contain commas or quotes, so values are not quoted.
+ */
+public class CsvRewardsDataSink implements RewardsDataSink {
+
+	private Path directory;
+
+	private Writer accounts;
+
+	private Writer creditCards;
+
+	private Writer beneficiaries;
+
+	private Writer restaurants;
+
+	/**
+	 * Creates a sink writing to the given directory, creating it if needed.
+	 */
+	public CsvRewardsDataSink(Path directory) throws IOException {
+		this.directory = Files.createDirectories(directory);
+		this.accounts = open("T_ACCOUNT", "ID,NUMBER,NAME");
+		this.creditCards = open("T_ACCOUNT_CREDIT_CARD", "ACCOUNT_ID,NUMBER");
+		this.beneficiaries = open("T_ACCOUNT_BENEFICIARY", "ACCOUNT_ID,NAME,ALLOCATION_PERCENTAGE,SAVINGS");
+		this.restaurants = open("T_RESTAURANT", "MERCHANT_NUMBER,NAME,BENEFIT_PERCENTAGE,BENEFIT_AVAILABILITY_POLICY");
+	}
+
+	public void addAccount(long id, String number, String name) throws IOException {
+		accounts.write(id + "," + number + "," + name + "\n");
+	}
+
+	public void addCreditCard(long accountId, String number) throws IOException {
+		creditCards.write(accountId + "," + number + "\n");
+	}
+
+	public void addBeneficiary(long accountId, String name, int allocationPercentage) throws IOException {
+		beneficiaries.write(accountId + "," + name + "," + decimal(allocationPercentage) + ",0.00\n");
+	}
+
+	public void addRestaurant(String merchantNumber, String name, int benefitPercentage,
+			char benefitAvailabilityPolicy) throws IOException {
+		restaurants.write(merchantNumber + "," + name + "," + decimal(benefitPercentage) + ","
+				+ benefitAvailabilityPolicy + "\n");
+	}
+
+	/**
+	 * Closes the CSV files.
+	 */
+	public void finish() throws IOException {
+		accounts.close();
+		creditCards.close();
+		beneficiaries.close();
+		restaurants.close();
+	}
+
+	private Writer open(String table, String header) throws IOException {
+		BufferedWriter writer = Files.newBufferedWriter(directory.resolve(table + ".csv"), StandardCharsets.UTF_8);
+		writer.write(header + "\n");
+		return writer;
+	}
+
+	private static String decimal(int percentage) {
+		return String.format("%d.%02d", percentage / 100, percentage % 100);
+	}
+}
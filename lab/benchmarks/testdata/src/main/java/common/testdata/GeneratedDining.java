@@ -0,0 +1,47 @@
+package common.testdata;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+
+/**
+ * A dining generated by the {@link RewardsDataGenerator}, holding what is needed to create the dining of any of the
+ * rewards applications.
+ */
+public class GeneratedDining {
+
+	private final MonetaryAmount amount;
+
+	private final String creditCardNumber;
+
+	private final String merchantNumber;
+
+	private final SimpleDate date;
+
+	GeneratedDining(MonetaryAmount amount, String creditCardNumber, String merchantNumber, SimpleDate date) {
+		this.amount = amount;
+		this.creditCardNumber = creditCardNumber;
+		this.merchantNumber = merchantNumber;
+		this.date = date;
+	}
+
+	public MonetaryAmount getAmount() {
+		return amount;
+	}
+
+	public String getCreditCardNumber() {
+		return creditCardNumber;
+	}
+
+	public String getMerchantNumber() {
+		return merchantNumber;
+	}
+
+	public SimpleDate getDate() {
+		return date;
+	}
+
+	public String toString() {
+		return "Dining of " + amount + " charged to '" + creditCardNumber + "' by '" + merchantNumber + "' on "
+				+ date;
+	}
+}
@@ -0,0 +1,93 @@
+package common.testdata;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Inserts a generated rewards dataset into a database with batch inserts. Accounts are inserted with the ids the
+ * generator gives them, so the tables should be empty.
+ */
+public class JdbcRewardsDataSink implements RewardsDataSink {
+
+	private static final String INSERT_ACCOUNT_SQL = "insert into T_ACCOUNT (ID, NUMBER, NAME) values (?, ?, ?)";
+
+	private static final String INSERT_CREDIT_CARD_SQL = "insert into T_ACCOUNT_CREDIT_CARD (ACCOUNT_ID, NUMBER) values (?, ?)";
+
+	private static final String INSERT_BENEFICIARY_SQL = "insert into T_ACCOUNT_BENEFICIARY (ACCOUNT_ID, NAME, ALLOCATION_PERCENTAGE, SAVINGS) values (?, ?, ?, 0.00)";
+
+	private static final String INSERT_RESTAURANT_SQL = "insert into T_RESTAURANT (MERCHANT_NUMBER, NAME, BENEFIT_PERCENTAGE, BENEFIT_AVAILABILITY_POLICY) values (?, ?, ?, ?)";
+
+	private JdbcTemplate jdbcTemplate;
+
+	private int batchSize = 1000;
+
+	private List<Object[]> accounts = new ArrayList<Object[]>();
+
+	private List<Object[]> creditCards = new ArrayList<Object[]>();
+
+	private List<Object[]> beneficiaries = new ArrayList<Object[]>();
+
+	private List<Object[]> restaurants = new ArrayList<Object[]>();
+
+	public JdbcRewardsDataSink(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * Sets the number of rows inserted with a single batch. Defaults to 1000.
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public void addAccount(long id, String number, String name) {
+		add(accounts, new Object[] { id, number, name });
+	}
+
+	public void addCreditCard(long accountId, String number) {
+		add(creditCards, new Object[] { accountId, number });
+	}
+
+	public void addBeneficiary(long accountId, String name, int allocationPercentage) {
+		add(beneficiaries, new Object[] { accountId, name, BigDecimal.valueOf(allocationPercentage, 2) });
+	}
+
+	public void addRestaurant(String merchantNumber, String name, int benefitPercentage,
+			char benefitAvailabilityPolicy) {
+		add(restaurants, new Object[] { merchantNumber, name, BigDecimal.valueOf(benefitPercentage, 2),
+				String.valueOf(benefitAvailabilityPolicy) });
+	}
+
+	public void finish() {
+		flush();
+	}
+
+	private void add(List<Object[]> rows, Object[] row) {
+		rows.add(row);
+		if (rows.size() >= batchSize) {
+			flush();
+		}
+	}
+
+	/**
+	 * Inserts all buffered rows, accounts first, as the credit cards and beneficiaries reference them.
+	 */
+	private void flush() {
+		insert(INSERT_ACCOUNT_SQL, accounts);
+		insert(INSERT_CREDIT_CARD_SQL, creditCards);
+		insert(INSERT_BENEFICIARY_SQL, beneficiaries);
+		insert(INSERT_RESTAURANT_SQL, restaurants);
+	}
+
+	private void insert(String sql, List<Object[]> rows) {
+		if (!rows.isEmpty()) {
+			jdbcTemplate.batchUpdate(sql, rows);
+			rows.clear();
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package common.testdata;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+
+/**
+ * Generates a rewards dataset of any size in the tables of <code>rewards/testdb/schema.sql</code>, and streams of
+ * dinings against it. The same seed always generates the same dataset and the same dinings.
+ *
+ * Account i has id i, account number i and credit card {@link #getCreditCardNumber(long) 4 followed by 2i}; one
+ * account in ten has a second card. Half the accounts have one beneficiary, a quarter two, and so on up to the
+ * maximum, with allocations that add up to 100%. Restaurant i has merchant number i, a benefit of 1% to 10%, and one
+ * restaurant in ten never offers its benefit.
+ *
+ * Dinings follow a Zipf distribution over both the accounts and the restaurants, so a few accounts and restaurants
+ * get most of the dinings, like in production. The most popular accounts and restaurants are spread over the ids.
+ * Amounts are log-normal around $30, and dates are spread over the days up to the last dining date.
+ */
+public class RewardsDataGenerator {
+
+	private static final String[] FIRST_NAMES = { "Annabelle", "Corgan", "Antolin", "Argus", "Gian", "Argeo", "Kai",
+			"Kasper", "Ernst", "Brian", "Shelby", "Charles", "Thomas", "Neil", "Daniel", "Dollie", "Cornelia", "Coral",
+			"Chad", "Michael", "John", "Ida", "Laina", "Wesley", "Leslie", "Pietronella", "Glenda", "Willemina",
+			"Antje", "Julia", "Mark", "Christine" };
+
+	private static final String[] LAST_NAMES = { "Donald", "Adams", "Andresen", "Betancourt", "Cobbs", "Feller",
+			"Grover", "Howard", "Ketterer", "Lucero", "Mayo", "Mcclary", "Mudra", "Nielsen", "Oleary", "Smith",
+			"Thygesen", "Vogt", "Weber", "Williams", "Wilson" };
+
+	private static final String[] RESTAURANT_NAMES = { "AppleBees", "Barnabees", "Bistro", "Brasserie", "Diner",
+			"Grill", "Kitchen", "Tavern", "Trattoria", "Steakhouse", "Noodle Bar", "Sushi Bar", "Taqueria" };
+
+	private static final long MAX_ACCOUNTS = 1000000000L;
+
+	private long seed = 42;
+
+	private long accounts = 100000;
+
+	private long restaurants = 1000;
+
+	private int maxBeneficiaries = 4;
+
+	private double zipfExponent = 1.0;
+
+	private LocalDate lastDiningDate = LocalDate.now();
+
+	private int diningDays = 30;
+
+	/**
+	 * Sets the seed of the random numbers. Defaults to 42.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the number of accounts, at most a billion as account numbers have nine digits. Defaults to 100,000.
+	 */
+	public void setAccounts(long accounts) {
+		if (accounts < 1 || accounts > MAX_ACCOUNTS) {
+			throw new IllegalArgumentException("Expected 1 to " + MAX_ACCOUNTS + " accounts; got " + accounts);
+		}
+		this.accounts = accounts;
+	}
+
+	/**
+	 * Sets the number of restaurants. Defaults to 1000.
+	 */
+	public void setRestaurants(long restaurants) {
+		if (restaurants < 1) {
+			throw new IllegalArgumentException("Expected at least one restaurant; got " + restaurants);
+		}
+		this.restaurants = restaurants;
+	}
+
+	/**
+	 * Sets the largest number of beneficiaries of an account, at most 100. Defaults to 4.
+	 */
+	public void setMaxBeneficiaries(int maxBeneficiaries) {
+		if (maxBeneficiaries < 1 || maxBeneficiaries > 100) {
+			throw new IllegalArgumentException("Expected 1 to 100 beneficiaries; got " + maxBeneficiaries);
+		}
+		this.maxBeneficiaries = maxBeneficiaries;
+	}
+
+	/**
+	 * Sets the exponent of the Zipf distribution of dinings over accounts and restaurants. Zero spreads the dinings
+	 * evenly; the higher the exponent, the more dinings go to the most popular accounts and restaurants. Defaults to
+	 * 1.
+	 */
+	public void setZipfExponent(double zipfExponent) {
+		this.zipfExponent = zipfExponent;
+	}
+
+	/**
+	 * Sets the date of the most recent dinings. Defaults to today.
+	 */
+	public void setLastDiningDate(LocalDate lastDiningDate) {
+		this.lastDiningDate = lastDiningDate;
+	}
+
+	/**
+	 * Sets the number of days the dinings are spread over. Defaults to 30.
+	 */
+	public void setDiningDays(int diningDays) {
+		this.diningDays = diningDays;
+	}
+
+	/**
+	 * Returns the number of the first credit card of an account.
+	 * @param accountId the id of the account
+	 */
+	public static String getCreditCardNumber(long accountId) {
+		return String.format("4%015d", 2 * accountId);
+	}
+
+	/**
+	 * Returns the merchant number of a restaurant.
+	 * @param restaurant the restaurant, from zero
+	 */
+	public static String getMerchantNumber(long restaurant) {
+		return String.format("%010d", restaurant);
+	}
+
+	/**
+	 * Generates the accounts, with their credit cards and beneficiaries, and then the restaurants.
+	 * @param sink the sink the rows are added to; finished once all rows are added
+	 */
+	public void generate(RewardsDataSink sink) throws IOException {
+		Random random = new Random(seed);
+		for (long id = 0; id < accounts; id++) {
+			sink.addAccount(id, String.format("%09d", id), FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+					+ LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+			sink.addCreditCard(id, getCreditCardNumber(id));
+			if (random.nextInt(10) == 0) {
+				sink.addCreditCard(id, String.format("4%015d", 2 * id + 1));
+			}
+			int beneficiaries = 1;
+			while (beneficiaries < maxBeneficiaries && random.nextBoolean()) {
+				beneficiaries++;
+			}
+			int firstName = random.nextInt(FIRST_NAMES.length);
+			int allocation = 100 / beneficiaries;
+			for (int i = 0; i < beneficiaries; i++) {
+				// the first beneficiary gets what is left over by rounding down; names are unique in an account
+				String name = FIRST_NAMES[(firstName + i) % FIRST_NAMES.length]
+						+ (i >= FIRST_NAMES.length ? " " + (i / FIRST_NAMES.length + 1) : "");
+				sink.addBeneficiary(id, name, i == 0 ? 100 - allocation * (beneficiaries - 1) : allocation);
+			}
+		}
+		for (long i = 0; i < restaurants; i++) {
+			sink.addRestaurant(getMerchantNumber(i), RESTAURANT_NAMES[random.nextInt(RESTAURANT_NAMES.length)] + " "
+					+ i, 1 + random.nextInt(10), random.nextInt(10) == 0 ? 'N' : 'A');
+		}
+		sink.finish();
+	}
+
+	/**
+	 * Returns a stream of dinings at the generated restaurants, charged to the first credit cards of the generated
+	 * accounts.
+	 * @param count the number of dinings
+	 */
+	public Stream<GeneratedDining> dinings(long count) {
+		Random random = new Random(~seed);
+		ZipfSampler accountSampler = new ZipfSampler(accounts, zipfExponent);
+		ZipfSampler restaurantSampler = new ZipfSampler(restaurants, zipfExponent);
+		long accountStep = coprimeStep(accounts);
+		long restaurantStep = coprimeStep(restaurants);
+		return Stream.generate(() -> {
+			long account = scatter(accountSampler.sample(random), accountStep, accounts);
+			long restaurant = scatter(restaurantSampler.sample(random), restaurantStep, restaurants);
+			long cents = Math.round(Math.exp(Math.log(3000) + 0.6 * random.nextGaussian()));
+			LocalDate date = lastDiningDate.minusDays(random.nextInt(diningDays));
+			return new GeneratedDining(MonetaryAmount.ofCents(Math.max(100, cents)), getCreditCardNumber(account),
+					getMerchantNumber(restaurant), new SimpleDate(date.getMonthValue(), date.getDayOfMonth(),
+							date.getYear()));
+		}).limit(count);
+	}
+
+	/**
+	 * Maps a rank to an id, so that consecutive ranks get ids far apart: (rank - 1) * step modulo n visits every id
+	 * once when step and n have no common divisor.
+	 */
+	private static long scatter(long rank, long step, long n) {
+		return Math.floorMod(Math.multiplyExact(rank - 1, step), n);
+	}
+
+	private static long coprimeStep(long n) {
+		long step = Math.max(1, (long) (n * 0.618));
+		while (gcd(step, n) != 1) {
+			step++;
+		}
+		return step;
+	}
+
+	private static long gcd(long a, long b) {
+		return b == 0 ? a : gcd(b, a % b);
+	}
+
+	/**
+	 * Writes a generated dataset to a SQL script or to CSV files. Arguments: <code>sql</code> and the script file, or
+	 * <code>csv</code> and the directory of the CSV files; then optionally the number of accounts, the number of
+	 * restaurants and the seed.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || !(args[0].equals("sql") || args[0].equals("csv"))) {
+			System.err.println("Usage: RewardsDataGenerator sql <file> | csv <directory> [accounts] [restaurants] [seed]");
+			System.exit(1);
+		}
+		RewardsDataGenerator generator = new RewardsDataGenerator();
+		if (args.length > 2) {
+			generator.setAccounts(Long.parseLong(args[2]));
+		}
+		if (args.length > 3) {
+			generator.setRestaurants(Long.parseLong(args[3]));
+		}
+		if (args.length > 4) {
+			generator.setSeed(Long.parseLong(args[4]));
+		}
+		Path path = Paths.get(args[1]);
+		if (args[0].equals("csv")) {
+			generator.generate(new CsvRewardsDataSink(path));
+		} else {
+			try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+				generator.generate(new SqlScriptRewardsDataSink(writer));
+			}
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package common.testdata;
+
+import java.io.IOException;
+
+/**
+ * Receives the rows of a generated rewards dataset, in the tables of <code>rewards/testdb/schema.sql</code>. An
+ * account is always added before its credit cards and beneficiaries.
+ */
+public interface RewardsDataSink {
+
+	/**
+	 * Adds a T_ACCOUNT row.
+	 */
+	void addAccount(long id, String number, String name) throws IOException;
+
+	/**
+	 * Adds a T_ACCOUNT_CREDIT_CARD row.
+	 */
+	void addCreditCard(long accountId, String number) throws IOException;
+
+	/**
+	 * Adds a T_ACCOUNT_BENEFICIARY row, without savings.
+	 * @param allocationPercentage the allocation percentage as a whole percent, for instance 25 for 25%
+	 */
+	void addBeneficiary(long accountId, String name, int allocationPercentage) throws IOException;
+
+	/**
+	 * Adds a T_RESTAURANT row.
+	 * @param benefitPercentage the benefit percentage as a whole percent, for instance 8 for 8%
+	 * @param benefitAvailabilityPolicy 'A' when the benefit is always available, 'N' when never
+	 */
+	void addRestaurant(String merchantNumber, String name, int benefitPercentage, char benefitAvailabilityPolicy)
+			throws IOException;
+
+	/**
+	 * Writes the rows still buffered; called once all rows were added.
+	 */
+	void finish() throws IOException;
+}
@@ -0,0 +1,54 @@
+package common.testdata;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a generated rewards dataset as a script of insert statements, one per line, that can be run after
+ * <code>rewards/testdb/schema.sql</code> in place of <code>rewards/testdb/data.sql</code>.
+ */
+public class SqlScriptRewardsDataSink implements RewardsDataSink {
+
+	private Writer writer;
+
+	/**
+	 * Creates a sink writing to the given writer, which the caller closes.
+	 */
+	public SqlScriptRewardsDataSink(Writer writer) {
+		this.writer = writer;
+	}
+
+	public void addAccount(long id, String number, String name) throws IOException {
+		writer.write("insert into T_ACCOUNT (ID, NUMBER, NAME) values (" + id + ", " + quote(number) + ", "
+				+ quote(name) + ");\n");
+	}
+
+	public void addCreditCard(long accountId, String number) throws IOException {
+		writer.write("insert into T_ACCOUNT_CREDIT_CARD (ACCOUNT_ID, NUMBER) values (" + accountId + ", "
+				+ quote(number) + ");\n");
+	}
+
+	public void addBeneficiary(long accountId, String name, int allocationPercentage) throws IOException {
+		writer.write("insert into T_ACCOUNT_BENEFICIARY (ACCOUNT_ID, NAME, ALLOCATION_PERCENTAGE, SAVINGS) values ("
+				+ accountId + ", " + quote(name) + ", " + decimal(allocationPercentage) + ", 0.00);\n");
+	}
+
+	public void addRestaurant(String merchantNumber, String name, int benefitPercentage,
+			char benefitAvailabilityPolicy) throws IOException {
+		writer.write("insert into T_RESTAURANT (MERCHANT_NUMBER, NAME, BENEFIT_PERCENTAGE, BENEFIT_AVAILABILITY_POLICY) values ("
+				+ quote(merchantNumber) + ", " + quote(name) + ", " + decimal(benefitPercentage) + ", '"
+				+ benefitAvailabilityPolicy + "');\n");
+	}
+
+	public void finish() throws IOException {
+		writer.flush();
+	}
+
+	private static String quote(String value) {
+		return "'" + value.replace("'", "''") + "'";
+	}
+
+	private static String decimal(int percentage) {
+		return String.format("%d.%02d", percentage / 100, percentage % 100);
+	}
+}
@@ -0,0 +1,82 @@
+package common.testdata;
+
+import java.util.Random;
+
+/**
+ * Samples ranks 1 to n with probability proportional to 1 / rank^exponent, in constant time and without tables, so
+ * n can be in the millions. Uses the rejection-inversion method of Hörmann and Derflinger, "Rejection-inversion to
+ * generate variates from monotone discrete distributions" (1996).
+ */
+class ZipfSampler {
+
+	private final long n;
+
+	private final double exponent;
+
+	private final double hIntegralX1;
+
+	private final double hIntegralN;
+
+	private final double s;
+
+	/**
+	 * Creates a sampler of ranks 1 to n.
+	 * @param n the number of ranks
+	 * @param exponent the exponent, zero or more; zero samples all ranks equally often
+	 */
+	ZipfSampler(long n, double exponent) {
+		if (n < 1) {
+			throw new IllegalArgumentException("Expected at least one rank; got " + n);
+		}
+		if (exponent < 0) {
+			throw new IllegalArgumentException("Expected an exponent of zero or more; got " + exponent);
+		}
+		this.n = n;
+		this.exponent = exponent;
+		this.hIntegralX1 = hIntegral(1.5) - 1;
+		this.hIntegralN = hIntegral(n + 0.5);
+		this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+	}
+
+	/**
+	 * Returns a rank between 1 and n.
+	 */
+	long sample(Random random) {
+		while (true) {
+			double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+			double x = hIntegralInverse(u);
+			long k = Math.max(1, Math.min(n, (long) (x + 0.5)));
+			if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+				return k;
+			}
+		}
+	}
+
+	private double h(double x) {
+		return Math.exp(-exponent * Math.log(x));
+	}
+
+	private double hIntegral(double x) {
+		double logX = Math.log(x);
+		return helper2((1 - exponent) * logX) * logX;
+	}
+
+	private double hIntegralInverse(double x) {
+		double t = Math.max(-1, x * (1 - exponent));
+		return Math.exp(helper1(t) * x);
+	}
+
+	/**
+	 * Returns log(1 + x) / x, accurately for x near zero.
+	 */
+	private static double helper1(double x) {
+		return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+	}
+
+	/**
+	 * Returns (exp(x) - 1) / x, accurately for x near zero.
+	 */
+	private static double helper2(double x) {
+		return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x * (1.0 / 3) * (1 + 0.25 * x));
+	}
+}
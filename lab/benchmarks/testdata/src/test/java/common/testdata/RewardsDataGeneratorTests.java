@@ -0,0 +1,148 @@
+package common.testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+
+/**
+ * Tests the rewards data generator against an embedded database holding the rewards schema.
+ */
+public class RewardsDataGeneratorTests {
+
+	@TempDir
+	Path directory;
+
+	private EmbeddedDatabase dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private RewardsDataGenerator generator = new RewardsDataGenerator();
+
+	@BeforeEach
+	public void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.build();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		generator.setAccounts(1000);
+		generator.setRestaurants(50);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Test
+	public void testGenerateIntoDatabase() throws Exception {
+		JdbcRewardsDataSink sink = new JdbcRewardsDataSink(dataSource);
+		sink.setBatchSize(7);
+		generator.generate(sink);
+
+		assertEquals(1000, count("select count(*) from T_ACCOUNT"));
+		assertEquals(50, count("select count(*) from T_RESTAURANT"));
+		assertEquals(0, count("select count(*) from T_ACCOUNT a where not exists "
+				+ "(select 1 from T_ACCOUNT_CREDIT_CARD c where c.ACCOUNT_ID = a.ID and c.NUMBER = '"
+				+ "4' || lpad(cast(2 * a.ID as varchar(15)), 15, '0'))"));
+		assertEquals(0, count("select count(*) from (select ACCOUNT_ID from T_ACCOUNT_BENEFICIARY "
+				+ "group by ACCOUNT_ID having sum(ALLOCATION_PERCENTAGE) <> 1)"));
+		assertEquals(1000, count("select count(distinct ACCOUNT_ID) from T_ACCOUNT_BENEFICIARY"));
+
+		// skewed beneficiary counts: most accounts have one beneficiary, fewest have four
+		List<Integer> beneficiaryCounts = jdbcTemplate.queryForList("select count(*) from T_ACCOUNT_BENEFICIARY "
+				+ "group by ACCOUNT_ID", Integer.class);
+		Map<Integer, Long> accountsByBeneficiaryCount = beneficiaryCounts.stream()
+			.collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+		assertTrue(accountsByBeneficiaryCount.get(1) > accountsByBeneficiaryCount.get(2));
+		assertTrue(accountsByBeneficiaryCount.get(2) > accountsByBeneficiaryCount.get(4));
+		assertEquals(4, beneficiaryCounts.stream().mapToInt(Integer::intValue).max().getAsInt());
+	}
+
+	@Test
+	public void testSqlScriptIsReproducible() throws Exception {
+		String script = sqlScript();
+		assertEquals(script, sqlScript());
+		generator.setSeed(43);
+		assertNotEquals(script, sqlScript());
+
+		new ResourceDatabasePopulator(new ByteArrayResource(script.getBytes(StandardCharsets.UTF_8)))
+			.execute(dataSource);
+		assertEquals(1000, count("select count(*) from T_ACCOUNT"));
+	}
+
+	@Test
+	public void testCsvFiles() throws Exception {
+		generator.generate(new CsvRewardsDataSink(directory));
+		List<String> accounts = Files.readAllLines(directory.resolve("T_ACCOUNT.csv"));
+		assertEquals(1001, accounts.size());
+		assertEquals("ID,NUMBER,NAME", accounts.get(0));
+		assertTrue(accounts.get(1).startsWith("0,000000000,"));
+		assertEquals(51, Files.readAllLines(directory.resolve("T_RESTAURANT.csv")).size());
+		assertTrue(Files.exists(directory.resolve("T_ACCOUNT_CREDIT_CARD.csv")));
+		assertTrue(Files.exists(directory.resolve("T_ACCOUNT_BENEFICIARY.csv")));
+	}
+
+	@Test
+	public void testDinings() throws Exception {
+		generator.setLastDiningDate(LocalDate.of(2024, 3, 31));
+		generator.setDiningDays(31);
+		generator.generate(new JdbcRewardsDataSink(dataSource));
+		Set<String> creditCardNumbers = new HashSet<String>(
+				jdbcTemplate.queryForList("select NUMBER from T_ACCOUNT_CREDIT_CARD", String.class));
+		Set<String> merchantNumbers = new HashSet<String>(
+				jdbcTemplate.queryForList("select MERCHANT_NUMBER from T_RESTAURANT", String.class));
+
+		List<GeneratedDining> dinings = generator.dinings(10000).collect(Collectors.toList());
+		assertEquals(10000, dinings.size());
+		assertEquals(dinings.toString(), generator.dinings(10000).collect(Collectors.toList()).toString());
+		for (GeneratedDining dining : dinings) {
+			assertTrue(creditCardNumbers.contains(dining.getCreditCardNumber()));
+			assertTrue(merchantNumbers.contains(dining.getMerchantNumber()));
+			assertTrue(dining.getAmount().greaterThan(MonetaryAmount.valueOf("0.99")));
+			assertTrue(dining.getDate().compareTo(new SimpleDate(3, 1, 2024)) >= 0);
+			assertTrue(dining.getDate().compareTo(new SimpleDate(3, 31, 2024)) <= 0);
+		}
+
+		// Zipf distributed: the most popular account gets many times its share of the dinings
+		long mostDinings = dinings.stream()
+			.collect(Collectors.groupingBy(GeneratedDining::getCreditCardNumber, Collectors.counting()))
+			.values().stream().mapToLong(Long::longValue).max().getAsLong();
+		assertTrue(mostDinings > 50 * 10000 / 1000);
+	}
+
+	private String sqlScript() throws Exception {
+		StringWriter writer = new StringWriter();
+		generator.generate(new SqlScriptRewardsDataSink(writer));
+		return writer.toString();
+	}
+
+	private int count(String sql) {
+		return jdbcTemplate.queryForObject(sql, Integer.class);
+	}
+}
@@ -0,0 +1,55 @@
+package common.testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests that make sure the Zipf sampler samples ranks with the expected frequencies.
+ */
+public class ZipfSamplerTests {
+
+	private static final int SAMPLES = 200000;
+
+	@Test
+	public void testFrequenciesFollowExponent() {
+		int[] counts = sample(new ZipfSampler(1000, 1.0), 1000);
+		// with exponent 1, rank k is sampled k times less often than rank 1
+		assertEquals(2.0, (double) counts[1] / counts[2], 0.1);
+		assertEquals(10.0, (double) counts[1] / counts[10], 1.0);
+	}
+
+	@Test
+	public void testExponentZeroIsUniform() {
+		int[] counts = sample(new ZipfSampler(10, 0.0), 10);
+		for (int rank = 1; rank <= 10; rank++) {
+			assertEquals(SAMPLES / 10, counts[rank], SAMPLES / 100);
+		}
+	}
+
+	@Test
+	public void testRanksInRange() {
+		int[] counts = sample(new ZipfSampler(3, 2.5), 3);
+		assertEquals(SAMPLES, counts[1] + counts[2] + counts[3]);
+		assertTrue(counts[3] > 0);
+	}
+
+	@Test
+	public void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(0, 1.0));
+		assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(10, -1.0));
+	}
+
+	private int[] sample(ZipfSampler sampler, int n) {
+		Random random = new Random(42);
+		int[] counts = new int[n + 1];
+		for (int i = 0; i < SAMPLES; i++) {
+			counts[(int) sampler.sample(random)]++;
+		}
+		return counts;
+	}
+}